@@ -0,0 +1,387 @@
+package org.example.sudoku;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the generation, validation and solving hot paths of {@link Sudoku}
+ * <p>
+ *     Boards come from a corpus generated from fixed seeds, so runs of different versions measure the same inputs.
+ *     Run with {@code mvn -Pjmh verify}; the profile adds the gc profiler to report allocation rates.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SudokuBenchmark {
+    final static long SEED = 20240601L;
+    final static int CORPUS_SIZE = 64;
+
+    /**
+     * Fixed-seed boards at each generation stage
+     */
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        int[][][] diagonals = new int[CORPUS_SIZE][][];
+        int[][][] solutions = new int[CORPUS_SIZE][][];
+        int[][][] puzzles = new int[CORPUS_SIZE][][];
+        int[][] puzzleCells = new int[CORPUS_SIZE][];
+
+        @Setup(Level.Trial)
+        public void build() {
+            Sudoku game;
+            for (int n = 0; n < CORPUS_SIZE; n++) {
+                game = seeded(SEED + n);
+                game.initDiagonalSubgrids();
+                diagonals[n] = grid(game);
+                game.fillRemaining(0, 0);
+                solutions[n] = grid(game);
+                game.removeCellsKeepingUnique(game.rand.nextInt(game.dims.minRemove, game.dims.maxRemove));
+                puzzles[n] = grid(game);
+                puzzleCells[n] = game.toCells();
+            }
+        }
+    }
+
+    /**
+     * Per-thread boards loaded from the corpus, with a cursor cycling through them
+     */
+    @State(Scope.Thread)
+    public static class Boards {
+        Sudoku[] solved = new Sudoku[CORPUS_SIZE];
+        Sudoku[] puzzles = new Sudoku[CORPUS_SIZE];
+        Sudoku scratch;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void load(Corpus corpus) {
+            for (int n = 0; n < CORPUS_SIZE; n++) {
+                solved[n] = new Sudoku(true);
+                solved[n].setGrid(corpus.solutions[n]);
+                puzzles[n] = new Sudoku(true);
+                puzzles[n].setGrid(corpus.puzzles[n]);
+            }
+            scratch = seeded(SEED);
+        }
+
+        int next() {
+            cursor = cursor + 1 == CORPUS_SIZE ? 0 : cursor + 1;
+            return cursor;
+        }
+    }
+
+    /**
+     * Board reset before every invocation for benchmarks that consume their input
+     */
+    @State(Scope.Thread)
+    public static class Reset {
+        Sudoku game;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void create() {
+            game = seeded(SEED);
+        }
+    }
+
+    /**
+     * Generation mode for full construction
+     */
+    @State(Scope.Benchmark)
+    public static class Generation {
+        @Param({"true", "false"})
+        boolean unique;
+    }
+
+    @Benchmark
+    public Sudoku newSudoku(Generation generation) {
+        return new Sudoku(false, generation.unique);
+    }
+
+    /**
+     * Per-thread reusable generator and output board
+     */
+    @State(Scope.Thread)
+    public static class Generator {
+        PuzzleGenerator generator = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(SEED));
+        Board out = new Board();
+    }
+
+    @Benchmark
+    public Board generateReused(Generation generation, Generator state) {
+        state.generator.generate(generation.unique, state.out);
+        return state.out;
+    }
+
+    /**
+     * Box size and seeded random source for generating boards larger than 9x9
+     */
+    @State(Scope.Thread)
+    public static class LargeGeneration {
+        @Param({"4", "5"})
+        int box;
+        BoardSize dims;
+        SplittableRandom rand = new SplittableRandom(SEED);
+
+        @Setup(Level.Trial)
+        public void setup() {
+            dims = BoardSize.of(box);
+        }
+    }
+
+    @Benchmark
+    public Sudoku newLargeSudoku(LargeGeneration generation) {
+        return new Sudoku(generation.dims, false, false, generation.rand.split());
+    }
+
+    @Benchmark
+    public boolean fillRemaining(FillInput input) {
+        return input.game.fillRemaining(0, 0);
+    }
+
+    @Benchmark
+    public int removeRandomCells(RemoveInput input) {
+        input.game.removeRandomCells(50);
+        return input.game.blankCount;
+    }
+
+    @Benchmark
+    public int checkCell(Boards boards) {
+        Sudoku game = boards.puzzles[boards.next()];
+        int valid = 0;
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                if (game.checkCell(i, j)) valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public boolean checkFinished(Boards boards) {
+        return boards.solved[boards.next()].checkFinished();
+    }
+
+    @Benchmark
+    public int setGrid(Boards boards, Corpus corpus) {
+        boards.scratch.setGrid(corpus.puzzles[boards.next()]);
+        return boards.scratch.blankCount;
+    }
+
+    @Benchmark
+    public int validateDigitForEmptyCell(Boards boards) {
+        Sudoku game = boards.puzzles[boards.next()];
+        int allowed = 0;
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                if (game.board.get(i, j) != 0) continue;
+                for (int digit = 1; digit <= 9; digit++) {
+                    if (game.validateDigitForEmptyCell(digit, i, j)) allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    public int solve(Boards boards, Corpus corpus, SolverState state) {
+        return state.solver.countSolutions(corpus.puzzleCells[boards.next()], 2, state.solution);
+    }
+
+    @Benchmark
+    public int solveHard(HardSolve state) {
+        return state.solver.countSolutions(state.puzzle, 2, state.solution);
+    }
+
+    @Benchmark
+    public int solveHardSixteen(HardSolve state) {
+        return state.solver.countSolutions(state.sixteen, 2, state.sixteenSolution);
+    }
+
+    @Benchmark
+    public Difficulty grade(Boards boards, Corpus corpus, SolverState state) {
+        return state.logicalSolver.grade(corpus.puzzleCells[boards.next()]);
+    }
+
+    @Benchmark
+    public Hint nextHint(Boards boards) {
+        return boards.puzzles[boards.next()].nextHint();
+    }
+
+    @Benchmark
+    public Board transform(Boards boards, TransformState state) {
+        state.transform.randomize(state.rand);
+        state.transform.apply(boards.solved[boards.next()].board, state.out);
+        return state.out;
+    }
+
+    @Benchmark
+    public long canonicalize(Boards boards, Corpus corpus, TransformState state) {
+        return state.canonical.fingerprint(corpus.puzzleCells[boards.next()]);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int validateLoop(Validation validation) {
+        int valid = 0;
+        for (int n = 0; n < Validation.GRIDS; n++) {
+            validation.scratch.loadPuzzle(validation.buffer, n * 81);
+            if (validation.scratch.checkFinished()) valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int validateScalar(Validation validation) {
+        return validation.scalar.validate(validation.grids, 0, Validation.GRIDS, validation.valid);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int validateVector(Validation validation) {
+        return validation.vector.validate(validation.grids, 0, Validation.GRIDS, validation.valid);
+    }
+
+    /**
+     * Packed solved grids, every eighth one broken, with a validator of each kind
+     */
+    @State(Scope.Thread)
+    public static class Validation {
+        final static int GRIDS = 4096;
+        byte[] grids = new byte[GRIDS * 81];
+        ByteBuffer buffer = ByteBuffer.wrap(grids);
+        long[] valid = new long[GRIDS / 64];
+        Sudoku scratch = new Sudoku(true);
+        BatchValidator scalar = new ScalarBatchValidator();
+        BatchValidator vector;
+
+        @Setup(Level.Trial)
+        public void build(Corpus corpus) {
+            SplittableRandom rand = new SplittableRandom(SEED);
+            SymmetryTransform transform = new SymmetryTransform();
+            Board source = new Board();
+            Board out = new Board();
+            for (int n = 0; n < GRIDS; n++) {
+                int[][] solution = corpus.solutions[n % CORPUS_SIZE];
+                for (int pos = 0; pos < 81; pos++) source.cells[pos] = (byte) solution[pos / 9][pos % 9];
+                transform.randomize(rand);
+                transform.apply(source, out);
+                System.arraycopy(out.cells, 0, grids, n * 81, 81);
+                if (n % 8 == 0) grids[n * 81 + rand.nextInt(81)] = 0;
+            }
+            vector = BatchValidator.create();
+            if (!(vector instanceof VectorBatchValidator)) throw new IllegalStateException("Vector API unavailable");
+        }
+    }
+
+    /**
+     * Hard 9x9 and 16x16 puzzles with a fork-join solver on the common pool, 0 splits being a sequential search
+     */
+    @State(Scope.Benchmark)
+    public static class HardSolve {
+        @Param({"0", "6"})
+        int splitDepth;
+        int[] puzzle = new int[81];
+        int[] solution = new int[81];
+        Board sixteen;
+        byte[] sixteenSolution = new byte[256];
+        ParallelSolver solver;
+
+        @Setup(Level.Trial)
+        public void build() {
+            String hard = "100007090030020008009600500005300900010080002600004000300000010040000007007000300";
+            for (int pos = 0; pos < 81; pos++) puzzle[pos] = hard.charAt(pos) - '0';
+            sixteen = new Sudoku(BoardSize.of(4), false, false, new SplittableRandom(SEED)).board;
+            solver = new ParallelSolver(ForkJoinPool.commonPool(), splitDepth);
+        }
+    }
+
+    /**
+     * Reusable transform, canonicalizer, random source and output board per thread
+     */
+    @State(Scope.Thread)
+    public static class TransformState {
+        SymmetryTransform transform = new SymmetryTransform();
+        CanonicalForm canonical = new CanonicalForm();
+        SplittableRandom rand = new SplittableRandom(SEED);
+        Board out = new Board();
+    }
+
+    /**
+     * Reusable solvers per thread
+     */
+    @State(Scope.Thread)
+    public static class SolverState {
+        Solver solver = new DancingLinksSolver();
+        LogicalSolver logicalSolver = new LogicalSolver();
+        int[] solution = new int[81];
+    }
+
+    /**
+     * Board holding only the diagonal subgrids, reset before every fill
+     */
+    @State(Scope.Thread)
+    public static class FillInput extends Reset {
+        @Setup(Level.Invocation)
+        public void reset(Corpus corpus) {
+            cursor = cursor + 1 == CORPUS_SIZE ? 0 : cursor + 1;
+            game.setGrid(corpus.diagonals[cursor]);
+        }
+    }
+
+    /**
+     * Fully solved board, reset before every removal
+     */
+    @State(Scope.Thread)
+    public static class RemoveInput extends Reset {
+        @Setup(Level.Invocation)
+        public void reset(Corpus corpus) {
+            cursor = cursor + 1 == CORPUS_SIZE ? 0 : cursor + 1;
+            game.setGrid(corpus.solutions[cursor]);
+        }
+    }
+
+    /**
+     * Create an empty board whose digit orders and random stream derive only from a seed
+     * @param seed the seed
+     * @return the seeded empty board
+     */
+    static Sudoku seeded(long seed) {
+        Sudoku game = new Sudoku(true);
+        game.rand = new Random(seed);
+        game.shuffleDigits();
+        return game;
+    }
+
+    /**
+     * Copy the board of a game into a 9x9 grid
+     * @param game the game to copy
+     * @return the grid
+     */
+    static int[][] grid(Sudoku game) {
+        int[][] grid = new int[9][9];
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) grid[i][j] = game.board.get(i, j);
+        }
+        return grid;
+    }
+}
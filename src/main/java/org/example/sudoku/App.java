@@ -1,15 +1,360 @@
 package org.example.sudoku;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.SplittableRandom;
 
 public class App {
+    final static String USAGE = """
+            Usage:
+              sudoku                                              play an interactive game
+              sudoku play --bank FILE [--difficulty D]            play a random puzzle of a grade from a puzzle bank
+              sudoku play --box B                                 play a generated game with B x B subgrids, 2 to 5
+              sudoku play [...] --save FILE                       journal every move to a file, with undo and redo
+              sudoku play --resume FILE                           continue a journaled game
+              sudoku script --id N [--in FILE] [--save FILE]      apply move lines to puzzle N without a terminal
+              sudoku script --resume FILE [--in FILE]             apply move lines to a journaled game
+              sudoku serve [--port P] [--pool N] [--seed S]       host games over TCP on localhost from a pool of N puzzles
+              sudoku load --port P [--sessions N] [--moves M] [--interval MS]
+                                                                  run N concurrent sessions against a local server
+              sudoku generate --count N [--seed S] [--threads T] [--dedupe] --out FILE
+                                                                  generate puzzles with IDs S to S+N-1, one line each
+              sudoku sparse [--clues C,...] [--count N] [--seed S] [--out FILE]
+                                                                  generate N puzzles per clue target, 0 for minimal
+              sudoku solve --in FILE [--threads T] --out FILE     solve every puzzle line of a file, in order
+              sudoku grade --in FILE [--threads T] --out FILE     grade every puzzle line of a file by the techniques it needs
+              sudoku bank --in FILE --out FILE                    build a puzzle bank from the unique puzzles of a file
+              sudoku multiply --in FILE --variants K [--seed S] [--threads T] --out FILE
+                                                                  write K transformed variants of every puzzle of a file""";
+
     public static void main(String[] args) throws IOException, InterruptedException {
-        Sudoku game = new Sudoku();
+        try {
+            if (args.length == 0) play(new Sudoku(), null);
+            else if (args[0].equals("play")) play(args);
+            else if (args[0].equals("script")) script(args);
+            else if (args[0].equals("serve")) serve(args);
+            else if (args[0].equals("load")) load(args);
+            else if (args[0].equals("generate")) generate(args);
+            else if (args[0].equals("sparse")) sparse(args);
+            else if (args[0].equals("solve")) solve(args);
+            else if (args[0].equals("grade")) grade(args);
+            else if (args[0].equals("bank")) bank(args);
+            else if (args[0].equals("multiply")) multiply(args);
+            else throw new IllegalArgumentException("Unknown command: " + args[0]);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Play a puzzle picked from a puzzle bank, so no generation happens before the first frame, a generated game of
+     * another board size, or a journaled game
+     * @param args the command line arguments, starting with the command name
+     */
+    static void play(String[] args) throws IOException, InterruptedException {
+        if (flag(args, "--resume")) {
+            try (GameJournal journal = GameJournal.resume(Path.of(option(args, "--resume", null)))) {
+                play(journal.game, journal);
+            }
+            return;
+        }
+
+        Sudoku game;
+        if (flag(args, "--bank")) {
+            Path path = Path.of(option(args, "--bank", null));
+            Difficulty difficulty = Difficulty.valueOf(option(args, "--difficulty", "EASY").toUpperCase());
+
+            PuzzleBank bank = PuzzleBank.open(path);
+            int entry = bank.randomEntry(difficulty, new SplittableRandom());
+            if (entry < 0) throw new IllegalArgumentException("No " + difficulty + " puzzle in " + path);
+            game = new Sudoku(true);
+            bank.load(entry, game);
+        } else {
+            BoardSize dims = BoardSize.of(Integer.parseInt(option(args, "--box", "3")));
+            game = new Sudoku(dims, false, dims == BoardSize.NINE, new SplittableRandom());
+        }
+
+        if (flag(args, "--save")) {
+            try (GameJournal journal = GameJournal.create(Path.of(option(args, "--save", null)), game)) {
+                play(game, journal);
+            }
+        } else {
+            play(game, null);
+        }
+    }
+
+    /**
+     * Play a single interactive game on the terminal
+     * <p>
+     *     Input is read through one {@link MoveReader} for the whole game. A bad line is reported above the next
+     *     prompt instead of ending the game.
+     * </p>
+     * @param game the game to play
+     * @param journal the journal of the game, so moves can be undone, redone and resumed, or null to play without one
+     */
+    static void play(Sudoku game, GameJournal journal) throws IOException {
+        SudokuMetrics.register();
+        TerminalRenderer renderer = new TerminalRenderer(System.out);
+        ScriptRunner runner = new ScriptRunner(game, journal, null);
+        MoveReader reader = new MoveReader(System.in);
+        int kind;
         while (!game.checkFinished()) {
-            game.printGrid();
-            game.askForDigit();
+            renderer.render(game);
+            if (runner.lastError != null) System.out.println(runner.lastError);
+            System.out.print(journal == null ? "Enter an answer in the form \"<row> <col> <digit>\", 1-indexed: "
+                    : "Enter an answer in the form \"<row> <col> <digit>\", 1-indexed, or \"undo\" or \"redo\": ");
+            if ((kind = reader.next()) == MoveReader.END || kind == MoveReader.QUIT) return;
+            runner.apply(reader, kind);
         }
-        game.printGrid();
+        renderer.render(game);
         System.out.println("You win!");
     }
+
+    /**
+     * Apply a stream of move lines to a game without a terminal, for load and regression tests
+     * <p>
+     *     Prints the final board as one line of cells, then reports the totals on stderr.
+     * </p>
+     * @param args the command line arguments, starting with the command name
+     */
+    static void script(String[] args) throws IOException {
+        GameJournal journal = null;
+        Sudoku game;
+        if (flag(args, "--resume")) {
+            journal = GameJournal.resume(Path.of(option(args, "--resume", null)));
+            game = journal.game;
+        } else {
+            game = Sudoku.fromId(Long.parseLong(option(args, "--id", null)), true);
+            if (flag(args, "--save")) journal = GameJournal.create(Path.of(option(args, "--save", null)), game);
+        }
+
+        try (InputStream in = flag(args, "--in") ? Files.newInputStream(Path.of(option(args, "--in", null))) : System.in) {
+            ScriptRunner runner = new ScriptRunner(game, journal, System.err);
+            long start = System.nanoTime();
+            runner.run(in);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            StringBuilder line = new StringBuilder(game.dims.cells);
+            int digit;
+            for (int pos = 0; pos < game.dims.cells; pos++) {
+                digit = game.board.get(pos);
+                line.append(digit == 0 ? '0' : BoardSize.symbol(digit));
+            }
+            System.out.println(line);
+            System.err.printf("Applied %d moves from %d lines in %.3f s, %d ignored, %d bad lines, %s%n",
+                    runner.appliedCount, runner.lineCount, seconds, runner.ignoredCount, runner.badCount,
+                    game.checkFinished() ? "solved" : "not solved");
+        } finally {
+            if (journal != null) journal.close();
+        }
+    }
+
+    /**
+     * Serve games from a pool of generated puzzles until the process is killed
+     * @param args the command line arguments, starting with the command name
+     */
+    static void serve(String[] args) throws IOException, InterruptedException {
+        int poolSize = Integer.parseInt(option(args, "--pool", "1024"));
+        long seed = flag(args, "--seed") ? Long.parseLong(option(args, "--seed", null)) : new SplittableRandom().nextLong();
+        int port = Integer.parseInt(option(args, "--port", "7070"));
+
+        SudokuMetrics.register();
+        long start = System.nanoTime();
+        GameServer server = GameServer.start(GameServer.generatePool(poolSize, seed), port);
+        System.err.printf("Serving %d puzzles on localhost:%d, generated in %.3f s%n", poolSize, server.port(),
+                (System.nanoTime() - start) / 1e9);
+        server.acceptor.join();
+    }
+
+    /**
+     * Measure the move latency of a local server under many concurrent sessions
+     * @param args the command line arguments, starting with the command name
+     */
+    static void load(String[] args) throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator(option(args, "--host", "localhost"),
+                Integer.parseInt(option(args, "--port", null)), Integer.parseInt(option(args, "--sessions", "1000")),
+                Integer.parseInt(option(args, "--moves", "100")),
+                Duration.ofMillis(Long.parseLong(option(args, "--interval", "0"))));
+        generator.run();
+        System.out.println(generator.summary());
+    }
+
+    /**
+     * Generate puzzles in bulk into a file
+     * @param args the command line arguments, starting with the command name
+     */
+    static void generate(String[] args) throws IOException, InterruptedException {
+        long count = Long.parseLong(option(args, "--count", null));
+        int threads = Integer.parseInt(option(args, "--threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long firstId = Long.parseLong(option(args, "--seed", String.valueOf(new SplittableRandom().nextLong())));
+        Path out = Path.of(option(args, "--out", null));
+        if (count < 0 || threads < 1) throw new IllegalArgumentException("Count and threads must be positive");
+
+        long start = System.nanoTime();
+        BulkGenerator generator = new BulkGenerator(count, threads, true, firstId, flag(args, "--dedupe"));
+        long written = generator.run(out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Generated %d puzzles with IDs from %d in %.2f s (%.0f puzzles/s), %d duplicates skipped%n",
+                written, firstId, seconds, written / seconds, generator.duplicateCount);
+    }
+
+    /**
+     * Generate sparse puzzles for each of a list of clue targets, reporting the rate of each
+     * @param args the command line arguments, starting with the command name
+     */
+    static void sparse(String[] args) throws IOException {
+        String[] targets = option(args, "--clues", "0,24,23,22").split(",");
+        int count = Integer.parseInt(option(args, "--count", "100"));
+        long seed = Long.parseLong(option(args, "--seed", String.valueOf(new SplittableRandom().nextLong())));
+        // all lines of a target are buffered so writing them stays out of the timing
+        int maxCount = Integer.MAX_VALUE / PuzzleFormat.LINE_LENGTH;
+        if (count < 1 || count > maxCount) throw new IllegalArgumentException("Count must be between 1 and " + maxCount);
+
+        SparseGenerator generator = new SparseGenerator(new SplittableRandom(seed));
+        Board board = new Board();
+        byte[] lines = new byte[count * PuzzleFormat.LINE_LENGTH];
+        try (OutputStream out = flag(args, "--out") ? Files.newOutputStream(Path.of(option(args, "--out", null)))
+                : OutputStream.nullOutputStream()) {
+            int target, offset;
+            long clues, attempts, start;
+            double seconds;
+            for (String value : targets) {
+                target = Integer.parseInt(value.trim());
+                clues = 0;
+                offset = 0;
+                attempts = generator.attemptCount;
+                start = System.nanoTime();
+                for (int n = 0; n < count; n++) {
+                    generator.generate(target, board);
+                    clues += board.clueCount();
+                    offset = PuzzleFormat.writeLine(board, lines, offset);
+                }
+                seconds = (System.nanoTime() - start) / 1e9;
+                out.write(lines, 0, offset);
+                System.err.printf("%s: %d puzzles in %.2f s (%.1f puzzles/s), %.1f clues and %.1f attempts each%n",
+                        target == SparseGenerator.MINIMAL ? "minimal" : target + " clues", count, seconds,
+                        count / seconds, (double) clues / count, (double) (generator.attemptCount - attempts) / count);
+            }
+        }
+    }
+
+    /**
+     * Solve a file of puzzles into a file of solutions
+     * @param args the command line arguments, starting with the command name
+     */
+    static void solve(String[] args) throws IOException, InterruptedException {
+        Path in = Path.of(option(args, "--in", null));
+        Path out = Path.of(option(args, "--out", null));
+        int threads = Integer.parseInt(option(args, "--threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive");
+
+        BatchSolver solver = new BatchSolver(threads);
+        long start = System.nanoTime();
+        long read = solver.run(in, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Solved %d puzzles in %.2f s (%.0f puzzles/s): %d unique, %d multiple, %d invalid%n",
+                read, seconds, read / seconds, solver.solvedCount, solver.multipleCount, solver.invalidCount);
+    }
+
+    /**
+     * Grade a file of puzzles into a file of graded puzzle lines
+     * @param args the command line arguments, starting with the command name
+     */
+    static void grade(String[] args) throws IOException, InterruptedException {
+        Path in = Path.of(option(args, "--in", null));
+        Path out = Path.of(option(args, "--out", null));
+        int threads = Integer.parseInt(option(args, "--threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive");
+
+        BatchGrader grader = new BatchGrader(threads);
+        long start = System.nanoTime();
+        long read = grader.run(in, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Graded %d puzzles in %.2f s (%.0f puzzles/s):", read, seconds, read / seconds);
+        for (Difficulty difficulty : Difficulty.values()) {
+            System.err.printf(" %d %s", grader.getGradeCount(difficulty), difficulty.name().toLowerCase());
+        }
+        System.err.println();
+    }
+
+    /**
+     * Build a puzzle bank from a file of puzzles
+     * @param args the command line arguments, starting with the command name
+     */
+    static void bank(String[] args) throws IOException {
+        Path in = Path.of(option(args, "--in", null));
+        Path out = Path.of(option(args, "--out", null));
+
+        long start = System.nanoTime();
+        int written = PuzzleBank.build(in, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Banked %d puzzles in %.2f s:", written, seconds);
+        PuzzleBank bank = PuzzleBank.open(out);
+        for (Difficulty difficulty : Difficulty.values()) {
+            System.err.printf(" %d %s", bank.count(difficulty), difficulty.name().toLowerCase());
+        }
+        System.err.println();
+    }
+
+    /**
+     * Multiply a file of puzzles into a file of equivalent variants
+     * @param args the command line arguments, starting with the command name
+     */
+    static void multiply(String[] args) throws IOException, InterruptedException {
+        Path in = Path.of(option(args, "--in", null));
+        Path out = Path.of(option(args, "--out", null));
+        int variants = Integer.parseInt(option(args, "--variants", null));
+        long seed = Long.parseLong(option(args, "--seed", "0"));
+        int threads = Integer.parseInt(option(args, "--threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        if (variants < 1 || variants > BatchMultiplier.MAX_VARIANTS) {
+            throw new IllegalArgumentException("Variants must be between 1 and " + BatchMultiplier.MAX_VARIANTS);
+        }
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive");
+
+        BatchMultiplier multiplier = new BatchMultiplier(threads, variants, seed);
+        long start = System.nanoTime();
+        multiplier.run(in, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long written = multiplier.solvedCount * variants;
+        System.err.printf("Wrote %d variants of %d puzzles in %.2f s (%.0f puzzles/s), %d invalid lines%n",
+                written, multiplier.solvedCount, seconds, written / seconds, multiplier.invalidCount);
+    }
+
+    /**
+     * Find the value following a named option
+     * @param args the command line arguments
+     * @param name the option name, including leading dashes
+     * @param fallback the value to use if the option is absent, or null if it is required
+     * @return the option value
+     */
+    static String option(String[] args, String name, String fallback) {
+        for (int k = 1; k < args.length - 1; k++) {
+            if (args[k].equals(name)) return args[k + 1];
+        }
+        if (fallback == null) throw new IllegalArgumentException("Missing required option " + name);
+        return fallback;
+    }
+
+    /**
+     * Check whether a flag without a value is present
+     * @param args the command line arguments
+     * @param name the flag name, including leading dashes
+     * @return whether the flag is present
+     */
+    static boolean flag(String[] args, String name) {
+        for (int k = 1; k < args.length; k++) {
+            if (args[k].equals(name)) return true;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,121 @@
+package org.example.sudoku;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Parallel difficulty grader for files of puzzles in the 81-character line format
+ * <p>
+ *     Reads, batches and orders lines exactly like {@link BatchSolver}, but grades each puzzle with the worker's
+ *     {@link LogicalSolver} instead of searching for a solution. Each output line is the puzzle followed by a space
+ *     and its {@link Difficulty}. Malformed lines are written as 81 zeros graded {@code BEYOND} and counted invalid;
+ *     the solved count holds the puzzles the techniques finished.
+ * </p>
+ */
+class BatchGrader extends BatchSolver {
+    // Constants
+    final static Difficulty[] DIFFICULTIES = Difficulty.values();
+    final static byte[][] GRADE_NAMES = new byte[DIFFICULTIES.length][];
+    final static int MAX_LINE_LENGTH;
+
+    static {
+        int longest = 0;
+        for (Difficulty difficulty : DIFFICULTIES) {
+            GRADE_NAMES[difficulty.ordinal()] = TerminalRenderer.ascii(difficulty.name());
+            longest = Math.max(longest, difficulty.name().length());
+        }
+        MAX_LINE_LENGTH = PuzzleFormat.LINE_LENGTH + 1 + longest;
+    }
+
+    // Totals of the last run, indexed by difficulty ordinal
+    final long[] gradeCounts = new long[DIFFICULTIES.length];
+
+    /**
+     * A batch that also counts its grades, indexed by difficulty ordinal
+     */
+    static class GradedBatch extends Batch {
+        final int[] grades = new int[DIFFICULTIES.length];
+
+        GradedBatch(byte[] input) {
+            super(input);
+        }
+    }
+
+    /**
+     * Per-thread scratch state with a logical solver for grading
+     */
+    static class GradingWorker extends Worker {
+        final LogicalSolver logicalSolver = new LogicalSolver();
+    }
+
+    /**
+     * Constructor for a batch grader
+     * @param threads the number of worker threads
+     */
+    BatchGrader(int threads) {
+        super(threads);
+    }
+
+    /**
+     * Get how many puzzles of the last run received a grade
+     * @param difficulty the grade
+     * @return the number of puzzles with that grade
+     */
+    long getGradeCount(Difficulty difficulty) {
+        return gradeCounts[difficulty.ordinal()];
+    }
+
+    @Override
+    long run(ReadableByteChannel in, OutputStream out) throws IOException, InterruptedException {
+        Arrays.fill(gradeCounts, 0);
+        return super.run(in, out);
+    }
+
+    @Override
+    Worker newWorker() {
+        return new GradingWorker();
+    }
+
+    @Override
+    Batch newBatch(byte[] input) {
+        return new GradedBatch(input);
+    }
+
+    @Override
+    int outputLineLength() {
+        return MAX_LINE_LENGTH;
+    }
+
+    @Override
+    void processLine(Worker worker, Batch batch, int start, int end) {
+        LogicalSolver logicalSolver = ((GradingWorker) worker).logicalSolver;
+        Difficulty difficulty;
+        if (PuzzleFormat.parseLine(batch.input, start, end, worker.cells)) {
+            difficulty = logicalSolver.grade(worker.cells);
+            if (logicalSolver.isSolved()) batch.solved++;
+        } else {
+            Arrays.fill(worker.cells, 0);
+            difficulty = Difficulty.BEYOND;
+            batch.invalid++;
+        }
+        ((GradedBatch) batch).grades[difficulty.ordinal()]++;
+
+        // overwrite the newline of the puzzle line with the grade
+        int offset = PuzzleFormat.writeLine(worker.cells, batch.output, batch.outputLength) - 1;
+        batch.output[offset++] = ' ';
+        byte[] name = GRADE_NAMES[difficulty.ordinal()];
+        System.arraycopy(name, 0, batch.output, offset, name.length);
+        offset += name.length;
+        batch.output[offset++] = '\n';
+        batch.outputLength = offset;
+    }
+
+    @Override
+    void collect(Batch batch) {
+        super.collect(batch);
+        int[] grades = ((GradedBatch) batch).grades;
+        for (int d = 0; d < gradeCounts.length; d++) gradeCounts[d] += grades[d];
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.sudoku;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Parallel multiplier that turns every puzzle of a file into many equivalent puzzles
+ * <p>
+ *     Reads, batches and orders lines exactly like {@link BatchSolver}, but writes a number of random
+ *     {@link SymmetryTransform} variants of each puzzle instead of its solution. Variants keep the solution count and
+ *     grade of their source puzzle. The transforms of a puzzle are drawn from a generator seeded by the run seed and
+ *     the puzzle itself, so a seed and input always produce the same output. Malformed lines produce no output and are
+ *     counted invalid; the solved count holds the puzzles that were multiplied.
+ * </p>
+ */
+class BatchMultiplier extends BatchSolver {
+    // Constants
+    final static int MIN_READ_LINES = 16;
+    // output of a smallest read chunk stays within an int even if every byte of it is a blank line
+    final static int MAX_VARIANTS = 10_000;
+
+    // Settings
+    final int variants;
+    final long seed;
+
+    /**
+     * Per-thread scratch state with a reusable transform
+     */
+    static class TransformWorker extends Worker {
+        final SymmetryTransform transform = new SymmetryTransform();
+    }
+
+    /**
+     * Constructor for a batch multiplier
+     * @param threads the number of worker threads
+     * @param variants the number of variants to write per puzzle
+     * @param seed the seed mixed into the transforms of every puzzle
+     */
+    BatchMultiplier(int threads, int variants, long seed) {
+        super(threads);
+        assert(0 < variants && variants <= MAX_VARIANTS) : "Variant count must be between 1 and " + MAX_VARIANTS;
+        this.variants = variants;
+        this.seed = seed;
+    }
+
+    @Override
+    Worker newWorker() {
+        return new TransformWorker();
+    }
+
+    @Override
+    int readChunkSize() {
+        // keep the output of one batch near the solver's chunk size however many variants are written
+        return Math.max(MIN_READ_LINES * PuzzleFormat.LINE_LENGTH, READ_CHUNK_SIZE / variants);
+    }
+
+    @Override
+    int outputLineLength() {
+        return variants * PuzzleFormat.LINE_LENGTH;
+    }
+
+    @Override
+    void processLine(Worker worker, Batch batch, int start, int end) {
+        if (!PuzzleFormat.parseLine(batch.input, start, end, worker.cells)) {
+            batch.invalid++;
+            return;
+        }
+        SymmetryTransform transform = ((TransformWorker) worker).transform;
+        SplittableRandom rand = new SplittableRandom(seed * 31 + Arrays.hashCode(worker.cells));
+        for (int n = 0; n < variants; n++) {
+            transform.randomize(rand);
+            batch.outputLength = transform.writeLine(worker.cells, batch.output, batch.outputLength);
+        }
+        batch.solved++;
+    }
+}
@@ -0,0 +1,266 @@
+package org.example.sudoku;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel solver for files of puzzles in the 81-character line format
+ * <p>
+ *     The calling thread reads the input in large chunks through a channel, cuts each chunk at its last newline and
+ *     submits it as one batch to a fixed worker pool. Workers parse lines straight from the bytes into a reusable cell
+ *     array, solve them with their own {@link DancingLinksSolver} and encode the solutions into the batch's output
+ *     buffer. Completed batches are written in submission order, so output lines match input lines one to one.
+ * </p>
+ * <p>
+ *     Each output line is the solution of the input line, or the first solution found if it has several. A line of
+ *     81 zeros marks a malformed or unsolvable puzzle. Blank input lines are skipped.
+ * </p>
+ */
+class BatchSolver {
+    // Constants
+    final static int READ_CHUNK_SIZE = 1 << 20;
+    final static int BATCHES_PER_THREAD = 4;
+
+    // Settings
+    final int threads;
+
+    // Totals of the last run
+    long readCount;
+    long solvedCount;
+    long multipleCount;
+    long invalidCount;
+
+    /**
+     * A chunk of whole input lines and the encoded solutions for them
+     */
+    static class Batch {
+        final byte[] input;
+        byte[] output;
+        int outputLength;
+        int read;
+        int solved;
+        int multiple;
+        int invalid;
+
+        Batch(byte[] input) {
+            this.input = input;
+        }
+    }
+
+    /**
+     * Per-thread solving scratch state
+     */
+    static class Worker {
+        final Solver solver = new DancingLinksSolver();
+        final int[] cells = new int[81];
+        final int[] solution = new int[81];
+    }
+
+    final ThreadLocal<Worker> workers = ThreadLocal.withInitial(this::newWorker);
+
+    /**
+     * Constructor for a batch solver
+     * @param threads the number of worker threads
+     */
+    BatchSolver(int threads) {
+        assert(threads > 0) : "Thread count must be positive";
+        this.threads = threads;
+    }
+
+    /**
+     * Solve every puzzle of an input file into an output file
+     * @param in the path of the puzzle file
+     * @param out the path of the solution file, replaced if it exists
+     * @return the number of puzzles read
+     */
+    long run(Path in, Path out) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(in, StandardOpenOption.READ);
+             OutputStream stream = Files.newOutputStream(out)) {
+            return run(channel, stream);
+        }
+    }
+
+    /**
+     * Solve every puzzle read from a channel
+     * @param in the channel to read puzzle lines from
+     * @param out the stream to write solution lines to, not closed
+     * @return the number of puzzles read
+     */
+    long run(ReadableByteChannel in, OutputStream out) throws IOException, InterruptedException {
+        readCount = 0;
+        solvedCount = 0;
+        multipleCount = 0;
+        invalidCount = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Batch>> inFlight = new ArrayDeque<>();
+        int window = threads * BATCHES_PER_THREAD;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(readChunkSize());
+            int lastNewline;
+            boolean eof = false;
+            while (!eof) {
+                eof = in.read(buffer) < 0;
+                if (!eof && buffer.hasRemaining()) continue;
+                if (buffer.position() == 0) continue;
+
+                lastNewline = eof ? buffer.position() - 1 : lastIndexOf(buffer.array(), buffer.position(), (byte) '\n');
+                if (lastNewline < 0) {
+                    // a single line longer than the buffer, grow it and keep reading
+                    buffer = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.capacity() * 2))
+                            .position(buffer.position());
+                    continue;
+                }
+
+                Batch batch = newBatch(Arrays.copyOf(buffer.array(), lastNewline + 1));
+                inFlight.add(pool.submit(() -> solveBatch(batch)));
+                buffer.flip().position(lastNewline + 1);
+                buffer.compact();
+
+                while (inFlight.size() >= window) write(inFlight.poll(), out);
+            }
+            while (!inFlight.isEmpty()) write(inFlight.poll(), out);
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return readCount;
+    }
+
+    /**
+     * Wait for a batch and write its solutions
+     * @param pending the submitted batch
+     * @param out the stream to write to
+     */
+    void write(Future<Batch> pending, OutputStream out) throws IOException, InterruptedException {
+        Batch batch;
+        try {
+            batch = pending.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Batch solving failed", e.getCause());
+        }
+        out.write(batch.output, 0, batch.outputLength);
+        collect(batch);
+    }
+
+    /**
+     * Add the counts of a written batch to the run totals
+     * @param batch the written batch
+     */
+    void collect(Batch batch) {
+        readCount += batch.read;
+        solvedCount += batch.solved;
+        multipleCount += batch.multiple;
+        invalidCount += batch.invalid;
+    }
+
+    /**
+     * Parse and solve every line of a batch
+     * @param batch the batch to solve
+     * @return the same batch, with output filled in
+     */
+    Batch solveBatch(Batch batch) {
+        Worker worker = workers.get();
+        byte[] input = batch.input;
+        int lines = 0;
+        for (byte b : input) if (b == '\n') lines++;
+        if (input.length > 0 && input[input.length - 1] != '\n') lines++;
+        batch.output = new byte[Math.multiplyExact(lines, outputLineLength())];
+
+        int start = 0;
+        int end;
+        while (start < input.length) {
+            end = start;
+            while (end < input.length && input[end] != '\n') end++;
+            if (end == start || (end == start + 1 && input[start] == '\r')) {
+                start = end + 1;
+                continue;
+            }
+            processLine(worker, batch, start, end);
+            batch.read++;
+            start = end + 1;
+        }
+        return batch;
+    }
+
+    /**
+     * Create the scratch state of a worker thread, overridden by processors that need more of it
+     * @return the new worker
+     */
+    Worker newWorker() {
+        return new Worker();
+    }
+
+    /**
+     * Create a batch, overridden by processors that count more per batch
+     * @param input the whole input lines of the batch
+     * @return the new batch
+     */
+    Batch newBatch(byte[] input) {
+        return new Batch(input);
+    }
+
+    /**
+     * Get the input chunk size, which bounds the input of one batch unless a single line is longer
+     * @return the chunk size in bytes
+     */
+    int readChunkSize() {
+        return READ_CHUNK_SIZE;
+    }
+
+    /**
+     * Get the longest output line this processor writes per input line
+     * @return the maximum output line length, including the newline
+     */
+    int outputLineLength() {
+        return PuzzleFormat.LINE_LENGTH;
+    }
+
+    /**
+     * Solve one input line and append its solution line to the batch output
+     * @param worker the scratch state of the current thread
+     * @param batch the batch being processed
+     * @param start the position of the first character of the line
+     * @param end the position of the terminating newline, or the end of the input
+     */
+    void processLine(Worker worker, Batch batch, int start, int end) {
+        int count = PuzzleFormat.parseLine(batch.input, start, end, worker.cells)
+                ? worker.solver.countSolutions(worker.cells, 2, worker.solution)
+                : 0;
+        if (count == 0) {
+            Arrays.fill(worker.solution, 0);
+            batch.invalid++;
+        } else if (count == 1) {
+            batch.solved++;
+        } else {
+            batch.multiple++;
+        }
+        batch.outputLength = PuzzleFormat.writeLine(worker.solution, batch.output, batch.outputLength);
+    }
+
+    /**
+     * Find the last occurrence of a byte in the first part of an array
+     * @param data the array to search
+     * @param length the number of leading bytes to search
+     * @param target the byte to find
+     * @return the index of the last occurrence, or -1 if absent
+     */
+    static int lastIndexOf(byte[] data, int length, byte target) {
+        for (int k = length - 1; k >= 0; k--) {
+            if (data[k] == target) return k;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.sudoku;
+
+/**
+ * Validator for many solved 9x9 grids at once
+ * <p>
+ *     Grids are packed one byte per cell in row-major order, 81 bytes per grid back to back, as in a
+ *     {@link PuzzleBank} or a {@link GameServer} pool. A grid is valid when every row, col and subgrid holds each digit
+ *     1 to 9 exactly once, so blanks and out-of-range bytes make a grid invalid. Validity is reported as a bitset over
+ *     the grids. Implementations may keep reusable scratch state, so a single instance should not be shared between
+ *     threads.
+ * </p>
+ */
+public interface BatchValidator {
+    // Constants
+    int CELLS = 81;
+    int UNIT_MASK = 0x3FE; // bits 1 to 9, one per digit
+
+    /**
+     * Validate consecutive grids
+     * @param grids the packed grids
+     * @param offset the position of the first cell of the first grid
+     * @param count the number of grids
+     * @param valid bitset of at least {@code count} bits, bit {@code n} set if grid {@code n} is valid and cleared
+     *              otherwise
+     * @return the number of valid grids
+     */
+    int validate(byte[] grids, int offset, int count, long[] valid);
+
+    /**
+     * Create the fastest validator available
+     * <p>
+     *     Uses SIMD lanes through {@code jdk.incubator.vector} when the JVM was started with
+     *     {@code --add-modules jdk.incubator.vector}, and the scalar bitmask path otherwise.
+     * </p>
+     * @return a new validator
+     */
+    static BatchValidator create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorBatchValidator();
+            } catch (LinkageError e) {
+                // the module is present but unusable, fall through to the scalar path
+            }
+        }
+        return new ScalarBatchValidator();
+    }
+
+    /**
+     * Get the bit of a cell byte in a unit mask
+     * @param cell the cell byte
+     * @return bit {@code digit} for digits 1 to 9, a bit outside {@link #UNIT_MASK} for anything else
+     */
+    static int bit(byte cell) {
+        return 1 << Math.min(cell & 0xFF, 15);
+    }
+}
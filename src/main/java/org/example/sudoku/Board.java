@@ -0,0 +1,151 @@
+package org.example.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Flat, packed storage for the cells and starter clues of a sudoku, 9x9 unless another {@link BoardSize} is given
+ * <p>
+ *     Cells are stored one byte each in row-major order, with 0 for blank, and starter clues as a bitset indexed by
+ *     cell position. A board takes two small arrays instead of the 18 row arrays of an {@code int[9][9]} grid and a
+ *     {@code boolean[9][9]} clue map, can be cleared and copied in place, and supports value equality and hashing.
+ * </p>
+ */
+public final class Board {
+    // Dimensions
+    final BoardSize dims;
+    final int size;
+    final int cellCount;
+
+    // Packed state
+    final byte[] cells;
+    final long[] clues;
+
+    /**
+     * Constructor for an empty 9x9 board
+     */
+    public Board() {
+        this(BoardSize.NINE);
+    }
+
+    /**
+     * Constructor for an empty board of a given size
+     * @param dims the board dimensions
+     */
+    public Board(BoardSize dims) {
+        this.dims = dims;
+        size = dims.size;
+        cellCount = dims.cells;
+        cells = new byte[cellCount];
+        clues = new long[(cellCount + 63) / 64];
+    }
+
+    /**
+     * Get the digit in a cell
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return the digit, 0 for blank
+     */
+    int get(int i, int j) {
+        return cells[i * size + j];
+    }
+
+    /**
+     * Get the digit in a cell
+     * @param pos the row-major position of the cell
+     * @return the digit, 0 for blank
+     */
+    int get(int pos) {
+        return cells[pos];
+    }
+
+    /**
+     * Set the digit in a cell
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @param digit the digit, 0 for blank
+     */
+    void set(int i, int j, int digit) {
+        cells[i * size + j] = (byte) digit;
+    }
+
+    /**
+     * Check whether a cell is a starter clue
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return whether the cell is a starter clue
+     */
+    boolean isClue(int i, int j) {
+        int pos = i * size + j;
+        return (clues[pos >>> 6] & (1L << pos)) != 0;
+    }
+
+    /**
+     * Mark or unmark a cell as a starter clue
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @param clue whether the cell is a starter clue
+     */
+    void setClue(int i, int j, boolean clue) {
+        int pos = i * size + j;
+        if (clue) clues[pos >>> 6] |= 1L << pos;
+        else clues[pos >>> 6] &= ~(1L << pos);
+    }
+
+    /**
+     * Count the starter clues
+     * @return the number of cells marked as starter clues
+     */
+    int clueCount() {
+        int count = 0;
+        for (long word : clues) count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Blank every cell and clear every clue, in place
+     */
+    void clear() {
+        Arrays.fill(cells, (byte) 0);
+        Arrays.fill(clues, 0);
+    }
+
+    /**
+     * Overwrite this board with the contents of another
+     * @param other the board to copy from
+     */
+    void copyFrom(Board other) {
+        assert(other.cellCount == cellCount) : "Incompatible board sizes";
+        System.arraycopy(other.cells, 0, cells, 0, cellCount);
+        System.arraycopy(other.clues, 0, clues, 0, clues.length);
+    }
+
+    /**
+     * Create an independent copy of this board
+     * @return the copy
+     */
+    public Board copy() {
+        Board copy = new Board(dims);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Write the cells into an int array
+     * @param out the array of cells to write into, one per cell
+     */
+    void toCells(int[] out) {
+        for (int pos = 0; pos < cellCount; pos++) out[pos] = cells[pos];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Board other)) return false;
+        return Arrays.equals(cells, other.cells) && Arrays.equals(clues, other.clues);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(cells) + Arrays.hashCode(clues);
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.sudoku;
+
+/**
+ * Dimensions of a sudoku with square boxes, from 4x4 (box size 2) to 25x25 (box size 5)
+ * <p>
+ *     A board of box size {@code b} has {@code b * b} rows, cols, subgrids and digits. Digits are masked with one bit
+ *     each in a {@code long}, so every supported size shares the same allocation-free mask code. Instances are shared
+ *     per box size and immutable.
+ * </p>
+ */
+public final class BoardSize {
+    // Constants
+    final static int MIN_BOX = 2;
+    final static int MAX_BOX = 5;
+    final static BoardSize[] SIZES = new BoardSize[MAX_BOX + 1];
+    public final static BoardSize NINE;
+
+    static {
+        for (int box = MIN_BOX; box <= MAX_BOX; box++) SIZES[box] = new BoardSize(box);
+        NINE = SIZES[3];
+    }
+
+    // Dimensions
+    final int box;
+    final int size;
+    final int cells;
+    final long allDigits;
+    final int[][] peers; // the other cells sharing a row, col or subgrid with each cell, in row-major order
+
+    // Generation removal range, scaled from 45-55 of 81 cells on a 9x9 board
+    final int minRemove;
+    final int maxRemove;
+
+    private BoardSize(int box) {
+        this.box = box;
+        this.size = box * box;
+        this.cells = size * size;
+        this.allDigits = (1L << size) - 1;
+        this.minRemove = cells * 45 / 81;
+        this.maxRemove = cells * 55 / 81;
+
+        int peerCount = 3 * size - 2 * box - 1;
+        peers = new int[cells][peerCount];
+        int count, i, j;
+        for (int pos = 0; pos < cells; pos++) {
+            count = 0;
+            i = pos / size;
+            j = pos % size;
+            for (int other = 0; other < cells; other++) {
+                if (other == pos) continue;
+                if (other / size == i || other % size == j
+                        || subgridIdx(other / size, other % size) == subgridIdx(i, j)) {
+                    peers[pos][count++] = other;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the dimensions for a box size
+     * @param box the side length of a subgrid, 2-5
+     * @return the shared dimensions
+     */
+    public static BoardSize of(int box) {
+        if (box < MIN_BOX || box > MAX_BOX) throw new IllegalArgumentException("Box size must be 2 to 5");
+        return SIZES[box];
+    }
+
+    /**
+     * Get the side length of the board
+     * @return the number of rows, cols, subgrids and digits
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the side length of a subgrid
+     * @return the box size
+     */
+    public int getBox() {
+        return box;
+    }
+
+    /**
+     * Calculate the index of the subgrid, in row-major order
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return which subgrid the cell falls in
+     */
+    int subgridIdx(int i, int j) {
+        return i / box * box + j / box;
+    }
+
+    /**
+     * Get the mask bit for a single digit
+     * @param digit the digit, 1 to size
+     * @return the mask with only that digit set
+     */
+    static long bit(int digit) {
+        return 1L << (digit - 1);
+    }
+
+    /**
+     * Get the display character of a digit: 1-9, then letters from A for 10 upwards
+     * @param digit the digit, 1 to 25
+     * @return the character
+     */
+    static char symbol(int digit) {
+        return digit <= 9 ? (char) ('0' + digit) : (char) ('A' + digit - 10);
+    }
+
+    /**
+     * Get the digit of a display character, the inverse of {@link #symbol}, accepting letters in either case
+     * @param symbol the character
+     * @return the digit, from 10 for letters, or -1 if the character is not a digit symbol
+     */
+    static int digitOf(int symbol) {
+        if (symbol >= '0' && symbol <= '9') return symbol - '0';
+        int letter = symbol | 0x20;
+        if (letter >= 'a' && letter <= 'z') return letter - 'a' + 10;
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return size + "x" + size;
+    }
+}
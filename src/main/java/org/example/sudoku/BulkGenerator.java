@@ -0,0 +1,229 @@
+package org.example.sudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel bulk puzzle generation streamed to a single output
+ * <p>
+ *     Worker tasks on a fork-join pool claim chunks of the requested count, generate them into byte buffers in the
+ *     81-character line format and hand the filled buffers to the calling thread through a bounded queue. The calling
+ *     thread owns the only buffered writer, so output is written as soon as it is produced. A worker needs a permit to
+ *     claim a chunk and the writer returns it once that chunk is written, so at most {@link #CHUNKS_PER_THREAD} chunks
+ *     per thread are claimed but unwritten, and memory use stays bounded even while one slow chunk holds back the
+ *     ones after it.
+ * </p>
+ * <p>
+ *     Puzzle {@code n} of a run is {@link Sudoku#fromId} of {@code firstId + n}, and chunks are written in index order,
+ *     so a first ID and count fix the output byte for byte whatever the thread count. Every worker reseeds a
+ *     {@link PuzzleGenerator} of its own per puzzle instead of sharing one, and disjoint ID ranges can be generated by
+ *     separate processes and concatenated.
+ * </p>
+ * <p>
+ *     With deduplication, workers also fingerprint the {@link CanonicalForm} of every puzzle, and the writer skips any
+ *     puzzle whose fingerprint is already in its {@link PuzzleIndex}, so no two written puzzles are equivalent under
+ *     symmetry. Skipped puzzles are counted as duplicates and not replaced, so fewer lines than the count may be written.
+ * </p>
+ */
+class BulkGenerator {
+    // Constants
+    final static int CHUNK_PUZZLES = 256;
+    final static int CHUNKS_PER_THREAD = 4;
+    final static int WRITE_BUFFER_SIZE = 1 << 16;
+    final static Chunk POISON = new Chunk(-1, null, null);
+
+    /**
+     * Generated lines of consecutive puzzles, starting at a puzzle index, with their fingerprints if deduplicating
+     */
+    record Chunk(long start, byte[] lines, long[] fingerprints) {}
+
+    // Generation settings
+    final long count;
+    final int threads;
+    final boolean unique;
+    final long firstId;
+    final PuzzleIndex index; // null unless deduplicating
+
+    // Totals of the last run
+    long duplicateCount;
+
+    // Shared progress
+    final AtomicLong nextChunkStart = new AtomicLong();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final BlockingQueue<Chunk> filledChunks;
+    final Semaphore inFlight; // permits for chunks claimed but not yet written
+
+    /**
+     * Constructor for a bulk generation run starting at a random puzzle ID
+     * @param count the number of puzzles to generate
+     * @param threads the number of worker threads
+     * @param unique whether puzzles should have a unique solution
+     */
+    BulkGenerator(long count, int threads, boolean unique) {
+        this(count, threads, unique, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor for a bulk generation run
+     * @param count the number of puzzles to generate
+     * @param threads the number of worker threads
+     * @param unique whether puzzles should have a unique solution
+     * @param firstId the ID of the first puzzle, following puzzles take the next IDs
+     */
+    BulkGenerator(long count, int threads, boolean unique, long firstId) {
+        this(count, threads, unique, firstId, false);
+    }
+
+    /**
+     * Constructor for a bulk generation run with optional deduplication
+     * @param count the number of puzzles to generate
+     * @param threads the number of worker threads
+     * @param unique whether puzzles should have a unique solution
+     * @param firstId the ID of the first puzzle, following puzzles take the next IDs
+     * @param dedupe whether to skip puzzles equivalent to an earlier one
+     */
+    BulkGenerator(long count, int threads, boolean unique, long firstId, boolean dedupe) {
+        assert(count >= 0) : "Count must not be negative";
+        assert(threads > 0) : "Thread count must be positive";
+        this.count = count;
+        this.threads = threads;
+        this.unique = unique;
+        this.firstId = firstId;
+        this.index = dedupe ? new PuzzleIndex((int) Math.min(count, Integer.MAX_VALUE)) : null;
+        filledChunks = new ArrayBlockingQueue<>(threads * CHUNKS_PER_THREAD);
+        inFlight = new Semaphore(threads * CHUNKS_PER_THREAD);
+    }
+
+    /**
+     * Generate all puzzles into a file, replacing any existing content
+     * @param out the path of the output file
+     * @return the number of puzzles written
+     */
+    long run(Path out) throws IOException, InterruptedException {
+        try (OutputStream stream = Files.newOutputStream(out)) {
+            return run(stream);
+        }
+    }
+
+    /**
+     * Generate all puzzles into a stream
+     * @param out the stream to write lines to, flushed but not closed
+     * @return the number of puzzles written
+     */
+    long run(OutputStream out) throws IOException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) pool.execute(this::work);
+
+            BufferedOutputStream writer = new BufferedOutputStream(out, WRITE_BUFFER_SIZE);
+            Map<Long, Chunk> early = new HashMap<>(); // chunks finished before an earlier one
+            long written = 0;
+            long nextStart = 0;
+            duplicateCount = 0;
+            int finishedWorkers = 0;
+            Chunk chunk;
+            int lines;
+            while (finishedWorkers < threads) {
+                chunk = filledChunks.take();
+                if (chunk == POISON) {
+                    finishedWorkers++;
+                    continue;
+                }
+                early.put(chunk.start(), chunk);
+                while ((chunk = early.remove(nextStart)) != null) {
+                    lines = chunk.lines().length / PuzzleFormat.LINE_LENGTH;
+                    if (index == null) {
+                        writer.write(chunk.lines());
+                        written += lines;
+                    } else {
+                        for (int n = 0; n < lines; n++) {
+                            if (!index.add(chunk.fingerprints()[n])) {
+                                duplicateCount++;
+                                continue;
+                            }
+                            writer.write(chunk.lines(), n * PuzzleFormat.LINE_LENGTH, PuzzleFormat.LINE_LENGTH);
+                            written++;
+                        }
+                    }
+                    nextStart += lines;
+                    inFlight.release();
+                }
+            }
+            writer.flush();
+
+            Throwable cause = failure.get();
+            if (cause != null) throw new IOException("Puzzle generation failed", cause);
+            return written;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Generate one puzzle of the run
+     * @param generator the generator of the calling worker
+     * @param n the puzzle index within the run
+     * @param out the board to write the puzzle with ID {@code firstId + n} into
+     */
+    void puzzle(PuzzleGenerator generator, long n, Board out) {
+        generator.generate(firstId + n, unique, out);
+    }
+
+    /**
+     * Worker loop, claiming and generating chunks until the count is reached
+     */
+    void work() {
+        try {
+            CanonicalForm canonical = index == null ? null : new CanonicalForm();
+            PuzzleGenerator generator = new PuzzleGenerator();
+            Board board = new Board();
+            int[] cells = new int[81];
+            long start;
+            int size, offset;
+            byte[] chunk;
+            long[] fingerprints;
+            while (true) {
+                inFlight.acquire();
+                if (failure.get() != null || (start = nextChunkStart.getAndAdd(CHUNK_PUZZLES)) >= count) {
+                    inFlight.release();
+                    break;
+                }
+                size = (int) Math.min(CHUNK_PUZZLES, count - start);
+                chunk = new byte[size * PuzzleFormat.LINE_LENGTH];
+                fingerprints = canonical == null ? null : new long[size];
+                offset = 0;
+                for (int n = 0; n < size; n++) {
+                    puzzle(generator, start + n, board);
+                    offset = PuzzleFormat.writeLine(board, chunk, offset);
+                    if (canonical != null) {
+                        board.toCells(cells);
+                        fingerprints[n] = canonical.fingerprint(cells);
+                    }
+                }
+                filledChunks.put(new Chunk(start, chunk, fingerprints));
+            }
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+            // the chunk this worker held is never written, so wake the workers waiting for a permit to see the failure
+            inFlight.release(threads);
+        } finally {
+            try {
+                filledChunks.put(POISON);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
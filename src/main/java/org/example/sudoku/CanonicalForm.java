@@ -0,0 +1,277 @@
+package org.example.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Minimal lexicographic (minlex) form of 9x9 puzzles under the sudoku symmetry group
+ * <p>
+ *     The group is the one {@link SymmetryTransform} draws from: transposition, band and row order, stack and col
+ *     order, and digit relabelling. Two puzzles are equivalent exactly when their canonical forms are equal. The form
+ *     compares blanks as 0 and labels digits in order of first appearance, which for a fixed cell order is always the
+ *     minimal relabelling, so only the 2 x 1296 x 1296 line arrangements remain to be searched.
+ * </p>
+ * <p>
+ *     Instead of trying every arrangement, the search builds the form one row at a time. The first row is chosen over
+ *     every transposition and source row, arranging its stacks and cols one stack at a time and pruning any prefix that
+ *     is already larger than the best one. Each later step extends every surviving candidate with each row it may take
+ *     next: any unused row at the start of a band, otherwise the unused rows of the current band. Only the candidates
+ *     whose relabelled row is minimal survive, so after the first rows typically a handful remain. Candidates live in
+ *     flat primitive arrays reused between calls. An instance must not be shared between threads.
+ * </p>
+ */
+public final class CanonicalForm {
+    // Constants
+    final static int[][] LINE_PERMS = new int[1296][9]; // source col of every target col, for each col arrangement
+    final static int[] STACK_ORDER_IDX = new int[9]; // index into ORDERS by first stack * 3 + second stack
+    final static int INITIAL_CAPACITY = 1024;
+    final static int UNSET = 10; // greater than any label
+
+    // Candidate state layout in a packed int
+    final static int PERM_SHIFT = 1;
+    final static int ROWS_SHIFT = 12;
+    final static int BAND_SHIFT = 21;
+    final static int LABELS_SHIFT = 23;
+
+    static {
+        int[][] orders = SymmetryTransform.ORDERS;
+        for (int o = 0; o < orders.length; o++) STACK_ORDER_IDX[orders[o][0] * 3 + orders[o][1]] = o;
+        int idx = 0;
+        for (int[] stacks : orders) {
+            for (int[] first : orders) {
+                for (int[] second : orders) {
+                    for (int[] third : orders) {
+                        int[][] within = {first, second, third};
+                        for (int b = 0; b < 3; b++) {
+                            for (int k = 0; k < 3; k++) LINE_PERMS[idx][b * 3 + k] = stacks[b] * 3 + within[b][k];
+                        }
+                        idx++;
+                    }
+                }
+            }
+        }
+    }
+
+    // Scratch state
+    final int[][] grids = new int[2][81]; // the puzzle and its transposition
+    final int[] form = new int[81];
+    final int[] bestRow = new int[9];
+    final int[] row = new int[9];
+    int[] states = new int[INITIAL_CAPACITY];
+    long[] labels = new long[INITIAL_CAPACITY]; // 4 bits per source digit, 0 while unlabelled
+    int[] nextStates = new int[INITIAL_CAPACITY];
+    long[] nextLabels = new long[INITIAL_CAPACITY];
+    int count;
+    int nextCount;
+
+    /**
+     * Compute the canonical form of a puzzle
+     * @param cells the 81 puzzle cells, 0 for blank
+     * @param out the array of 81 cells to write the canonical form into, may be the input array
+     */
+    public void canonicalize(int[] cells, int[] out) {
+        assert(cells.length == 81 && out.length == 81) : "Incompatible grid dimensions";
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                grids[0][i * 9 + j] = cells[i * 9 + j];
+                grids[1][i * 9 + j] = cells[j * 9 + i];
+            }
+        }
+
+        for (int step = 0; step < 9; step++) {
+            if (step == 0) firstRow();
+            else extend(step);
+            System.arraycopy(bestRow, 0, out, step * 9, 9);
+
+            int[] swapStates = states;
+            states = nextStates;
+            nextStates = swapStates;
+            long[] swapLabels = labels;
+            labels = nextLabels;
+            nextLabels = swapLabels;
+            count = nextCount;
+        }
+    }
+
+    /**
+     * Compute a 64-bit fingerprint of the canonical form of a puzzle
+     * <p>
+     *     Equivalent puzzles have equal fingerprints. Different classes collide with probability about 2^-64 per pair,
+     *     which is negligible for deduplicating tens of millions of puzzles.
+     * </p>
+     * @param cells the 81 puzzle cells, 0 for blank
+     * @return the fingerprint
+     */
+    public long fingerprint(int[] cells) {
+        canonicalize(cells, form);
+        return hash(form);
+    }
+
+    /**
+     * Find every transposition, source row and col arrangement giving the minimal first row
+     */
+    void firstRow() {
+        nextCount = 0;
+        Arrays.fill(bestRow, UNSET);
+        for (int transpose = 0; transpose < 2; transpose++) {
+            for (int r = 0; r < 9; r++) arrangeStacks(transpose, r, 0, 0, 0, 0, 0L, 0);
+        }
+    }
+
+    /**
+     * Fill the first row one target stack at a time, pruning arrangements whose prefix exceeds the best row
+     * @param transpose whether the puzzle is transposed
+     * @param r the source row
+     * @param block the target stack being filled
+     * @param usedStacks the source stacks already placed, as a bitmask
+     * @param stackSeq the source stacks placed so far, as base-3 digits
+     * @param orderSeq the col orders within the placed stacks, as base-6 digits
+     * @param map the digit labels assigned so far
+     * @param next the number of labels assigned so far
+     */
+    void arrangeStacks(int transpose, int r, int block, int usedStacks, int stackSeq, int orderSeq, long map, int next) {
+        if (block == 3) {
+            int perm = STACK_ORDER_IDX[stackSeq / 3] * 216 + orderSeq;
+            push(transpose | perm << PERM_SHIFT | 1 << (r + ROWS_SHIFT) | (r / 3) << BAND_SHIFT | next << LABELS_SHIFT,
+                    map);
+            return;
+        }
+        int[] grid = grids[transpose];
+        int[] order;
+        int cmp, digit, value, label, labelled;
+        long labelMap;
+        for (int stack = 0; stack < 3; stack++) {
+            if ((usedStacks & (1 << stack)) != 0) continue;
+            for (int o = 0; o < 6; o++) {
+                order = SymmetryTransform.ORDERS[o];
+                labelMap = map;
+                labelled = next;
+                cmp = 0;
+                for (int k = 0; k < 3; k++) {
+                    digit = grid[r * 9 + stack * 3 + order[k]];
+                    value = 0;
+                    if (digit != 0) {
+                        label = (int) (labelMap >>> (digit * 4)) & 15;
+                        if (label == 0) {
+                            label = ++labelled;
+                            labelMap |= (long) label << (digit * 4);
+                        }
+                        value = label;
+                    }
+                    row[block * 3 + k] = value;
+                    if (cmp == 0 && value != bestRow[block * 3 + k]) cmp = value < bestRow[block * 3 + k] ? -1 : 1;
+                }
+                if (cmp > 0) continue;
+                if (cmp < 0) {
+                    // a smaller prefix beats every candidate found so far, whatever the rest of the row
+                    System.arraycopy(row, block * 3, bestRow, block * 3, 3);
+                    Arrays.fill(bestRow, block * 3 + 3, 9, UNSET);
+                    nextCount = 0;
+                }
+                arrangeStacks(transpose, r, block + 1, usedStacks | 1 << stack, stackSeq * 3 + stack,
+                        orderSeq * 6 + o, labelMap, labelled);
+            }
+        }
+    }
+
+    /**
+     * Add a candidate for the next step
+     * @param state the packed candidate state
+     * @param map the digit labels of the candidate
+     */
+    void push(int state, long map) {
+        if (nextCount == nextStates.length) {
+            nextStates = Arrays.copyOf(nextStates, nextCount * 2);
+            nextLabels = Arrays.copyOf(nextLabels, nextCount * 2);
+        }
+        nextStates[nextCount] = state;
+        nextLabels[nextCount++] = map;
+    }
+
+    /**
+     * Extend every candidate by each row it may take next, keeping only the minimal relabelled rows
+     * @param step the index of the target row being built
+     */
+    void extend(int step) {
+        nextCount = 0;
+        boolean haveBest = false;
+        int state, transpose, rows, band, next, allowed, cmp, digit, value, label;
+        int[] grid, perm;
+        long map;
+        for (int c = 0; c < count; c++) {
+            state = states[c];
+            transpose = state & 1;
+            grid = grids[transpose];
+            perm = LINE_PERMS[(state >>> PERM_SHIFT) & 0x7FF];
+            rows = (state >>> ROWS_SHIFT) & 0x1FF;
+            band = (state >>> BAND_SHIFT) & 3;
+            allowed = step % 3 == 0 ? ~rows & 0x1FF : ~rows & (7 << (band * 3));
+
+            for (int r = 0; r < 9; r++) {
+                if ((allowed & (1 << r)) == 0) continue;
+                map = labels[c];
+                next = (state >>> LABELS_SHIFT) & 15;
+                cmp = haveBest ? 0 : -1;
+                for (int j = 0; j < 9; j++) {
+                    digit = grid[r * 9 + perm[j]];
+                    value = 0;
+                    if (digit != 0) {
+                        label = (int) (map >>> (digit * 4)) & 15;
+                        if (label == 0) {
+                            label = ++next;
+                            map |= (long) label << (digit * 4);
+                        }
+                        value = label;
+                    }
+                    row[j] = value;
+                    if (cmp == 0) {
+                        if (value > bestRow[j]) {
+                            cmp = 1;
+                            break;
+                        }
+                        if (value < bestRow[j]) cmp = -1;
+                    }
+                }
+                if (cmp > 0) continue;
+                if (cmp < 0) {
+                    nextCount = 0;
+                    System.arraycopy(row, 0, bestRow, 0, 9);
+                    haveBest = true;
+                }
+
+                push((state & ((1 << ROWS_SHIFT) - 1))
+                        | (rows | 1 << r) << ROWS_SHIFT
+                        | (r / 3) << BAND_SHIFT
+                        | next << LABELS_SHIFT, map);
+            }
+        }
+    }
+
+    /**
+     * Hash 81 cells into 64 bits
+     * @param cells the cells to hash
+     * @return the hash
+     */
+    static long hash(int[] cells) {
+        long h = 0;
+        long word = 0;
+        for (int pos = 0; pos < 81; pos++) {
+            word = word << 4 | cells[pos];
+            if (pos % 16 == 15 || pos == 80) {
+                h = mix(h ^ word);
+                word = 0;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Scramble 64 bits with the SplitMix64 finalizer
+     * @param z the input
+     * @return the mixed value
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
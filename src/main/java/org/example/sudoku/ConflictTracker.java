@@ -0,0 +1,155 @@
+package org.example.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Incremental per-unit digit counts for a sudoku of any supported size
+ * <p>
+ *     For a board of side {@code n}, units are indexed 0 to n-1 for rows, n to 2n-1 for cols and 2n to 3n-1 for
+ *     subgrids. Every placed digit increments its count in the three units of its cell. A unit-digit pair counted more
+ *     than once is a conflict, and the running total of surplus placements answers whether the board has any conflict
+ *     in O(1).
+ * </p>
+ */
+class ConflictTracker {
+    // Dimensions
+    final BoardSize dims;
+    final int colUnit;
+    final int subgridUnit;
+
+    // Counts, indexed by unit * (size + 1) + digit
+    final byte[] counts;
+    final long[] presentDigits; // bit (digit - 1) set when the digit appears at least once in the unit
+    final long[] conflictDigits; // bit (digit - 1) set when the digit appears more than once in the unit
+    int conflictCount; // sum over unit-digit pairs of (count - 1) where count > 1
+
+    /**
+     * Constructor for a 9x9 conflict tracker
+     */
+    ConflictTracker() {
+        this(BoardSize.NINE);
+    }
+
+    /**
+     * Constructor for a conflict tracker of a board size
+     * @param dims the board dimensions
+     */
+    ConflictTracker(BoardSize dims) {
+        this.dims = dims;
+        colUnit = dims.size;
+        subgridUnit = 2 * dims.size;
+        counts = new byte[3 * dims.size * (dims.size + 1)];
+        presentDigits = new long[3 * dims.size];
+        conflictDigits = new long[3 * dims.size];
+    }
+
+    /**
+     * Reset every count to zero
+     */
+    void clear() {
+        Arrays.fill(counts, (byte) 0);
+        Arrays.fill(presentDigits, 0);
+        Arrays.fill(conflictDigits, 0);
+        conflictCount = 0;
+    }
+
+    /**
+     * Count a digit in the units of a cell
+     * @param digit the digit placed, ignored if 0
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     */
+    void place(int digit, int i, int j) {
+        if (digit == 0) return;
+        increment(i, digit);
+        increment(colUnit + j, digit);
+        increment(subgridUnit + dims.subgridIdx(i, j), digit);
+    }
+
+    /**
+     * Uncount a digit in the units of a cell
+     * @param digit the digit removed, ignored if 0
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     */
+    void remove(int digit, int i, int j) {
+        if (digit == 0) return;
+        decrement(i, digit);
+        decrement(colUnit + j, digit);
+        decrement(subgridUnit + dims.subgridIdx(i, j), digit);
+    }
+
+    /**
+     * Check whether a digit in a cell shares any of its units with the same digit
+     * @param digit the digit in the cell, 0 for blank
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return whether the cell is in conflict
+     */
+    boolean isConflicting(int digit, int i, int j) {
+        if (digit == 0) return false;
+        long units = conflictDigits[i] | conflictDigits[colUnit + j]
+                | conflictDigits[subgridUnit + dims.subgridIdx(i, j)];
+        return (units & BoardSize.bit(digit)) != 0;
+    }
+
+    /**
+     * Get the digits no unit of a cell contains yet
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return the candidate digit mask
+     */
+    long candidates(int i, int j) {
+        return ~(presentDigits[i] | presentDigits[colUnit + j] | presentDigits[subgridUnit + dims.subgridIdx(i, j)])
+                & dims.allDigits;
+    }
+
+    /**
+     * Mark every conflicting cell of a board, visiting only the units that contain a conflict
+     * @param board the board the counts were built from
+     * @param out a bitset over the cell positions to set conflicting cells in
+     */
+    void markConflictingCells(Board board, long[] out) {
+        if (conflictCount == 0) return;
+        int size = dims.size;
+        int box = dims.box;
+        int i, j, pos;
+        for (int unit = 0; unit < 3 * size; unit++) {
+            if (conflictDigits[unit] == 0) continue;
+            for (int k = 0; k < size; k++) {
+                if (unit < colUnit) {
+                    i = unit;
+                    j = k;
+                } else if (unit < subgridUnit) {
+                    i = k;
+                    j = unit - colUnit;
+                } else {
+                    i = (unit - subgridUnit) / box * box + k / box;
+                    j = (unit - subgridUnit) % box * box + k % box;
+                }
+                pos = i * size + j;
+                if (board.get(pos) != 0 && (conflictDigits[unit] & BoardSize.bit(board.get(pos))) != 0) {
+                    out[pos >>> 6] |= 1L << pos;
+                }
+            }
+        }
+    }
+
+    private void increment(int unit, int digit) {
+        int count = ++counts[unit * (dims.size + 1) + digit];
+        if (count == 1) presentDigits[unit] |= BoardSize.bit(digit);
+        if (count >= 2) {
+            conflictCount++;
+            conflictDigits[unit] |= BoardSize.bit(digit);
+        }
+    }
+
+    private void decrement(int unit, int digit) {
+        int count = --counts[unit * (dims.size + 1) + digit];
+        if (count == 0) presentDigits[unit] &= ~BoardSize.bit(digit);
+        if (count >= 1) {
+            conflictCount--;
+            if (count == 1) conflictDigits[unit] &= ~BoardSize.bit(digit);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Primitive row, column and subgrid constraint tracking for a sudoku of any supported size
+ * <p>
+ *     Each unit keeps one long bitmask where bit {@code digit - 1} is set if the digit is already used in the unit,
+ *     which covers up to the 25 digits of a 25x25 board. All queries and updates are plain bit operations and never
+ *     allocate. The static int helpers serve the 9x9-only solvers, whose masks fit in 9 bits.
+ * </p>
+ */
+class ConstraintState {
+    // Constants
+    final static int ALL_DIGITS = 0x1FF;
+
+    // Dimensions
+    final BoardSize dims;
+
+    // Used digit masks, indexed by row, col and subgrid
+    final long[] rowMasks;
+    final long[] colMasks;
+    final long[] subgridMasks;
+
+    /**
+     * Constructor for a 9x9 constraint state
+     */
+    ConstraintState() {
+        this(BoardSize.NINE);
+    }
+
+    /**
+     * Constructor for a constraint state of a board size
+     * @param dims the board dimensions
+     */
+    ConstraintState(BoardSize dims) {
+        this.dims = dims;
+        rowMasks = new long[dims.size];
+        colMasks = new long[dims.size];
+        subgridMasks = new long[dims.size];
+    }
+
+    /**
+     * Overwrite this state with the masks of another
+     * @param other the state to copy from, of the same board size
+     */
+    void copyFrom(ConstraintState other) {
+        assert(other.dims == dims) : "Incompatible board sizes";
+        System.arraycopy(other.rowMasks, 0, rowMasks, 0, rowMasks.length);
+        System.arraycopy(other.colMasks, 0, colMasks, 0, colMasks.length);
+        System.arraycopy(other.subgridMasks, 0, subgridMasks, 0, subgridMasks.length);
+    }
+
+    /**
+     * Reset every unit to having no used digits
+     */
+    void clear() {
+        Arrays.fill(rowMasks, 0);
+        Arrays.fill(colMasks, 0);
+        Arrays.fill(subgridMasks, 0);
+    }
+
+    /**
+     * Mark a digit as used in the row, col and subgrid of a cell
+     * @param digit the digit placed, 1 to size
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     */
+    void place(int digit, int i, int j) {
+        long bit = BoardSize.bit(digit);
+        rowMasks[i] |= bit;
+        colMasks[j] |= bit;
+        subgridMasks[dims.subgridIdx(i, j)] |= bit;
+    }
+
+    /**
+     * Mark a digit as no longer used in the row, col and subgrid of a cell
+     * @param digit the digit removed, 1 to size
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     */
+    void remove(int digit, int i, int j) {
+        long bit = ~BoardSize.bit(digit);
+        rowMasks[i] &= bit;
+        colMasks[j] &= bit;
+        subgridMasks[dims.subgridIdx(i, j)] &= bit;
+    }
+
+    /**
+     * Check whether a digit is unused in the row, col and subgrid of a cell
+     * @param digit the digit to check, 1 to size
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return whether the digit can be placed without a conflict
+     */
+    boolean isAllowed(int digit, int i, int j) {
+        return (usedMask(i, j) & BoardSize.bit(digit)) == 0;
+    }
+
+    /**
+     * Get the union of digits used by the row, col and subgrid of a cell
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return the used digit mask
+     */
+    long usedMask(int i, int j) {
+        return rowMasks[i] | colMasks[j] | subgridMasks[dims.subgridIdx(i, j)];
+    }
+
+    /**
+     * Get the digits that could still be placed in a cell
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return the candidate digit mask
+     */
+    long candidates(int i, int j) {
+        return ~usedMask(i, j) & dims.allDigits;
+    }
+
+    /**
+     * Get the mask bit for a single digit
+     * @param digit the digit, 1-9
+     * @return the mask with only that digit set
+     */
+    static int bit(int digit) {
+        return 1 << (digit - 1);
+    }
+
+    /**
+     * Get the lowest digit contained in a mask
+     * @param mask a non-empty digit mask
+     * @return the lowest digit in the mask
+     */
+    static int lowestDigit(int mask) {
+        return Integer.numberOfTrailingZeros(mask) + 1;
+    }
+
+    /**
+     * Get the lowest digit contained in a mask
+     * @param mask a non-empty digit mask
+     * @return the lowest digit in the mask
+     */
+    static int lowestDigit(long mask) {
+        return Long.numberOfTrailingZeros(mask) + 1;
+    }
+}
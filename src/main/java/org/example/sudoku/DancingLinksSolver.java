@@ -0,0 +1,406 @@
+package org.example.sudoku;
+
+/**
+ * Exact-cover sudoku solver using Knuth's Algorithm X with Dancing Links
+ * <p>
+ *     The 324 constraint columns (cell, row-digit, col-digit, subgrid-digit) and 729 candidate rows are laid out
+ *     once in flat int arrays. Givens are applied by covering their rows and are uncovered again after the search,
+ *     so the matrix is restored in place and repeated solves do not allocate.
+ * </p>
+ */
+public class DancingLinksSolver implements Solver {
+    // Matrix dimensions
+    final static int COLUMNS = 324;
+    final static int ROWS = 729;
+    final static int NODES_PER_ROW = 4;
+    final static int ROOT = 0;
+    final static int FIRST_ROW_NODE = COLUMNS + 1;
+
+    // Node links, indexed by node; nodes 1..COLUMNS are the column headers
+    final int[] left;
+    final int[] right;
+    final int[] up;
+    final int[] down;
+    final int[] column;
+    final int[] size; // remaining nodes per column header
+
+    // Search state
+    final int[] givenRows = new int[81];
+    final int[] stack = new int[81];
+    final ConstraintState givenConstraints = new ConstraintState();
+    int givenCount;
+    int limit;
+    int solutionCount;
+    long nodeCount;
+    long backtrackCount;
+    int[] puzzle;
+    int[] solution;
+
+    // Clue removal state: pending clues covered bottom to top in reverse visit order, kept clues covered above them
+    final int[] keptRows = new int[81];
+    int keptCount;
+
+    // ===== CONSTRUCTORS =====
+    /**
+     * Constructor for the solver, building the full exact-cover matrix
+     */
+    public DancingLinksSolver() {
+        int nodeTotal = FIRST_ROW_NODE + ROWS * NODES_PER_ROW;
+        left = new int[nodeTotal];
+        right = new int[nodeTotal];
+        up = new int[nodeTotal];
+        down = new int[nodeTotal];
+        column = new int[nodeTotal];
+        size = new int[COLUMNS + 1];
+
+        for (int c = 0; c <= COLUMNS; c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        int i, j, digitIdx, first;
+        for (int row = 0; row < ROWS; row++) {
+            i = row / 81;
+            j = row / 9 % 9;
+            digitIdx = row % 9;
+            first = rowNode(row);
+            linkNode(first, 1 + i * 9 + j);
+            linkNode(first + 1, 1 + 81 + i * 9 + digitIdx);
+            linkNode(first + 2, 1 + 162 + j * 9 + digitIdx);
+            linkNode(first + 3, 1 + 243 + Sudoku.getSubgridIdx(i, j) * 9 + digitIdx);
+            for (int k = 0; k < NODES_PER_ROW; k++) {
+                left[first + k] = first + (k + NODES_PER_ROW - 1) % NODES_PER_ROW;
+                right[first + k] = first + (k + 1) % NODES_PER_ROW;
+            }
+        }
+    }
+    // ===== END CONSTRUCTORS =====
+
+
+    // ===== SOLVER METHODS =====
+    @Override
+    public int countSolutions(int[] cells, int limit, int[] solution) {
+        assert(cells.length == 81) : "Incompatible grid dimensions";
+        assert(solution == null || solution.length == 81) : "Incompatible solution dimensions";
+        assert(limit > 0) : "Limit must be positive";
+
+        SolveEvent event = SolveEvent.TYPE.isEnabled() ? new SolveEvent() : null;
+        if (event != null) event.begin();
+        this.puzzle = cells;
+        this.solution = solution;
+        this.limit = limit;
+        solutionCount = 0;
+        nodeCount = 0;
+        backtrackCount = 0;
+
+        if (applyGivens()) search(0);
+        int givens = givenCount;
+        restoreGivens();
+
+        this.puzzle = null;
+        this.solution = null;
+        if (event != null) event.end();
+        if (event != null && event.shouldCommit()) {
+            event.givens = givens;
+            event.limit = limit;
+            event.solutions = solutionCount;
+            event.nodes = nodeCount;
+            event.backtracks = backtrackCount;
+            event.commit();
+        }
+        return solutionCount;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Get the number of dead ends of the most recent solve
+     * @return the branches of the last call that ended in a column with no rows left
+     */
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    /**
+     * Cover the matrix rows of every given digit
+     * @return whether the givens are free of conflicts
+     */
+    boolean applyGivens() {
+        givenConstraints.clear();
+        givenCount = 0;
+        int digit, i, j, node;
+        for (int pos = 0; pos < 81; pos++) {
+            digit = puzzle[pos];
+            if (digit == 0) continue;
+            assert(1 <= digit && digit <= 9) : "Digits must be between 1 and 9";
+            i = pos / 9;
+            j = pos % 9;
+            if (!givenConstraints.isAllowed(digit, i, j)) return false;
+            givenConstraints.place(digit, i, j);
+
+            node = rowNode(pos * 9 + digit - 1);
+            givenRows[givenCount++] = node;
+            coverRow(node);
+        }
+        return true;
+    }
+
+    /**
+     * Uncover the rows of applied givens in reverse order, restoring the full matrix
+     */
+    void restoreGivens() {
+        int node;
+        while (givenCount > 0) {
+            node = givenRows[--givenCount];
+            uncoverRow(node);
+        }
+    }
+
+    /**
+     * Recursively search for exact covers of the remaining columns
+     * <p>
+     *     Always branches on the column with the fewest remaining rows, and stops branching once
+     *     {@code limit} solutions have been counted.
+     * </p>
+     * @param depth the number of rows chosen so far
+     */
+    void search(int depth) {
+        nodeCount++;
+        if (right[ROOT] == ROOT) {
+            if (solutionCount++ == 0 && solution != null) recordSolution(depth);
+            return;
+        }
+
+        int chosen = right[ROOT];
+        for (int c = right[chosen]; c != ROOT; c = right[c]) {
+            if (size[c] < size[chosen]) chosen = c;
+        }
+        if (size[chosen] == 0) {
+            backtrackCount++;
+            return;
+        }
+
+        cover(chosen);
+        for (int r = down[chosen]; r != chosen && solutionCount < limit; r = down[r]) {
+            stack[depth] = r;
+            for (int k = right[r]; k != r; k = right[k]) cover(column[k]);
+            search(depth + 1);
+            for (int k = left[r]; k != r; k = left[k]) uncover(column[k]);
+        }
+        uncover(chosen);
+    }
+
+    /**
+     * Write the givens and the chosen rows into the solution array
+     * @param depth the number of chosen rows on the stack
+     */
+    void recordSolution(int depth) {
+        System.arraycopy(puzzle, 0, solution, 0, 81);
+        int row;
+        for (int d = 0; d < depth; d++) {
+            row = (stack[d] - FIRST_ROW_NODE) / NODES_PER_ROW;
+            solution[row / 9] = row % 9 + 1;
+        }
+    }
+    // ===== END SOLVER METHODS =====
+
+
+    // ===== REMOVAL METHODS =====
+    /**
+     * Cover every cell of a solved grid as a clue, ready for a series of clue removals
+     * <p>
+     *     Clues are covered in reverse visit order, so the clue visited next is always the last pending cover and can
+     *     be uncovered without rebuilding the others. The covered matrix is kept between removals, which makes each
+     *     check cost a few covers plus its search instead of covering all clues again. The matrix stays covered until
+     *     {@link #endRemoval}.
+     * </p>
+     * @param grid the 81 cells of a solved grid
+     * @param order the 81 cell positions in the order their clues should be tried
+     */
+    void beginRemoval(int[] grid, int[] order) {
+        assert(grid.length == 81 && order.length == 81) : "Incompatible grid dimensions";
+        assert(givenCount == 0) : "Removal already in progress";
+        keptCount = 0;
+        int pos, node;
+        for (int k = 80; k >= 0; k--) {
+            pos = order[k];
+            assert(1 <= grid[pos] && grid[pos] <= 9) : "Grid must be solved";
+            node = rowNode(pos * 9 + grid[pos] - 1);
+            givenRows[givenCount++] = node;
+            coverRow(node);
+        }
+    }
+
+    /**
+     * Try blanking the clue of the next cell of the removal order
+     * <p>
+     *     The puzzle before the removal has exactly one solution, so blanking a clue keeps it unique unless some
+     *     solution puts another digit in that cell. If one of the clue's four constraints has no other candidate left,
+     *     the digit is forced and no search is needed; otherwise the clue's row is hidden and a single solution is
+     *     searched for, reported as a {@link SolveEvent} with limit 2. A clue that cannot go is covered again above
+     *     the pending ones.
+     * </p>
+     * @return whether the clue was blanked, false if blanking it would allow a second solution
+     */
+    boolean removeNext() {
+        assert(givenCount > 0) : "No pending clue left";
+        nodeCount = 0;
+        backtrackCount = 0;
+        for (int k = keptCount - 1; k >= 0; k--) uncoverRow(keptRows[k]);
+        int node = givenRows[--givenCount];
+        uncoverRow(node);
+        for (int k = 0; k < keptCount; k++) coverRow(keptRows[k]);
+
+        boolean forced = false;
+        int n = node;
+        do {
+            forced |= size[column[n]] == 1;
+            n = right[n];
+        } while (n != node);
+        if (forced) return true;
+
+        SolveEvent event = SolveEvent.TYPE.isEnabled() ? new SolveEvent() : null;
+        if (event != null) event.begin();
+        hideRow(node);
+        solutionCount = 0;
+        limit = 1;
+        search(0);
+        unhideRow(node);
+        if (event != null) event.end();
+        if (event != null && event.shouldCommit()) {
+            // reported as the uniqueness check it stands for, the known solution counting as the first
+            event.givens = givenCount + keptCount;
+            event.limit = 2;
+            event.solutions = 1 + solutionCount;
+            event.nodes = nodeCount;
+            event.backtracks = backtrackCount;
+            event.commit();
+        }
+        if (solutionCount == 0) return true;
+        coverRow(node);
+        keptRows[keptCount++] = node;
+        return false;
+    }
+
+    /**
+     * Uncover every clue left by a series of removals, restoring the full matrix
+     */
+    void endRemoval() {
+        while (keptCount > 0) uncoverRow(keptRows[--keptCount]);
+        while (givenCount > 0) uncoverRow(givenRows[--givenCount]);
+    }
+    // ===== END REMOVAL METHODS =====
+
+
+    // ===== LINK METHODS =====
+    /**
+     * Append a node to the bottom of a column
+     * @param node the node to append
+     * @param c the column header
+     */
+    void linkNode(int node, int c) {
+        column[node] = c;
+        up[node] = up[c];
+        down[node] = c;
+        down[up[c]] = node;
+        up[c] = node;
+        size[c]++;
+    }
+
+    /**
+     * Remove a column from the header list and all rows intersecting it from their other columns
+     * @param c the column header
+     */
+    void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int r = down[c]; r != c; r = down[r]) {
+            for (int k = right[r]; k != r; k = right[k]) {
+                down[up[k]] = down[k];
+                up[down[k]] = up[k];
+                size[column[k]]--;
+            }
+        }
+    }
+
+    /**
+     * Reverse a previous {@link #cover(int)} of a column
+     * @param c the column header
+     */
+    void uncover(int c) {
+        for (int r = up[c]; r != c; r = up[r]) {
+            for (int k = left[r]; k != r; k = left[k]) {
+                size[column[k]]++;
+                down[up[k]] = k;
+                up[down[k]] = k;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+
+    /**
+     * Cover the four columns of a candidate row, choosing it
+     * @param node the first node of the row
+     */
+    void coverRow(int node) {
+        cover(column[node]);
+        for (int k = right[node]; k != node; k = right[k]) cover(column[k]);
+    }
+
+    /**
+     * Reverse a previous {@link #coverRow(int)}
+     * @param node the first node of the row
+     */
+    void uncoverRow(int node) {
+        for (int k = left[node]; k != node; k = left[k]) uncover(column[k]);
+        uncover(column[node]);
+    }
+
+    /**
+     * Unlink a candidate row from its columns without covering them, so the search cannot choose it
+     * @param node the first node of the row
+     */
+    void hideRow(int node) {
+        int k = node;
+        do {
+            down[up[k]] = down[k];
+            up[down[k]] = up[k];
+            size[column[k]]--;
+            k = right[k];
+        } while (k != node);
+    }
+
+    /**
+     * Reverse a previous {@link #hideRow(int)}
+     * @param node the first node of the row
+     */
+    void unhideRow(int node) {
+        int k = node;
+        do {
+            k = left[k];
+            size[column[k]]++;
+            down[up[k]] = k;
+            up[down[k]] = k;
+        } while (k != node);
+    }
+    // ===== END LINK METHODS =====
+
+
+    // ===== STATIC METHODS =====
+    /**
+     * Get the first node of a candidate row
+     * @param row the candidate row, {@code cell * 9 + digit - 1}
+     * @return the node index of the row's cell constraint
+     */
+    static int rowNode(int row) {
+        return FIRST_ROW_NODE + row * NODES_PER_ROW;
+    }
+    // ===== END STATIC METHODS =====
+}
@@ -0,0 +1,12 @@
+package org.example.sudoku;
+
+/**
+ * Difficulty grade of a puzzle, determined by the hardest technique needed to solve it
+ */
+public enum Difficulty {
+    EASY,
+    MEDIUM,
+    HARD,
+    EXPERT,
+    BEYOND // not solvable with the implemented techniques alone, or invalid
+}
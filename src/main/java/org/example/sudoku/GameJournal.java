@@ -0,0 +1,322 @@
+package org.example.sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Append-only binary journal of a game, used to save and resume it and to undo and redo moves
+ * <p>
+ *     The file starts with a header of big-endian ints: the magic {@code "SDKJ"}, the format version and the box size,
+ *     followed by the starting board as one byte per cell, padded to a multiple of 4, and its clue bitset as longs.
+ *     Every move, undo and redo then appends one packed int: the record type in bits 29-31, the cell position in bits
+ *     10-19, the digit the cell held before in bits 5-9 and the digit it holds after in bits 0-4. Undo and redo records
+ *     repeat the move they revert or reapply, so every record can be replayed on its own.
+ * </p>
+ * <p>
+ *     Every {@link #SNAPSHOT_INTERVAL} records a snapshot of all cells is appended, framed by a start and an end record
+ *     holding its length. Resuming scans backwards from the end to the last snapshot and replays only the records
+ *     after it, so resume time does not grow with the length of a session; undo after resuming reaches back to that
+ *     snapshot. Record types are never 0 and cell bytes always are in the top bits, so a snapshot torn by a crash is
+ *     recognized and cut off.
+ * </p>
+ * <p>
+ *     Records are collected in a reused buffer and written to the channel once per operation, so a killed process
+ *     loses nothing, and the channel is forced to disk every {@link #SYNC_INTERVAL} operations and on close.
+ * </p>
+ */
+final class GameJournal implements Closeable {
+    // Constants
+    final static int MAGIC = 0x53444B4A; // "SDKJ"
+    final static int VERSION = 1;
+    final static int SNAPSHOT_INTERVAL = 256;
+    final static int SYNC_INTERVAL = 64;
+    final static int BUFFER_SIZE = 8192;
+
+    // Record layout
+    final static int MOVE = 1;
+    final static int UNDO = 2;
+    final static int REDO = 3;
+    final static int SNAPSHOT_START = 4;
+    final static int SNAPSHOT_END = 5;
+    final static int TYPE_SHIFT = 29;
+    final static int POS_SHIFT = 10;
+    final static int PREVIOUS_SHIFT = 5;
+    final static int DIGIT_MASK = 0x1F;
+    final static int POS_MASK = 0x3FF;
+
+    // Journal file
+    final Sudoku game;
+    final FileChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    final int snapshotBytes;
+    int sinceSnapshot;
+    int sinceSync;
+    int replayedCount;
+
+    // Move history, the moves before the cursor can be undone and the ones after it redone
+    int[] history = new int[64];
+    int historySize;
+    int cursor;
+
+    private GameJournal(Sudoku game, FileChannel channel) {
+        this.game = game;
+        this.channel = channel;
+        snapshotBytes = padded(game.dims.cells);
+    }
+
+    // ===== OPEN METHODS =====
+    /**
+     * Start a new journal for a game, recording its current board as the starting board
+     * @param path the path of the journal file, replaced if it exists
+     * @param game the game to record
+     * @return the open journal
+     */
+    static GameJournal create(Path path, Sudoku game) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        GameJournal journal = new GameJournal(game, channel);
+        Board board = game.board;
+        ByteBuffer header = ByteBuffer.allocate(headerSize(game.dims));
+        header.putInt(MAGIC).putInt(VERSION).putInt(game.dims.box);
+        header.put(board.cells);
+        header.position(3 * Integer.BYTES + journal.snapshotBytes);
+        for (long word : board.clues) header.putLong(word);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header);
+        channel.force(false);
+        return journal;
+    }
+
+    /**
+     * Reopen a journal and restore its game from the last snapshot and the records after it
+     * <p>
+     *     A record or snapshot left incomplete by a crash is cut off, so later moves append after the last complete
+     *     record.
+     * </p>
+     * @param path the path of the journal file
+     * @return the open journal, holding the restored game
+     */
+    static GameJournal resume(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer fixed = ByteBuffer.allocate(3 * Integer.BYTES);
+            readFully(channel, fixed, 0);
+            int box = fixed.getInt(8);
+            if (fixed.getInt(0) != MAGIC || fixed.getInt(4) != VERSION || box < BoardSize.MIN_BOX
+                    || box > BoardSize.MAX_BOX) {
+                throw new IOException("Not a game journal: " + path);
+            }
+            BoardSize dims = BoardSize.of(box);
+            int headerSize = headerSize(dims);
+            if (channel.size() < headerSize) throw new IOException("Corrupt game journal: " + path);
+
+            Sudoku game = new Sudoku(dims, true, false, new SplittableRandom());
+            GameJournal journal = new GameJournal(game, channel);
+            ByteBuffer header = ByteBuffer.allocate(headerSize - fixed.capacity());
+            readFully(channel, header, fixed.capacity());
+            header.get(0, game.board.cells);
+            for (int k = 0; k < game.board.clues.length; k++) {
+                game.board.clues[k] = header.getLong(journal.snapshotBytes + k * Long.BYTES);
+            }
+            journal.restore(headerSize);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Find the last snapshot, apply it and replay the records after it
+     * @param headerSize the size of the header
+     */
+    private void restore(long headerSize) throws IOException {
+        long end = headerSize + (channel.size() - headerSize) / Integer.BYTES * Integer.BYTES;
+        // the last complete snapshot, the records after it and at most one torn snapshot
+        long tailStart = Math.max(headerSize,
+                end - (long) (SNAPSHOT_INTERVAL + 4) * Integer.BYTES - 2L * snapshotBytes);
+        ByteBuffer tail = ByteBuffer.allocate((int) (end - tailStart));
+        readFully(channel, tail, tailStart);
+
+        // walk back over records, skipping torn snapshot cells, until the end of a complete snapshot
+        int offset = tail.limit();
+        int replayFrom = 0;
+        int word, type;
+        boolean snapshot = false;
+        while (offset >= Integer.BYTES) {
+            word = tail.getInt(offset - Integer.BYTES);
+            type = word >>> TYPE_SHIFT;
+            if (type == SNAPSHOT_END) {
+                snapshot = true;
+                replayFrom = offset;
+                offset -= 2 * Integer.BYTES + snapshotBytes;
+                break;
+            }
+            if (type == 0 || type == SNAPSHOT_START) end = tailStart + offset - Integer.BYTES;
+            offset -= Integer.BYTES;
+        }
+        if (snapshot ? offset < 0 : tailStart > headerSize) throw new IOException("Corrupt game journal");
+        if (snapshot) tail.get(offset + Integer.BYTES, game.board.cells);
+        game.rebuildState();
+        channel.truncate(end);
+        channel.position(end);
+
+        for (offset = replayFrom; tailStart + offset < end; offset += Integer.BYTES) {
+            word = tail.getInt(offset);
+            type = word >>> TYPE_SHIFT;
+            if (type < MOVE || type > REDO) continue;
+            apply(word, type);
+            replayedCount++;
+            sinceSnapshot++;
+        }
+    }
+
+    /**
+     * Apply a replayed record to the game and the move history
+     * @param word the packed record
+     * @param type the record type
+     */
+    private void apply(int word, int type) {
+        int pos = (word >>> POS_SHIFT) & POS_MASK;
+        int digit = type == UNDO ? (word >>> PREVIOUS_SHIFT) & DIGIT_MASK : word & DIGIT_MASK;
+        game.enterDigit(digit, pos / game.dims.size, pos % game.dims.size);
+        switch (type) {
+            case MOVE -> push(word);
+            case UNDO -> cursor = Math.max(0, cursor - 1);
+            default -> cursor = Math.min(historySize, cursor + 1);
+        }
+    }
+    // ===== END OPEN METHODS =====
+
+
+    // ===== MOVE METHODS =====
+    /**
+     * Enter a digit into the game and record the move
+     * @param digit the digit to enter, 0 to erase
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return whether the board changed
+     */
+    boolean enterDigit(int digit, int i, int j) throws IOException {
+        int previous = game.board.get(i, j);
+        if (previous == digit || game.board.isClue(i, j)) return false;
+        game.enterDigit(digit, i, j);
+        int move = pack(MOVE, i * game.dims.size + j, previous, digit);
+        push(move);
+        append(move);
+        return true;
+    }
+
+    /**
+     * Revert the last move that was not undone yet
+     * @return whether a move was undone
+     */
+    boolean undo() throws IOException {
+        if (cursor == 0) return false;
+        int move = history[--cursor];
+        int pos = (move >>> POS_SHIFT) & POS_MASK;
+        game.enterDigit((move >>> PREVIOUS_SHIFT) & DIGIT_MASK, pos / game.dims.size, pos % game.dims.size);
+        append(move & ~(7 << TYPE_SHIFT) | UNDO << TYPE_SHIFT);
+        return true;
+    }
+
+    /**
+     * Reapply the last undone move
+     * @return whether a move was redone
+     */
+    boolean redo() throws IOException {
+        if (cursor == historySize) return false;
+        int move = history[cursor++];
+        int pos = (move >>> POS_SHIFT) & POS_MASK;
+        game.enterDigit(move & DIGIT_MASK, pos / game.dims.size, pos % game.dims.size);
+        append(move & ~(7 << TYPE_SHIFT) | REDO << TYPE_SHIFT);
+        return true;
+    }
+
+    /**
+     * Add a move at the cursor, dropping every undone move after it
+     * @param move the packed move
+     */
+    private void push(int move) {
+        if (cursor == history.length) history = Arrays.copyOf(history, cursor * 2);
+        history[cursor++] = move;
+        historySize = cursor;
+    }
+    // ===== END MOVE METHODS =====
+
+
+    // ===== WRITE METHODS =====
+    /**
+     * Append one record, followed by a snapshot when one is due, and write them out
+     * @param word the packed record
+     */
+    private void append(int word) throws IOException {
+        buffer.putInt(word);
+        if (++sinceSnapshot >= SNAPSHOT_INTERVAL) {
+            int frame = SNAPSHOT_START << TYPE_SHIFT | snapshotBytes;
+            buffer.putInt(frame);
+            buffer.put(game.board.cells);
+            buffer.position(buffer.position() + snapshotBytes - game.dims.cells);
+            buffer.putInt(frame & ~(7 << TYPE_SHIFT) | SNAPSHOT_END << TYPE_SHIFT);
+            sinceSnapshot = 0;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+        if (++sinceSync >= SYNC_INTERVAL) {
+            channel.force(false);
+            sinceSync = 0;
+        }
+    }
+
+    /**
+     * Force every record to disk and close the file
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        channel.force(false);
+        channel.close();
+    }
+    // ===== END WRITE METHODS =====
+
+
+    // ===== STATIC METHODS =====
+    /**
+     * Pack a record
+     * @param type the record type
+     * @param pos the row-major position of the cell
+     * @param previous the digit the cell held before
+     * @param digit the digit the cell holds after
+     * @return the packed record
+     */
+    static int pack(int type, int pos, int previous, int digit) {
+        return type << TYPE_SHIFT | pos << POS_SHIFT | previous << PREVIOUS_SHIFT | digit;
+    }
+
+    /**
+     * Get the header size of a journal for a board size
+     * @param dims the board dimensions
+     * @return the header size in bytes
+     */
+    static int headerSize(BoardSize dims) {
+        return 3 * Integer.BYTES + padded(dims.cells) + (dims.cells + 63) / 64 * Long.BYTES;
+    }
+
+    private static int padded(int cells) {
+        return (cells + 3) & ~3;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) throw new IOException("Unexpected end of file");
+        }
+    }
+    // ===== END STATIC METHODS =====
+}
@@ -0,0 +1,256 @@
+package org.example.sudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Local game server hosting many 9x9 games in one process, one virtual thread per connection
+ * <p>
+ *     Every connection is a session owning one {@link Sudoku}, loaded from a shared pool of pre-generated puzzles, so
+ *     no generation happens while serving. Sessions speak the {@link MoveReader} line protocol, one reply line per
+ *     request line:
+ * </p>
+ * <ul>
+ *     <li>{@code "<row> <col> <digit>"} enters a digit and replies {@code ok}, {@code conflict} if a peer holds the
+ *     same digit, {@code solved} if the move finished the puzzle, or {@code clue} if the cell is a starter clue</li>
+ *     <li>{@code board} replies {@code board} and the cells in row-major order, 0 for blank; the same line is sent on
+ *     connect</li>
+ *     <li>{@code check} replies {@code solved} or {@code unsolved}</li>
+ *     <li>{@code new} loads another puzzle of the pool and replies with its board</li>
+ *     <li>{@code quit} replies {@code bye} and closes the session</li>
+ * </ul>
+ * <p>
+ *     Anything else replies a line starting with {@code error}. Each session reads through a small {@link MoveReader}
+ *     and a small buffered writer, and replies are flushed only once no further request is buffered, so pipelined
+ *     requests share one write. The server binds to the loopback address only.
+ * </p>
+ */
+final class GameServer implements Closeable {
+    // Constants
+    final static int BACKLOG = 4096;
+    final static int SESSION_BUFFER_SIZE = 512;
+    final static int CLOSE_TIMEOUT_SECONDS = 5;
+
+    // Replies
+    final static byte[] OK = reply("ok");
+    final static byte[] CONFLICT = reply("conflict");
+    final static byte[] SOLVED = reply("solved");
+    final static byte[] UNSOLVED = reply("unsolved");
+    final static byte[] CLUE = reply("clue");
+    final static byte[] BYE = reply("bye");
+    final static byte[] OUTSIDE = reply("error move outside the board");
+    final static byte[] MALFORMED = reply("error expected \"<row> <col> <digit>\", board, check, new or quit");
+    final static byte[] BOARD_PREFIX = "board ".getBytes(StandardCharsets.US_ASCII);
+
+    // Puzzle pool, shared read-only by every session
+    final ByteBuffer pool;
+    final int poolSize;
+
+    // Server state
+    final ServerSocket serverSocket;
+    final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    final Thread acceptor;
+
+    // Totals
+    final AtomicInteger activeCount = new AtomicInteger();
+    final AtomicLong sessionCount = new AtomicLong();
+    final AtomicLong moveCount = new AtomicLong();
+
+    private GameServer(ByteBuffer pool, ServerSocket serverSocket) {
+        assert(pool.capacity() % PuzzleFormat.CELLS == 0 && pool.capacity() > 0) : "Pool must hold whole puzzles";
+        this.pool = pool;
+        poolSize = pool.capacity() / PuzzleFormat.CELLS;
+        this.serverSocket = serverSocket;
+        acceptor = Thread.ofPlatform().name("sudoku-acceptor").unstarted(this::accept);
+    }
+
+    // ===== SERVER METHODS =====
+    /**
+     * Start a server on a loopback port
+     * @param pool the puzzles to serve, one byte per cell, as made by {@link #generatePool}
+     * @param port the port to listen on, 0 for any free port
+     * @return the running server
+     */
+    static GameServer start(ByteBuffer pool, int port) throws IOException {
+        GameServer server = new GameServer(pool, new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress()));
+        server.acceptor.start();
+        return server;
+    }
+
+    /**
+     * Get the port the server listens on
+     * @return the local port
+     */
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept connections until the server socket is closed, starting a session on a virtual thread for each
+     */
+    private void accept() {
+        try {
+            Socket socket;
+            while (true) {
+                socket = serverSocket.accept();
+                openSockets.add(socket);
+                Socket session = socket;
+                sessions.execute(() -> serve(session));
+            }
+        } catch (IOException | RejectedExecutionException e) {
+            // the server was closed
+        }
+    }
+
+    /**
+     * Stop accepting connections, close every open session and wait for their threads to end
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : openSockets) socket.close();
+        sessions.shutdown();
+        try {
+            acceptor.join();
+            sessions.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    // ===== END SERVER METHODS =====
+
+
+    // ===== SESSION METHODS =====
+    /**
+     * Run one session until the client quits or disconnects
+     * @param socket the connection of the session
+     */
+    private void serve(Socket socket) {
+        activeCount.incrementAndGet();
+        sessionCount.incrementAndGet();
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            MoveReader reader = new MoveReader(socket.getInputStream(), SESSION_BUFFER_SIZE);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), SESSION_BUFFER_SIZE);
+            Sudoku game = new Sudoku(true);
+            byte[] boardLine = new byte[BOARD_PREFIX.length + game.dims.cells + 1];
+            System.arraycopy(BOARD_PREFIX, 0, boardLine, 0, BOARD_PREFIX.length);
+            boardLine[boardLine.length - 1] = '\n';
+
+            loadRandom(game);
+            writeBoard(game, boardLine, out);
+            out.flush();
+            int kind;
+            while ((kind = reader.next()) != MoveReader.END) {
+                switch (kind) {
+                    case MoveReader.MOVE -> out.write(move(game, reader));
+                    case MoveReader.BOARD -> writeBoard(game, boardLine, out);
+                    case MoveReader.CHECK -> out.write(game.checkFinished() ? SOLVED : UNSOLVED);
+                    case MoveReader.NEW -> {
+                        loadRandom(game);
+                        writeBoard(game, boardLine, out);
+                    }
+                    case MoveReader.QUIT -> {
+                        out.write(BYE);
+                        out.flush();
+                        return;
+                    }
+                    case MoveReader.SKIP -> {
+                        // blank line or comment
+                    }
+                    default -> out.write(MALFORMED);
+                }
+                if (!reader.hasBuffered()) out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away or the server was closed
+        } finally {
+            openSockets.remove(socket);
+            activeCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Apply a parsed move to the game of a session
+     * @param game the game of the session
+     * @param reader the reader holding the move
+     * @return the reply
+     */
+    private byte[] move(Sudoku game, MoveReader reader) {
+        int size = game.dims.size;
+        int i = reader.row;
+        int j = reader.col;
+        if (i < 0 || i >= size || j < 0 || j >= size || reader.digit > size) return OUTSIDE;
+        if (game.board.isClue(i, j)) return CLUE;
+        game.enterDigit(reader.digit, i, j);
+        moveCount.incrementAndGet();
+        if (game.checkFinished()) return SOLVED;
+        return reader.digit != 0 && !game.checkCell(i, j) ? CONFLICT : OK;
+    }
+
+    /**
+     * Replace the board of a game with a random puzzle of the pool
+     * @param game the game to load into
+     */
+    private void loadRandom(Sudoku game) {
+        game.loadPuzzle(pool, ThreadLocalRandom.current().nextInt(poolSize) * PuzzleFormat.CELLS);
+    }
+
+    /**
+     * Write the board reply of a game
+     * @param game the game to write
+     * @param line the reused reply line, with its prefix and line break already in place
+     * @param out the stream to write to
+     */
+    private static void writeBoard(Sudoku game, byte[] line, OutputStream out) throws IOException {
+        int digit;
+        for (int pos = 0; pos < game.dims.cells; pos++) {
+            digit = game.board.get(pos);
+            line[BOARD_PREFIX.length + pos] = (byte) (digit == 0 ? '0' : BoardSize.symbol(digit));
+        }
+        out.write(line);
+    }
+    // ===== END SESSION METHODS =====
+
+
+    // ===== STATIC METHODS =====
+    /**
+     * Generate a pool of unique puzzles in parallel, puzzle {@code n} being {@link Sudoku#fromId} of
+     * {@code firstId + n}
+     * @param count the number of puzzles
+     * @param firstId the ID of the first puzzle
+     * @return the puzzles, one byte per cell
+     */
+    static ByteBuffer generatePool(int count, long firstId) {
+        assert(count > 0) : "Pool must hold at least one puzzle";
+        ByteBuffer pool = ByteBuffer.allocate(count * PuzzleFormat.CELLS);
+        // one generator per thread of the stream, reseeded for every ID
+        ThreadLocal<PuzzleGenerator> generators = ThreadLocal.withInitial(PuzzleGenerator::new);
+        IntStream.range(0, count).parallel()
+                .forEach(n -> pool.put(n * PuzzleFormat.CELLS, generators.get().generate(firstId + n, true).cells));
+        return pool;
+    }
+
+    private static byte[] reply(String text) {
+        return (text + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+    // ===== END STATIC METHODS =====
+}
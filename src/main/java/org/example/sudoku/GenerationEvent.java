@@ -0,0 +1,48 @@
+package org.example.sudoku;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one phase of puzzle generation
+ * <p>
+ *     A generated puzzle records a diagonal and a backtracking phase, or a single bounded phase for boards larger than
+ *     9x9, followed by a removal phase. A slow {@code new Sudoku()} shows up as a long backtracking phase with a high
+ *     backtrack count. Disabled events cost nothing measurable and are not even allocated.
+ * </p>
+ */
+@Name("org.example.sudoku.Generation")
+@Label("Sudoku Generation Phase")
+@Category("Sudoku")
+@Description("One phase of generating a puzzle, with the search nodes and backtracks it took")
+@StackTrace(false)
+final class GenerationEvent extends Event {
+    // Phases
+    final static String DIAGONAL = "diagonal";
+    final static String BACKTRACKING = "backtracking";
+    final static String BOUNDED = "bounded";
+    final static String REMOVAL = "removal";
+
+    // Registered type, checked before allocating an event so generation allocates none unless recording
+    final static EventType TYPE = EventType.getEventType(GenerationEvent.class);
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Box Size")
+    @Description("Side of a subgrid, 3 for a 9x9 board")
+    int box;
+
+    @Label("Nodes")
+    @Description("Digits placed, or for removal the cells drawn or the solver nodes of every uniqueness check")
+    long nodes;
+
+    @Label("Backtracks")
+    @Description("Digits taken back, or for removal the cells restored to keep the solution unique")
+    long backtracks;
+}
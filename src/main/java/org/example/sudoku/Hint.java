@@ -0,0 +1,18 @@
+package org.example.sudoku;
+
+/**
+ * The easiest deduction available on a board: either a digit to place or candidates to remove
+ * @param technique the technique that finds the deduction
+ * @param pos the row-major position of the cell to fill, -1 for an elimination
+ * @param digit the digit to place, 0 for an elimination
+ * @param eliminations the candidate mask removed from each cell, null for a placement
+ */
+public record Hint(Technique technique, int pos, int digit, long[] eliminations) {
+    /**
+     * Check whether the hint places a digit
+     * @return whether the hint is a placement rather than an elimination
+     */
+    public boolean isPlacement() {
+        return digit != 0;
+    }
+}
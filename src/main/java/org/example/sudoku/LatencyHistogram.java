@@ -0,0 +1,123 @@
+package org.example.sudoku;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe, fixed-size histogram of latencies in nanoseconds
+ * <p>
+ *     Buckets are log-linear: every power of two is split into {@link #SUB_BUCKETS} equal buckets, so a bucket is at
+ *     most 25% wide and the whole range of a long fits in {@link #BUCKETS} counters. Every bucket is a {@link LongAdder}
+ *     and the maximum a {@link LongAccumulator}, so threads recording into the same bucket update cells of their own
+ *     instead of contending on one cache line; once their cells exist, recording never allocates. Percentiles report
+ *     the upper bound of their bucket.
+ * </p>
+ */
+final class LatencyHistogram {
+    // Constants
+    final static int SUB_BUCKET_BITS = 2;
+    final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    final static int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    // Counts
+    final LongAdder[] counts = new LongAdder[BUCKETS];
+    final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor for an empty histogram
+     */
+    LatencyHistogram() {
+        for (int b = 0; b < BUCKETS; b++) counts[b] = new LongAdder();
+    }
+
+    /**
+     * Record one latency
+     * @param nanos the latency in nanoseconds, negative values count as 0
+     */
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucket(nanos)].increment();
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Count the recorded latencies
+     * @return the number of latencies recorded since the last reset
+     */
+    long count() {
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) count += counts[b].sum();
+        return count;
+    }
+
+    /**
+     * Get a percentile of the recorded latencies
+     * @param fraction the percentile, between 0 and 1
+     * @return the upper bound of the bucket holding the percentile, at most the maximum, 0 without latencies
+     */
+    long percentile(double fraction) {
+        assert(0 <= fraction && fraction <= 1) : "Fraction must be between 0 and 1";
+        long[] snapshot = snapshot();
+        long count = 0;
+        for (long bucketCount : snapshot) count += bucketCount;
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= target) return Math.min(upperBound(b), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Get the largest recorded latency
+     * @return the maximum in nanoseconds, 0 without latencies
+     */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Copy the bucket counts
+     * @return the count of every bucket, see {@link #upperBound}
+     */
+    long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) snapshot[b] = counts[b].sum();
+        return snapshot;
+    }
+
+    /**
+     * Clear every count
+     */
+    void reset() {
+        for (int b = 0; b < BUCKETS; b++) counts[b].reset();
+        max.reset();
+    }
+
+    /**
+     * Get the bucket of a latency
+     * @param nanos the latency in nanoseconds, not negative
+     * @return the bucket index
+     */
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Get the largest latency of a bucket
+     * @param bucket the bucket index
+     * @return the upper bound in nanoseconds, inclusive
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.sudoku;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load-generating client for a {@link GameServer}, holding many concurrent sessions on virtual threads
+ * <p>
+ *     Every session connects, reads its board and waits until all sessions are connected. It then plays a fixed
+ *     number of random moves on blank cells, one request in flight at a time, and records the round-trip latency of
+ *     each. Latencies go into one preallocated array, a slice per session, so measuring allocates nothing.
+ * </p>
+ * <p>
+ *     Without an interval every session sends its next move as soon as the last reply arrives, which measures peak
+ *     throughput, but then the latency is mostly time queued behind the other sessions. With an interval every session
+ *     moves once per interval, starting at a random phase, like a player thinking between moves, which measures the
+ *     latency of a server that is busy but not saturated.
+ * </p>
+ */
+final class LoadGenerator {
+    // Constants
+    final static int LINE_CAPACITY = 256;
+    final static byte[] QUIT = "quit\n".getBytes(StandardCharsets.US_ASCII);
+
+    // Load settings
+    final String host;
+    final int port;
+    final int sessions;
+    final int moves;
+    final long intervalNanos; // time between the moves of a session, 0 for back to back
+
+    // Results of the last run
+    final long[] latencies; // round trips in nanoseconds, moves per session
+    final int[] recorded; // moves recorded per session
+    final AtomicLong errorCount = new AtomicLong();
+    final AtomicLong failedCount = new AtomicLong();
+    long startNanos;
+    long elapsedNanos;
+
+    /**
+     * Constructor for a load run
+     * @param host the server host
+     * @param port the server port
+     * @param sessions the number of concurrent sessions
+     * @param moves the number of moves each session plays
+     * @param interval the time between the moves of a session, zero to send them back to back
+     */
+    LoadGenerator(String host, int port, int sessions, int moves, Duration interval) {
+        assert(sessions > 0 && moves > 0) : "Sessions and moves must be positive";
+        assert(!interval.isNegative()) : "Interval must not be negative";
+        this.host = host;
+        this.port = port;
+        this.sessions = sessions;
+        this.moves = moves;
+        intervalNanos = interval.toNanos();
+        latencies = new long[Math.multiplyExact(sessions, moves)];
+        recorded = new int[sessions];
+    }
+
+    /**
+     * Connect every session, then play all moves at once
+     */
+    void run() throws InterruptedException {
+        CountDownLatch connected = new CountDownLatch(sessions);
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int s = 0; s < sessions; s++) {
+                int session = s;
+                executor.execute(() -> session(session, connected, start));
+            }
+            connected.await();
+            startNanos = System.nanoTime();
+            start.countDown();
+        }
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Play one session
+     * @param s the session index
+     * @param connected counted down once the session is connected or has failed
+     * @param start released once every session is connected
+     */
+    private void session(int s, CountDownLatch connected, CountDownLatch start) {
+        boolean counted = false;
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream(), LINE_CAPACITY);
+            OutputStream out = socket.getOutputStream();
+            byte[] line = new byte[LINE_CAPACITY];
+            byte[] move = new byte[6];
+
+            // blank cells of the board line, after "board "
+            int length = readLine(in, line);
+            if (length < 6) throw new IOException("No board");
+            int[] blanks = new int[length];
+            int blankCount = 0;
+            for (int pos = 0; pos + 6 < length; pos++) {
+                if (line[pos + 6] == '0') blanks[blankCount++] = pos;
+            }
+            if (blankCount == 0) throw new IOException("No blank cell");
+            connected.countDown();
+            counted = true;
+            start.await();
+
+            SplittableRandom rand = new SplittableRandom(s);
+            int offset = s * moves;
+            int pos;
+            long sent, wait;
+            // paced sessions wait one interval first, so the wake-up of all sessions at the start is not measured
+            long next = intervalNanos == 0 ? 0 : startNanos + intervalNanos + rand.nextLong(intervalNanos);
+            for (int m = 0; m < moves; m++) {
+                if (intervalNanos != 0) {
+                    wait = next - System.nanoTime();
+                    if (wait > 0) Thread.sleep(Duration.ofNanos(wait));
+                    next += intervalNanos;
+                }
+                pos = blanks[rand.nextInt(blankCount)];
+                move[0] = (byte) ('1' + pos / 9);
+                move[1] = ' ';
+                move[2] = (byte) ('1' + pos % 9);
+                move[3] = ' ';
+                move[4] = (byte) ('1' + rand.nextInt(9));
+                move[5] = '\n';
+
+                sent = System.nanoTime();
+                out.write(move);
+                length = readLine(in, line);
+                latencies[offset + m] = System.nanoTime() - sent;
+                recorded[s]++;
+                if (length < 0 || line[0] == 'e') errorCount.incrementAndGet();
+            }
+            out.write(QUIT);
+            readLine(in, line);
+        } catch (IOException | InterruptedException e) {
+            failedCount.incrementAndGet();
+        } finally {
+            if (!counted) connected.countDown();
+        }
+    }
+
+    /**
+     * Summarize the last run
+     * @return the session, move and error totals, the throughput and the latency percentiles
+     */
+    String summary() {
+        long[] sorted = new long[latencies.length];
+        int count = 0;
+        for (int s = 0; s < sessions; s++) {
+            System.arraycopy(latencies, s * moves, sorted, count, recorded[s]);
+            count += recorded[s];
+        }
+        Arrays.sort(sorted, 0, count);
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%d sessions, %d failed, %d moves in %.3f s (%.0f moves/s), %d errors, "
+                        + "latency p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                sessions, failedCount.get(), count, seconds, count / seconds, errorCount.get(),
+                percentile(sorted, count, 0.5), percentile(sorted, count, 0.99), percentile(sorted, count, 0.999),
+                count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    /**
+     * Get a percentile of sorted latencies
+     * @param sorted the latencies in ascending order
+     * @param count the number of latencies
+     * @param fraction the percentile, between 0 and 1
+     * @return the latency in milliseconds, 0 without latencies
+     */
+    static double percentile(long[] sorted, int count, double fraction) {
+        if (count == 0) return 0;
+        return sorted[Math.max(0, (int) Math.ceil(fraction * count) - 1)] / 1e6;
+    }
+
+    /**
+     * Read one line into a buffer, without its line break
+     * @param in the stream to read from
+     * @param line the buffer, long lines are cut to its length
+     * @return the length of the line, -1 at the end of the stream
+     */
+    private static int readLine(InputStream in, byte[] line) throws IOException {
+        int length = 0;
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) return length == 0 ? -1 : length;
+            if (length < line.length) line[length++] = (byte) b;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,500 @@
+package org.example.sudoku;
+
+/**
+ * Solver that only applies human techniques, used to grade the difficulty of 9x9 puzzles
+ * <p>
+ *     Candidates are kept as one 9-bit mask per cell. Placing a digit clears it from the 20 peers of the cell and
+ *     eliminations clear bits in place, so candidates are updated incrementally instead of being recomputed after
+ *     every deduction. Each step applies the easiest technique that makes progress, and the hardest technique needed
+ *     determines the grade. An instance keeps its scratch state between puzzles and must not be shared between threads.
+ * </p>
+ */
+public class LogicalSolver {
+    // Constants
+    final static Technique[] TECHNIQUES = Technique.values();
+    final static int COL_UNIT = 9;
+    final static int SUBGRID_UNIT = 18;
+    final static int[][] UNIT_CELLS = new int[27][9]; // rows 0-8, cols 9-17, subgrids 18-26
+    final static int[][] PEERS = BoardSize.NINE.peers;
+
+    // Subset search kinds
+    final static int NAKED = 0;
+    final static int HIDDEN = 1;
+    final static int FISH_ROWS = 2;
+    final static int FISH_COLS = 3;
+
+    static {
+        for (int k = 0; k < 9; k++) {
+            for (int m = 0; m < 9; m++) {
+                UNIT_CELLS[k][m] = k * 9 + m;
+                UNIT_CELLS[COL_UNIT + k][m] = m * 9 + k;
+                UNIT_CELLS[SUBGRID_UNIT + k][m] = (k / 3 * 3 + m / 3) * 9 + k % 3 * 3 + m % 3;
+            }
+        }
+    }
+
+    // Board state
+    final int[] cells = new int[81];
+    final int[] candidates = new int[81];
+    int unsolvedCount;
+    boolean contradiction;
+
+    // Technique tracking
+    int techniquesUsed;
+    final int[] techniqueCounts = new int[TECHNIQUES.length];
+    Technique lastTechnique;
+
+    // Subset search scratch state
+    final int[] subsetItems = new int[9];
+    final int[] subsetMasks = new int[9];
+    int subsetKind;
+    int subsetUnit;
+    int subsetDigitBit;
+
+    // ===== SOLVING METHODS =====
+    /**
+     * Solve a puzzle as far as the implemented techniques allow and grade it
+     * @param puzzle the 81 puzzle cells, 0 for blank
+     * @return the difficulty, {@link Difficulty#BEYOND} if the techniques could not finish the puzzle
+     */
+    public Difficulty grade(int[] puzzle) {
+        load(puzzle);
+        while (step()) {
+            // keep applying the easiest available technique
+        }
+        return getDifficulty();
+    }
+
+    /**
+     * Load a puzzle and compute its initial candidates
+     * @param puzzle the 81 puzzle cells, 0 for blank
+     */
+    void load(int[] puzzle) {
+        assert(puzzle.length == 81) : "Incompatible grid dimensions";
+        reset();
+        for (int pos = 0; pos < 81; pos++) {
+            cells[pos] = puzzle[pos];
+            candidates[pos] = puzzle[pos] == 0 ? ConstraintState.ALL_DIGITS : 0;
+            if (puzzle[pos] == 0) unsolvedCount++;
+        }
+        int bit;
+        for (int pos = 0; pos < 81; pos++) {
+            if (cells[pos] == 0) continue;
+            bit = ConstraintState.bit(cells[pos]);
+            for (int peer : PEERS[pos]) {
+                candidates[peer] &= ~bit;
+                if (cells[peer] == cells[pos]) contradiction = true;
+            }
+        }
+        for (int pos = 0; pos < 81; pos++) {
+            if (cells[pos] == 0 && candidates[pos] == 0) contradiction = true;
+        }
+    }
+
+    /**
+     * Load a position whose candidates are already known, such as the incrementally maintained candidates of a game
+     * <p>
+     *     Skips the peer scan of {@link #load(int[])}, so only the cells and masks are copied.
+     * </p>
+     * @param board the 9x9 board
+     * @param known the candidate mask of every cell, 0 for filled cells
+     */
+    void load(Board board, long[] known) {
+        assert(board.dims == BoardSize.NINE && known.length == 81) : "Incompatible grid dimensions";
+        reset();
+        for (int pos = 0; pos < 81; pos++) {
+            cells[pos] = board.get(pos);
+            candidates[pos] = (int) known[pos];
+            if (cells[pos] != 0) continue;
+            unsolvedCount++;
+            if (candidates[pos] == 0) contradiction = true;
+        }
+    }
+
+    private void reset() {
+        unsolvedCount = 0;
+        contradiction = false;
+        techniquesUsed = 0;
+        lastTechnique = null;
+        for (int t = 0; t < techniqueCounts.length; t++) techniqueCounts[t] = 0;
+    }
+
+    /**
+     * Apply the easiest technique that makes progress, once
+     * @return whether any deduction was made
+     */
+    boolean step() {
+        if (contradiction || unsolvedCount == 0) return false;
+        if (nakedSingle()) return record(Technique.NAKED_SINGLE);
+        if (hiddenSingle()) return record(Technique.HIDDEN_SINGLE);
+        if (pointing()) return record(Technique.POINTING);
+        if (claiming()) return record(Technique.CLAIMING);
+        if (nakedSubset(2)) return record(Technique.NAKED_PAIR);
+        if (hiddenSubset(2)) return record(Technique.HIDDEN_PAIR);
+        if (nakedSubset(3)) return record(Technique.NAKED_TRIPLE);
+        if (hiddenSubset(3)) return record(Technique.HIDDEN_TRIPLE);
+        if (nakedSubset(4)) return record(Technique.NAKED_QUAD);
+        if (hiddenSubset(4)) return record(Technique.HIDDEN_QUAD);
+        if (fish(2)) return record(Technique.X_WING);
+        if (fish(3)) return record(Technique.SWORDFISH);
+        return false;
+    }
+
+    private boolean record(Technique technique) {
+        techniquesUsed |= technique.bit();
+        techniqueCounts[technique.ordinal()]++;
+        lastTechnique = technique;
+        return true;
+    }
+    // ===== END SOLVING METHODS =====
+
+
+    // ===== RESULT METHODS =====
+    /**
+     * Check whether the last puzzle was fully solved
+     * @return whether every cell is filled without contradiction
+     */
+    public boolean isSolved() {
+        return unsolvedCount == 0 && !contradiction;
+    }
+
+    /**
+     * Get the techniques applied to the last puzzle
+     * @return a mask with bit {@code ordinal} set for every technique used
+     */
+    public int getTechniquesUsed() {
+        return techniquesUsed;
+    }
+
+    /**
+     * Check whether a technique was needed for the last puzzle
+     * @param technique the technique
+     * @return whether it was applied at least once
+     */
+    public boolean usedTechnique(Technique technique) {
+        return (techniquesUsed & technique.bit()) != 0;
+    }
+
+    /**
+     * Get how often a technique was applied to the last puzzle
+     * @param technique the technique
+     * @return the number of applications
+     */
+    public int getTechniqueCount(Technique technique) {
+        return techniqueCounts[technique.ordinal()];
+    }
+
+    /**
+     * Get the grade of the last puzzle from the hardest technique it needed
+     * @return the difficulty
+     */
+    public Difficulty getDifficulty() {
+        if (!isSolved()) return Difficulty.BEYOND;
+        if (techniquesUsed == 0) return Difficulty.EASY;
+        int hardest = 31 - Integer.numberOfLeadingZeros(techniquesUsed);
+        return TECHNIQUES[hardest].difficulty;
+    }
+
+    /**
+     * Copy the current cells into an array
+     * @param out the array of 81 cells to write into
+     */
+    void getCells(int[] out) {
+        System.arraycopy(cells, 0, out, 0, 81);
+    }
+    // ===== END RESULT METHODS =====
+
+
+    // ===== CANDIDATE METHODS =====
+    /**
+     * Fill a cell and remove its digit from the candidates of every peer
+     * @param pos the position of the cell
+     * @param digit the digit to place
+     */
+    void place(int pos, int digit) {
+        cells[pos] = digit;
+        candidates[pos] = 0;
+        unsolvedCount--;
+        int bit = ConstraintState.bit(digit);
+        for (int peer : PEERS[pos]) {
+            if ((candidates[peer] & bit) == 0) continue;
+            candidates[peer] &= ~bit;
+            if (candidates[peer] == 0) contradiction = true;
+        }
+    }
+
+    /**
+     * Remove candidates from an unsolved cell
+     * @param pos the position of the cell
+     * @param mask the digits to remove
+     * @return whether any candidate was removed
+     */
+    boolean eliminate(int pos, int mask) {
+        if ((candidates[pos] & mask) == 0) return false;
+        candidates[pos] &= ~mask;
+        if (candidates[pos] == 0) contradiction = true;
+        return true;
+    }
+    // ===== END CANDIDATE METHODS =====
+
+
+    // ===== TECHNIQUE METHODS =====
+    /**
+     * Place a digit in a cell that has only one candidate
+     * @return whether a digit was placed
+     */
+    boolean nakedSingle() {
+        for (int pos = 0; pos < 81; pos++) {
+            if (Integer.bitCount(candidates[pos]) == 1) {
+                place(pos, ConstraintState.lowestDigit(candidates[pos]));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Place a digit that has only one possible cell in some unit
+     * @return whether a digit was placed
+     */
+    boolean hiddenSingle() {
+        int once, twice, mask, exactlyOnce, bit;
+        for (int[] unit : UNIT_CELLS) {
+            once = 0;
+            twice = 0;
+            for (int pos : unit) {
+                mask = candidates[pos];
+                twice |= once & mask;
+                once |= mask;
+            }
+            exactlyOnce = once & ~twice;
+            if (exactlyOnce == 0) continue;
+            bit = Integer.lowestOneBit(exactlyOnce);
+            for (int pos : unit) {
+                if ((candidates[pos] & bit) != 0) {
+                    place(pos, ConstraintState.lowestDigit(bit));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Eliminate a digit from a row or col when all of its subgrid candidates lie in that line
+     * @return whether any candidate was removed
+     */
+    boolean pointing() {
+        int rows, cols, bit, line;
+        boolean changed;
+        for (int box = 0; box < 9; box++) {
+            for (int digit = 1; digit <= 9; digit++) {
+                bit = ConstraintState.bit(digit);
+                rows = 0;
+                cols = 0;
+                for (int pos : UNIT_CELLS[SUBGRID_UNIT + box]) {
+                    if ((candidates[pos] & bit) != 0) {
+                        rows |= 1 << (pos / 9);
+                        cols |= 1 << (pos % 9);
+                    }
+                }
+                if (rows == 0) continue;
+
+                changed = false;
+                if (Integer.bitCount(rows) == 1) {
+                    line = Integer.numberOfTrailingZeros(rows);
+                    for (int pos : UNIT_CELLS[line]) {
+                        if (Sudoku.getSubgridIdx(pos / 9, pos % 9) != box) changed |= eliminate(pos, bit);
+                    }
+                }
+                if (Integer.bitCount(cols) == 1) {
+                    line = Integer.numberOfTrailingZeros(cols);
+                    for (int pos : UNIT_CELLS[COL_UNIT + line]) {
+                        if (Sudoku.getSubgridIdx(pos / 9, pos % 9) != box) changed |= eliminate(pos, bit);
+                    }
+                }
+                if (changed) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Eliminate a digit from a subgrid when all of its candidates in a row or col lie in that subgrid
+     * @return whether any candidate was removed
+     */
+    boolean claiming() {
+        int boxes, bit, box;
+        boolean changed;
+        for (int unit = 0; unit < SUBGRID_UNIT; unit++) {
+            for (int digit = 1; digit <= 9; digit++) {
+                bit = ConstraintState.bit(digit);
+                boxes = 0;
+                for (int pos : UNIT_CELLS[unit]) {
+                    if ((candidates[pos] & bit) != 0) boxes |= 1 << Sudoku.getSubgridIdx(pos / 9, pos % 9);
+                }
+                if (Integer.bitCount(boxes) != 1) continue;
+
+                changed = false;
+                box = Integer.numberOfTrailingZeros(boxes);
+                for (int pos : UNIT_CELLS[SUBGRID_UNIT + box]) {
+                    if (unit < COL_UNIT ? pos / 9 != unit : pos % 9 != unit - COL_UNIT) changed |= eliminate(pos, bit);
+                }
+                if (changed) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find n cells of a unit whose candidates together hold exactly n digits, and remove those digits from the
+     * rest of the unit
+     * @param n the subset size, 2-4
+     * @return whether any candidate was removed
+     */
+    boolean nakedSubset(int n) {
+        int count, size;
+        subsetKind = NAKED;
+        for (int unit = 0; unit < 27; unit++) {
+            count = 0;
+            for (int pos : UNIT_CELLS[unit]) {
+                size = Integer.bitCount(candidates[pos]);
+                if (size >= 2 && size <= n) {
+                    subsetItems[count] = pos;
+                    subsetMasks[count++] = candidates[pos];
+                }
+            }
+            subsetUnit = unit;
+            if (count >= n && searchSubset(count, n, 0, 0, 0, 0)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find n digits of a unit that together fit in exactly n cells, and remove every other digit from those cells
+     * @param n the subset size, 2-4
+     * @return whether any candidate was removed
+     */
+    boolean hiddenSubset(int n) {
+        int count, positions, bit;
+        int[] unitCells;
+        subsetKind = HIDDEN;
+        for (int unit = 0; unit < 27; unit++) {
+            unitCells = UNIT_CELLS[unit];
+            count = 0;
+            for (int digit = 1; digit <= 9; digit++) {
+                bit = ConstraintState.bit(digit);
+                positions = 0;
+                for (int k = 0; k < 9; k++) {
+                    if ((candidates[unitCells[k]] & bit) != 0) positions |= 1 << k;
+                }
+                if (Integer.bitCount(positions) >= 2 && Integer.bitCount(positions) <= n) {
+                    subsetItems[count] = bit;
+                    subsetMasks[count++] = positions;
+                }
+            }
+            subsetUnit = unit;
+            if (count >= n && searchSubset(count, n, 0, 0, 0, 0)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find n rows (or cols) whose candidates for a digit lie in exactly n cols (or rows), and remove the digit from
+     * the rest of those cols (or rows). Size 2 is an X-Wing and size 3 a Swordfish.
+     * @param n the fish size
+     * @return whether any candidate was removed
+     */
+    boolean fish(int n) {
+        int count, positions;
+        for (int digit = 1; digit <= 9; digit++) {
+            subsetDigitBit = ConstraintState.bit(digit);
+            for (int kind = FISH_ROWS; kind <= FISH_COLS; kind++) {
+                subsetKind = kind;
+                count = 0;
+                for (int line = 0; line < 9; line++) {
+                    positions = 0;
+                    for (int k = 0; k < 9; k++) {
+                        if ((candidates[fishCell(kind, line, k)] & subsetDigitBit) != 0) positions |= 1 << k;
+                    }
+                    if (Integer.bitCount(positions) >= 2 && Integer.bitCount(positions) <= n) {
+                        subsetItems[count] = line;
+                        subsetMasks[count++] = positions;
+                    }
+                }
+                if (count >= n && searchSubset(count, n, 0, 0, 0, 0)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Enumerate combinations of n scratch items whose masks union to exactly n bits, applying each until one
+     * removes a candidate
+     * @param count the number of scratch items
+     * @param n the subset size
+     * @param start the first item index to consider
+     * @param depth the number of items chosen so far
+     * @param union the union of the chosen masks
+     * @param chosen the chosen item indices as a bitmask
+     * @return whether an applied subset removed a candidate
+     */
+    boolean searchSubset(int count, int n, int start, int depth, int union, int chosen) {
+        if (depth == n) return Integer.bitCount(union) == n && applySubset(union, chosen);
+        int next;
+        for (int k = start; k <= count - (n - depth); k++) {
+            next = union | subsetMasks[k];
+            if (Integer.bitCount(next) > n) continue;
+            if (searchSubset(count, n, k + 1, depth + 1, next, chosen | (1 << k))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Apply the eliminations of a found subset
+     * @param union the union of the chosen masks
+     * @param chosen the chosen item indices as a bitmask
+     * @return whether any candidate was removed
+     */
+    boolean applySubset(int union, int chosen) {
+        boolean changed = false;
+        int[] unitCells = UNIT_CELLS[subsetUnit];
+        switch (subsetKind) {
+            case NAKED -> {
+                for (int pos : unitCells) {
+                    if (!isChosenItem(pos, chosen)) changed |= eliminate(pos, union);
+                }
+            }
+            case HIDDEN -> {
+                int digits = 0;
+                for (int k = 0; k < 9; k++) {
+                    if ((chosen & (1 << k)) != 0) digits |= subsetItems[k];
+                }
+                for (int k = 0; k < 9; k++) {
+                    if ((union & (1 << k)) != 0) changed |= eliminate(unitCells[k], ~digits & ConstraintState.ALL_DIGITS);
+                }
+            }
+            default -> {
+                for (int line = 0; line < 9; line++) {
+                    if (isChosenItem(line, chosen)) continue;
+                    for (int k = 0; k < 9; k++) {
+                        if ((union & (1 << k)) != 0) changed |= eliminate(fishCell(subsetKind, line, k), subsetDigitBit);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean isChosenItem(int item, int chosen) {
+        for (int k = 0; k < 9; k++) {
+            if ((chosen & (1 << k)) != 0 && subsetItems[k] == item) return true;
+        }
+        return false;
+    }
+
+    private static int fishCell(int kind, int line, int k) {
+        return kind == FISH_ROWS ? line * 9 + k : k * 9 + line;
+    }
+    // ===== END TECHNIQUE METHODS =====
+}
@@ -0,0 +1,188 @@
+package org.example.sudoku;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reader of move lines, shared by interactive play, scripted headless play and the game server
+ * <p>
+ *     A move is {@code "<row> <col> <digit>"}, 1-indexed and separated by spaces or tabs, with digit 0 to erase.
+ *     Digits from 10 can also be given as the letter {@link BoardSize#symbol} shows for them on larger boards.
+ *     {@code "undo"}, {@code "redo"}, {@code "board"}, {@code "check"}, {@code "new"} and {@code "quit"} are commands,
+ *     and blank lines and lines starting with {@code '#'} are skipped. Lines are parsed byte by byte straight out of
+ *     one reused buffer, without regular expressions, splitting or any per-line allocation, and a malformed line is
+ *     reported as {@link #INVALID} instead of throwing. Keep one reader per stream, so input buffered ahead of the
+ *     current line is never lost.
+ * </p>
+ */
+final class MoveReader {
+    // Constants
+    final static int BUFFER_SIZE = 1 << 16;
+    final static int MAX_NUMBER = 1_000_000;
+
+    // Line kinds
+    final static int END = -1;
+    final static int MOVE = 0;
+    final static int UNDO = 1;
+    final static int REDO = 2;
+    final static int SKIP = 3;
+    final static int INVALID = 4;
+    final static int BOARD = 5;
+    final static int CHECK = 6;
+    final static int NEW = 7;
+    final static int QUIT = 8;
+
+    // Commands and their line kinds
+    final static byte[][] COMMANDS = {command("undo"), command("redo"), command("board"), command("check"),
+            command("new"), command("quit")};
+    final static int[] COMMAND_KINDS = {UNDO, REDO, BOARD, CHECK, NEW, QUIT};
+    final static int MAX_COMMAND_LENGTH = 8;
+
+    // Input
+    final InputStream in;
+    final byte[] buffer;
+    final byte[] word = new byte[MAX_COMMAND_LENGTH];
+    int position;
+    int limit;
+
+    // Last line
+    int lineNumber;
+    int row; // 0-indexed
+    int col; // 0-indexed
+    int digit;
+
+    /**
+     * Constructor for a reader of a stream
+     * @param in the stream to read moves from
+     */
+    MoveReader(InputStream in) {
+        this(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor for a reader of a stream with a given buffer size, smaller for the many short-lived readers of a server
+     * @param in the stream to read moves from
+     * @param bufferSize the size of the read buffer
+     */
+    MoveReader(InputStream in, int bufferSize) {
+        assert(bufferSize > 0) : "Buffer size must be positive";
+        this.in = in;
+        buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Read and parse the next line
+     * <p>
+     *     For a move, {@link #row}, {@link #col} and {@link #digit} hold its values. Their range is left to the caller,
+     *     which knows the board size.
+     * </p>
+     * @return the kind of the line, {@link #END} at the end of the stream
+     */
+    int next() throws IOException {
+        int b = read();
+        if (b < 0) return END;
+        lineNumber++;
+        b = skipBlanks(b);
+        if (b == '\n' || b < 0) return SKIP;
+        if (b == '#') return skipLine(b, SKIP);
+
+        if (b >= 'a' && b <= 'z') {
+            int length = 0;
+            while (b >= 'a' && b <= 'z') {
+                if (length == MAX_COMMAND_LENGTH) return skipLine(b, INVALID);
+                word[length++] = (byte) b;
+                b = read();
+            }
+            for (int c = 0; c < COMMANDS.length; c++) {
+                if (Arrays.equals(word, 0, length, COMMANDS[c], 0, COMMANDS[c].length)) {
+                    return endOfLine(b, COMMAND_KINDS[c]);
+                }
+            }
+            return skipLine(b, INVALID);
+        }
+
+        int count = 0;
+        int value;
+        while (count < 3) {
+            if (count == 2 && (value = BoardSize.digitOf(b)) >= 10) {
+                b = read();
+            } else {
+                if (b < '0' || b > '9') return skipLine(b, INVALID);
+                value = 0;
+                while (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    if (value > MAX_NUMBER) return skipLine(b, INVALID);
+                    b = read();
+                }
+            }
+            switch (count++) {
+                case 0 -> row = value - 1;
+                case 1 -> col = value - 1;
+                default -> digit = value;
+            }
+            if (count < 3) {
+                if (b != ' ' && b != '\t') return skipLine(b, INVALID);
+                b = skipBlanks(b);
+            }
+        }
+        return endOfLine(b, MOVE);
+    }
+
+    /**
+     * Check whether input is buffered past the current line, so a reply can wait for the next one
+     * @return whether the next line can be read without blocking on the stream
+     */
+    boolean hasBuffered() {
+        return position < limit;
+    }
+
+    /**
+     * Check that only blanks remain on the line
+     * @param b the byte after the parsed content
+     * @param kind the kind of the line if nothing else follows
+     * @return the kind, or {@link #INVALID} if other content follows
+     */
+    private int endOfLine(int b, int kind) throws IOException {
+        b = skipBlanks(b);
+        if (b == '\n' || b < 0) return kind;
+        return skipLine(b, INVALID);
+    }
+
+    /**
+     * Skip the rest of the line
+     * @param b the current byte
+     * @param kind the kind to return
+     * @return the kind
+     */
+    private int skipLine(int b, int kind) throws IOException {
+        while (b != '\n' && b >= 0) b = read();
+        return kind;
+    }
+
+    private int skipBlanks(int b) throws IOException {
+        while (b == ' ' || b == '\t' || b == '\r') b = read();
+        return b;
+    }
+
+    /**
+     * Read one byte, refilling the buffer when it runs out
+     * @return the byte as 0 to 255, or -1 at the end of the stream
+     */
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private static byte[] command(String name) {
+        return name.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.sudoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fork-join solver for single hard puzzles of any supported size
+ * <p>
+ *     The search always branches on the blank cell with the fewest candidates. The first {@code splitDepth} branching
+ *     cells of every path fork one task per candidate digit, each with its own copy of the board and constraints,
+ *     so idle workers steal whole subtrees; below that depth every task searches sequentially in place. Forced cells
+ *     with a single candidate never split. All tasks share one solution count and stop as soon as it reaches the
+ *     limit, so the first solution found anywhere ends a {@code limit} 1 solve. Unlike the other solvers, a single
+ *     instance may be shared between threads, although {@link #getNodeCount} then reports whichever solve finished
+ *     last.
+ * </p>
+ */
+public final class ParallelSolver implements Solver {
+    // Constants
+    final static int DEFAULT_SPLIT_DEPTH = 6;
+
+    // Configuration
+    final ForkJoinPool pool;
+    final int splitDepth;
+
+    // Statistics of the last solve
+    volatile long nodeCount;
+
+    // ===== CONSTRUCTORS =====
+    /**
+     * Constructor for a solver on the common pool, splitting at the default depth
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Constructor for a solver on a given pool
+     * @param pool the pool to run search tasks on
+     * @param splitDepth the number of branching cells on each path that fork tasks, 0 for a sequential search
+     */
+    public ParallelSolver(ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 0) throw new IllegalArgumentException("Split depth must not be negative");
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+    // ===== END CONSTRUCTORS =====
+
+
+    // ===== SOLVER METHODS =====
+    @Override
+    public int countSolutions(int[] cells, int limit, int[] solution) {
+        assert(cells.length == 81) : "Incompatible grid dimensions";
+        assert(solution == null || solution.length == 81) : "Incompatible solution dimensions";
+        Board board = new Board();
+        for (int pos = 0; pos < 81; pos++) {
+            assert(0 <= cells[pos] && cells[pos] <= 9) : "Digits must be between 0 and 9";
+            board.cells[pos] = (byte) cells[pos];
+        }
+        byte[] solved = solution == null ? null : new byte[81];
+        int count = countSolutions(board, limit, solved);
+        if (count > 0 && solution != null) {
+            for (int pos = 0; pos < 81; pos++) solution[pos] = solved[pos];
+        }
+        return count;
+    }
+
+    /**
+     * Count the solutions of a board of any size, stopping once a limit is reached
+     * @param board the puzzle, left unmodified
+     * @param limit the maximum number of solutions to count
+     * @param solution array of one byte per cell to write the first solution found into, or null to skip recording it
+     * @return the number of solutions found, at most {@code limit}
+     */
+    public int countSolutions(Board board, int limit, byte[] solution) {
+        assert(limit > 0) : "Limit must be positive";
+        assert(solution == null || solution.length == board.cellCount) : "Incompatible solution dimensions";
+        BoardSize dims = board.dims;
+        ConstraintState constraints = new ConstraintState(dims);
+        int digit, i, j;
+        for (int pos = 0; pos < dims.cells; pos++) {
+            digit = board.get(pos);
+            if (digit == 0) continue;
+            i = pos / dims.size;
+            j = pos % dims.size;
+            if (!constraints.isAllowed(digit, i, j)) {
+                nodeCount = 0;
+                return 0;
+            }
+            constraints.place(digit, i, j);
+        }
+
+        Search search = new Search(limit, solution);
+        pool.invoke(new SearchTask(search, board.copy(), constraints, 0));
+        nodeCount = search.nodes.sum();
+        return search.found.get();
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+    // ===== END SOLVER METHODS =====
+
+
+    /**
+     * State shared by every task of one solve
+     */
+    final class Search {
+        final int limit;
+        final byte[] solution;
+        final AtomicInteger found = new AtomicInteger();
+        final LongAdder nodes = new LongAdder();
+
+        Search(int limit, byte[] solution) {
+            this.limit = limit;
+            this.solution = solution;
+        }
+
+        /**
+         * Check whether enough solutions have been counted
+         * @return whether every task should stop searching
+         */
+        boolean stopped() {
+            return found.get() >= limit;
+        }
+
+        /**
+         * Count a solved board, recording it if it is the first
+         * @param board the solved board
+         */
+        void solved(Board board) {
+            int previous = found.getAndUpdate(n -> n < limit ? n + 1 : n);
+            if (previous == 0 && solution != null) System.arraycopy(board.cells, 0, solution, 0, solution.length);
+        }
+    }
+
+    /**
+     * Search of one subtree, owning its board and constraints
+     */
+    final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // never serialized, the task only lives inside one fork-join search
+        final transient Search search;
+        final transient Board board;
+        final transient ConstraintState constraints;
+        final int depth;
+        long nodes;
+
+        SearchTask(Search search, Board board, ConstraintState constraints, int depth) {
+            this.search = search;
+            this.board = board;
+            this.constraints = constraints;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            search(depth);
+            search.nodes.add(nodes);
+        }
+
+        /**
+         * Fill the remaining blank cells, forking the branches of cells above the split depth
+         * @param depth the number of branching cells on the path so far
+         */
+        void search(int depth) {
+            if (search.stopped()) return;
+            nodes++;
+            int size = board.size;
+            int best = -1;
+            int bestCount = size + 1;
+            int count;
+            for (int pos = 0; pos < board.cellCount && bestCount > 1; pos++) {
+                if (board.cells[pos] != 0) continue;
+                count = Long.bitCount(constraints.candidates(pos / size, pos % size));
+                if (count == 0) return;
+                if (count < bestCount) {
+                    best = pos;
+                    bestCount = count;
+                }
+            }
+            if (best < 0) {
+                search.solved(board);
+                return;
+            }
+
+            int i = best / size;
+            int j = best % size;
+            long candidates = constraints.candidates(i, j);
+            int digit;
+            if (bestCount > 1 && depth < splitDepth) {
+                List<SearchTask> branches = new ArrayList<>(bestCount);
+                Board child;
+                ConstraintState childConstraints;
+                for (; candidates != 0; candidates &= candidates - 1) {
+                    digit = ConstraintState.lowestDigit(candidates);
+                    child = board.copy();
+                    child.set(i, j, digit);
+                    childConstraints = new ConstraintState(board.dims);
+                    childConstraints.copyFrom(constraints);
+                    childConstraints.place(digit, i, j);
+                    branches.add(new SearchTask(search, child, childConstraints, depth + 1));
+                }
+                invokeAll(branches);
+                return;
+            }
+
+            int next = bestCount > 1 ? depth + 1 : depth;
+            for (; candidates != 0 && !search.stopped(); candidates &= candidates - 1) {
+                digit = ConstraintState.lowestDigit(candidates);
+                board.set(i, j, digit);
+                constraints.place(digit, i, j);
+                search(next);
+                constraints.remove(digit, i, j);
+            }
+            board.set(i, j, 0);
+        }
+    }
+}
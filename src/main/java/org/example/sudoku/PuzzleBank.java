@@ -0,0 +1,198 @@
+package org.example.sudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * Memory-mapped bank of pre-generated puzzles, indexed by difficulty and clue count
+ * <p>
+ *     The file starts with a header of big-endian ints: the magic {@code "SDKB"}, the format version, the entry count
+ *     and the first entry index of every bucket plus one end marker, where bucket {@code difficulty * 82 + clues}
+ *     holds the puzzles of one grade and clue count. Fixed-width entries of 81 bytes follow, one digit per cell in
+ *     row-major order with 0 for blank, sorted by bucket. Picking a random puzzle of a grade or clue range is one
+ *     index lookup, and loading it copies 81 bytes out of the mapping without any parsing.
+ * </p>
+ * <p>
+ *     Banks are built offline by {@link #build(Path, Path)} from a file of puzzle lines, keeping only puzzles with a
+ *     unique solution.
+ * </p>
+ */
+final class PuzzleBank {
+    // Constants
+    final static int MAGIC = 0x53444B42; // "SDKB"
+    final static int VERSION = 1;
+    final static Difficulty[] DIFFICULTIES = Difficulty.values();
+    final static int CLUE_BUCKETS = PuzzleFormat.CELLS + 1;
+    final static int BUCKETS = DIFFICULTIES.length * CLUE_BUCKETS;
+    final static int HEADER_SIZE = 3 * Integer.BYTES + (BUCKETS + 1) * Integer.BYTES;
+    final static int ENTRY_SIZE = PuzzleFormat.CELLS;
+
+    // Mapped data
+    final ByteBuffer entries;
+    final int[] starts;
+
+    private PuzzleBank(ByteBuffer entries, int[] starts) {
+        this.entries = entries;
+        this.starts = starts;
+    }
+
+    // ===== LOOKUP METHODS =====
+    /**
+     * Map a bank file into memory
+     * @param path the path of the bank file
+     * @return the opened bank
+     */
+    static PuzzleBank open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a puzzle bank: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("Not a puzzle bank: " + path);
+            }
+            int count = mapped.getInt(8);
+            int[] starts = new int[BUCKETS + 1];
+            for (int b = 0; b <= BUCKETS; b++) starts[b] = mapped.getInt(12 + b * Integer.BYTES);
+            if (starts[BUCKETS] != count || channel.size() != HEADER_SIZE + (long) count * ENTRY_SIZE) {
+                throw new IOException("Corrupt puzzle bank: " + path);
+            }
+            return new PuzzleBank(mapped.slice(HEADER_SIZE, count * ENTRY_SIZE), starts);
+        }
+    }
+
+    /**
+     * Get the number of puzzles in the bank
+     * @return the entry count
+     */
+    int size() {
+        return starts[BUCKETS];
+    }
+
+    /**
+     * Get the number of puzzles of a grade
+     * @param difficulty the grade
+     * @return the number of entries with that grade
+     */
+    int count(Difficulty difficulty) {
+        return count(difficulty, 0, PuzzleFormat.CELLS);
+    }
+
+    /**
+     * Get the number of puzzles of a grade within a clue range
+     * @param difficulty the grade
+     * @param minClues the least number of clues, inclusive
+     * @param maxClues the most number of clues, inclusive
+     * @return the number of matching entries
+     */
+    int count(Difficulty difficulty, int minClues, int maxClues) {
+        assert(0 <= minClues && minClues <= maxClues && maxClues <= PuzzleFormat.CELLS) : "Clue range out of bounds";
+        int base = difficulty.ordinal() * CLUE_BUCKETS;
+        return starts[base + maxClues + 1] - starts[base + minClues];
+    }
+
+    /**
+     * Pick a random puzzle of a grade
+     * @param difficulty the grade
+     * @param rand the random source
+     * @return the entry index, or -1 if the bank has no puzzle of that grade
+     */
+    int randomEntry(Difficulty difficulty, RandomGenerator rand) {
+        return randomEntry(difficulty, 0, PuzzleFormat.CELLS, rand);
+    }
+
+    /**
+     * Pick a random puzzle of a grade within a clue range
+     * @param difficulty the grade
+     * @param minClues the least number of clues, inclusive
+     * @param maxClues the most number of clues, inclusive
+     * @param rand the random source
+     * @return the entry index, or -1 if the bank has no matching puzzle
+     */
+    int randomEntry(Difficulty difficulty, int minClues, int maxClues, RandomGenerator rand) {
+        int count = count(difficulty, minClues, maxClues);
+        if (count == 0) return -1;
+        return starts[difficulty.ordinal() * CLUE_BUCKETS + minClues] + rand.nextInt(count);
+    }
+
+    /**
+     * Load a puzzle of the bank into a game
+     * @param entry the entry index
+     * @param game the game to replace the board of
+     */
+    void load(int entry, Sudoku game) {
+        assert(0 <= entry && entry < size()) : "Entry out of bounds";
+        assert(game.dims == BoardSize.NINE) : "Banked puzzles are 9x9";
+        game.loadPuzzle(entries, entry * ENTRY_SIZE);
+    }
+    // ===== END LOOKUP METHODS =====
+
+
+    // ===== BUILD METHODS =====
+    /**
+     * Grade every puzzle line of a file and write the unique ones into a bank file
+     * @param in the path of the puzzle file
+     * @param out the path of the bank file, replaced if it exists
+     * @return the number of puzzles written
+     */
+    static int build(Path in, Path out) throws IOException {
+        ByteArrayOutputStream[] buckets = new ByteArrayOutputStream[BUCKETS];
+        Solver solver = new DancingLinksSolver();
+        LogicalSolver grader = new LogicalSolver();
+        int[] cells = new int[PuzzleFormat.CELLS];
+        byte[] entry = new byte[ENTRY_SIZE];
+
+        try (FileChannel channel = FileChannel.open(in, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Puzzle file too large: " + in);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] line = new byte[PuzzleFormat.LINE_LENGTH + 1];
+            int start = 0;
+            int end, length, clues, bucket;
+            while (start < mapped.limit()) {
+                end = start;
+                while (end < mapped.limit() && mapped.get(end) != '\n') end++;
+                length = end - start;
+                if (length <= line.length) {
+                    mapped.get(start, line, 0, length);
+                    if (PuzzleFormat.parseLine(line, 0, length, cells) && solver.countSolutions(cells, 2) == 1) {
+                        clues = 0;
+                        for (int pos = 0; pos < PuzzleFormat.CELLS; pos++) {
+                            entry[pos] = (byte) cells[pos];
+                            if (cells[pos] != 0) clues++;
+                        }
+                        bucket = grader.grade(cells).ordinal() * CLUE_BUCKETS + clues;
+                        if (buckets[bucket] == null) buckets[bucket] = new ByteArrayOutputStream();
+                        buckets[bucket].write(entry);
+                    }
+                }
+                start = end + 1;
+            }
+        }
+
+        int count = 0;
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out)))) {
+            int total = 0;
+            for (ByteArrayOutputStream bucket : buckets) if (bucket != null) total += bucket.size() / ENTRY_SIZE;
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeInt(total);
+            for (ByteArrayOutputStream bucket : buckets) {
+                stream.writeInt(count);
+                if (bucket != null) count += bucket.size() / ENTRY_SIZE;
+            }
+            stream.writeInt(count);
+            for (ByteArrayOutputStream bucket : buckets) if (bucket != null) bucket.writeTo(stream);
+        }
+        return count;
+    }
+    // ===== END BUILD METHODS =====
+}
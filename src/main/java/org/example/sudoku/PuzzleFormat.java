@@ -0,0 +1,82 @@
+package org.example.sudoku;
+
+/**
+ * Encoding of puzzles in the standard 81-character line format
+ * <p>
+ *     A line holds the cells in row-major order as ASCII digits, with '0' for a blank cell, followed by a newline.
+ *     When parsing, '.' is also accepted as a blank and a trailing carriage return is ignored. Methods work on
+ *     caller-provided byte buffers so bulk readers and writers do not allocate per puzzle.
+ * </p>
+ */
+final class PuzzleFormat {
+    // Constants
+    final static int CELLS = 81;
+    final static int LINE_LENGTH = CELLS + 1;
+
+    private PuzzleFormat() {}
+
+    /**
+     * Write the board of a game as one line
+     * @param game the game to write
+     * @param out the buffer to write into
+     * @param offset the position of the first character
+     * @return the position after the written newline
+     */
+    static int writeLine(Sudoku game, byte[] out, int offset) {
+        return writeLine(game.board, out, offset);
+    }
+
+    /**
+     * Write a board as one line
+     * @param board the board to write
+     * @param out the buffer to write into
+     * @param offset the position of the first character
+     * @return the position after the written newline
+     */
+    static int writeLine(Board board, byte[] out, int offset) {
+        assert(board.dims == BoardSize.NINE) : "Only 9x9 boards have a line format";
+        byte[] cells = board.cells;
+        for (int pos = 0; pos < CELLS; pos++) {
+            out[offset++] = (byte) ('0' + cells[pos]);
+        }
+        out[offset++] = '\n';
+        return offset;
+    }
+
+    /**
+     * Write 81 cells as one line
+     * @param cells the cells to write, 0 for blank
+     * @param out the buffer to write into
+     * @param offset the position of the first character
+     * @return the position after the written newline
+     */
+    static int writeLine(int[] cells, byte[] out, int offset) {
+        for (int pos = 0; pos < CELLS; pos++) {
+            out[offset++] = (byte) ('0' + cells[pos]);
+        }
+        out[offset++] = '\n';
+        return offset;
+    }
+
+    /**
+     * Parse one line into 81 cells
+     * @param in the buffer holding the line
+     * @param offset the position of the first character
+     * @param end the position of the terminating newline, or the end of the data
+     * @param cells the array to write the 81 cells into
+     * @return whether the line is a well-formed puzzle
+     */
+    static boolean parseLine(byte[] in, int offset, int end, int[] cells) {
+        if (end > offset && in[end - 1] == '\r') end--;
+        if (end - offset != CELLS) return false;
+
+        byte c;
+        for (int pos = 0; pos < CELLS; pos++) {
+            c = in[offset + pos];
+            if (c == '.') cells[pos] = 0;
+            else if ('0' <= c && c <= '9') cells[pos] = c - '0';
+            else return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.sudoku;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Reusable generator of puzzles of one board size, owning all of its scratch state
+ * <p>
+ *     A generator keeps one scratch game and, on 9x9 boards, one exact-cover solver, and resets them in place for
+ *     every puzzle: the board, constraints and conflict counts are cleared, every subgrid draws a new digit order of
+ *     its own, and the uniqueness checks reuse the solver's matrix. Once warmed up, generating into a caller's board
+ *     allocates nothing, and {@link #generate(boolean)} allocates only the board it returns. A generator is not
+ *     thread-safe, so use one per thread, each with its own random source.
+ * </p>
+ * <p>
+ *     Puzzles can also be generated by ID, the same boards {@link Sudoku#fromId} makes, by reseeding a
+ *     {@link ReseedableRandom} kept for the purpose instead of building a new game and solver for every ID.
+ * </p>
+ */
+public final class PuzzleGenerator {
+    // Dimensions
+    final BoardSize dims;
+
+    // Scratch state, reset for every puzzle
+    final Sudoku scratch;
+    final DancingLinksSolver solver; // null unless the board is 9x9
+
+    // Random sources
+    final RandomGenerator rand;
+    final ReseedableRandom idRandom = new ReseedableRandom();
+
+    /**
+     * Constructor for a 9x9 generator with a random seed
+     */
+    public PuzzleGenerator() {
+        this(BoardSize.NINE, new SplittableRandom());
+    }
+
+    /**
+     * Constructor for a generator of a board size
+     * @param dims the board dimensions
+     * @param rand the random generator, used only by this generator
+     */
+    public PuzzleGenerator(BoardSize dims, RandomGenerator rand) {
+        this.dims = dims;
+        this.rand = rand;
+        scratch = new Sudoku(dims, true, false, rand);
+        solver = dims == BoardSize.NINE ? new DancingLinksSolver() : null;
+    }
+
+    /**
+     * Generate a puzzle into a new board
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     * @return the puzzle, its filled cells marked as clues
+     * @throws IllegalArgumentException if a unique puzzle is requested for a board other than 9x9
+     */
+    public Board generate(boolean unique) {
+        Board out = new Board(dims);
+        generate(unique, out);
+        return out;
+    }
+
+    /**
+     * Generate a puzzle into an existing board, overwriting it
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     * @param out the board to write the puzzle into, of this generator's size
+     * @throws IllegalArgumentException if a unique puzzle is requested for a board other than 9x9
+     */
+    public void generate(boolean unique, Board out) {
+        if (unique && solver == null) throw new IllegalArgumentException("Unique puzzles are only supported on 9x9 boards");
+        assert(out.dims == dims) : "Incompatible board sizes";
+        scratch.clear();
+        scratch.shuffleDigits();
+        scratch.generate(unique, solver);
+        out.copyFrom(scratch.board);
+    }
+
+    /**
+     * Generate the puzzle identified by an ID into a new board
+     * @param id the puzzle ID, see {@link Sudoku#fromId}
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     * @return the puzzle, its filled cells marked as clues
+     * @throws IllegalArgumentException if a unique puzzle is requested for a board other than 9x9
+     */
+    public Board generate(long id, boolean unique) {
+        Board out = new Board(dims);
+        generate(id, unique, out);
+        return out;
+    }
+
+    /**
+     * Generate the puzzle identified by an ID into an existing board, overwriting it
+     * <p>
+     *     On 9x9 boards this is the board of {@code Sudoku.fromId(id, unique)}. The generator's own random source is
+     *     left untouched.
+     * </p>
+     * @param id the puzzle ID, see {@link Sudoku#fromId}
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     * @param out the board to write the puzzle into, of this generator's size
+     * @throws IllegalArgumentException if a unique puzzle is requested for a board other than 9x9
+     */
+    public void generate(long id, boolean unique, Board out) {
+        idRandom.reseed(id);
+        scratch.rand = idRandom;
+        try {
+            generate(unique, out);
+        } finally {
+            scratch.rand = rand;
+        }
+    }
+}
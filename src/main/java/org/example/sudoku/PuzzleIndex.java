@@ -0,0 +1,102 @@
+package org.example.sudoku;
+
+/**
+ * Compact hash set of 64-bit puzzle fingerprints, used to deduplicate puzzles up to symmetry
+ * <p>
+ *     Fingerprints from {@link CanonicalForm#fingerprint} are already well mixed, so they are stored directly in a
+ *     power-of-two {@code long[]} with linear probing, 8 bytes per slot and no boxing. The table doubles once it is
+ *     three quarters full; ten million puzzles take 128 MiB at most. Slot value 0 marks an empty slot, so a zero
+ *     fingerprint is tracked by a separate flag.
+ * </p>
+ */
+final class PuzzleIndex {
+    // Constants
+    final static int MIN_CAPACITY = 16;
+    final static int MAX_CAPACITY = 1 << 30;
+
+    // Table
+    long[] slots;
+    int mask;
+    int size;
+    boolean hasZero;
+
+    /**
+     * Constructor for an index sized for an expected number of puzzles
+     * @param expected the number of puzzles expected to be added
+     */
+    PuzzleIndex(int expected) {
+        assert(expected >= 0) : "Expected size must not be negative";
+        int capacity = MIN_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity * 3L / 4 < expected) capacity <<= 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Add a fingerprint
+     * @param fingerprint the fingerprint to add
+     * @return whether it was absent before
+     */
+    boolean add(long fingerprint) {
+        if (fingerprint == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int idx = slot(fingerprint);
+        long current;
+        while ((current = slots[idx]) != 0) {
+            if (current == fingerprint) return false;
+            idx = (idx + 1) & mask;
+        }
+        slots[idx] = fingerprint;
+        if (++size > slots.length / 4 * 3) grow();
+        return true;
+    }
+
+    /**
+     * Check whether a fingerprint was added
+     * @param fingerprint the fingerprint to find
+     * @return whether it is present
+     */
+    boolean contains(long fingerprint) {
+        if (fingerprint == 0) return hasZero;
+        int idx = slot(fingerprint);
+        long current;
+        while ((current = slots[idx]) != 0) {
+            if (current == fingerprint) return true;
+            idx = (idx + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of distinct fingerprints added
+     * @return the size of the index
+     */
+    int size() {
+        return size;
+    }
+
+    private int slot(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    /**
+     * Double the table and reinsert every fingerprint
+     */
+    private void grow() {
+        if (slots.length >= MAX_CAPACITY) throw new IllegalStateException("Puzzle index is full");
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        int idx;
+        for (long fingerprint : old) {
+            if (fingerprint == 0) continue;
+            idx = slot(fingerprint);
+            while (slots[idx] != 0) idx = (idx + 1) & mask;
+            slots[idx] = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.sudoku;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Random generator drawing the same sequence as a {@link SplittableRandom} created with the same seed, reseedable in
+ * place
+ * <p>
+ *     Generating a puzzle by ID seeds a new {@link SplittableRandom} with the ID, which allocates for every puzzle.
+ *     This generator runs the same SplitMix64 steps on a seed that can be reset, and leaves every bounded draw to the
+ *     {@link RandomGenerator} defaults just as {@link SplittableRandom} does, so a reused instance reproduces
+ *     {@link Sudoku#fromId} without allocating. It cannot be split and is not thread-safe.
+ * </p>
+ */
+final class ReseedableRandom implements RandomGenerator {
+    // Constants
+    final static long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L; // step of an unsplit SplittableRandom
+
+    // State
+    long seed;
+
+    /**
+     * Reset the generator to the start of a seed's sequence
+     * @param seed the seed, as passed to {@link SplittableRandom#SplittableRandom(long)}
+     */
+    void reseed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        long z = seed += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public int nextInt() {
+        long z = seed += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.sudoku;
+
+/**
+ * Scalar {@link BatchValidator}, validating one grid at a time
+ * <p>
+ *     A single pass over the 81 cells ORs the bit of every digit into the mask of its row, col and subgrid, and a
+ *     grid is valid when all 27 masks equal {@link #UNIT_MASK}: nine cells can only cover the nine digit bits if each
+ *     digit appears exactly once.
+ * </p>
+ */
+final class ScalarBatchValidator implements BatchValidator {
+    // Col masks, then subgrid masks, of the current grid
+    final int[] masks = new int[18];
+
+    @Override
+    public int validate(byte[] grids, int offset, int count, long[] valid) {
+        assert(offset >= 0 && count >= 0 && offset + (long) count * CELLS <= grids.length) : "Grids out of bounds";
+        assert(valid.length * 64L >= count) : "Bitset too small";
+        int validCount = 0;
+        for (int n = 0; n < count; n++) {
+            if (isValid(grids, offset + n * CELLS)) {
+                valid[n >>> 6] |= 1L << n;
+                validCount++;
+            } else {
+                valid[n >>> 6] &= ~(1L << n);
+            }
+        }
+        return validCount;
+    }
+
+    /**
+     * Validate one grid
+     * @param grids the packed grids
+     * @param offset the position of the first cell of the grid
+     * @return whether every unit holds each digit exactly once
+     */
+    boolean isValid(byte[] grids, int offset) {
+        int[] masks = this.masks;
+        for (int u = 0; u < 18; u++) masks[u] = 0;
+
+        int row, bit, pos = offset;
+        for (int i = 0; i < 9; i++) {
+            row = 0;
+            for (int j = 0; j < 9; j++) {
+                bit = BatchValidator.bit(grids[pos++]);
+                row |= bit;
+                masks[j] |= bit;
+                masks[9 + i / 3 * 3 + j / 3] |= bit;
+            }
+            if (row != UNIT_MASK) return false;
+        }
+        for (int u = 0; u < 18; u++) {
+            if (masks[u] != UNIT_MASK) return false;
+        }
+        return true;
+    }
+}
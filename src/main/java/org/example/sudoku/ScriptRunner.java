@@ -0,0 +1,106 @@
+package org.example.sudoku;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * Headless player that applies a stream of move lines to a game, for load and regression tests
+ * <p>
+ *     Lines are read through one {@link MoveReader}. Malformed lines and moves outside the board are reported with
+ *     their line number and skipped, so a bad line never aborts the run. Moves on starter clues change nothing and are
+ *     counted as ignored. Undo and redo need a {@link GameJournal}; without one they are reported as bad lines.
+ * </p>
+ */
+final class ScriptRunner {
+    // Game
+    final Sudoku game;
+    final GameJournal journal;
+    final PrintStream errors;
+
+    // Totals
+    long lineCount;
+    long appliedCount;
+    long ignoredCount;
+    long badCount;
+    String lastError; // the report of the last line if it was bad, otherwise null
+
+    /**
+     * Constructor for a runner
+     * @param game the game to play
+     * @param journal the journal to record moves in and to undo and redo with, or null to play without one
+     * @param errors the stream to report bad lines on, or null to only keep the last report
+     */
+    ScriptRunner(Sudoku game, GameJournal journal, PrintStream errors) {
+        assert(journal == null || journal.game == game) : "Journal must belong to the game";
+        this.game = game;
+        this.journal = journal;
+        this.errors = errors;
+    }
+
+    /**
+     * Apply every line of a stream
+     * @param in the stream of move lines
+     * @return the number of moves, undos and redos that changed the board
+     */
+    long run(InputStream in) throws IOException {
+        MoveReader reader = new MoveReader(in);
+        int kind;
+        while ((kind = reader.next()) != MoveReader.END) apply(reader, kind);
+        return appliedCount;
+    }
+
+    /**
+     * Apply one parsed line
+     * @param reader the reader that parsed the line
+     * @param kind the kind of the line
+     */
+    void apply(MoveReader reader, int kind) throws IOException {
+        lineCount++;
+        lastError = null;
+        switch (kind) {
+            case MoveReader.MOVE -> move(reader);
+            case MoveReader.UNDO, MoveReader.REDO -> {
+                if (journal == null) report(reader.lineNumber, "undo and redo need a journal");
+                else count(kind == MoveReader.UNDO ? journal.undo() : journal.redo());
+            }
+            case MoveReader.INVALID -> report(reader.lineNumber,
+                    "expected \"<row> <col> <digit>\", 1-indexed, \"undo\" or \"redo\"");
+            case MoveReader.SKIP -> {
+                // blank line or comment
+            }
+            default -> report(reader.lineNumber, "only the game server takes this command");
+        }
+    }
+
+    /**
+     * Apply a parsed move, checking it against the board size
+     * @param reader the reader holding the move
+     */
+    private void move(MoveReader reader) throws IOException {
+        int size = game.dims.size;
+        if (reader.row < 0 || reader.row >= size || reader.col < 0 || reader.col >= size || reader.digit > size) {
+            report(reader.lineNumber, "move outside the " + game.dims + " board");
+            return;
+        }
+        if (journal != null) {
+            count(journal.enterDigit(reader.digit, reader.row, reader.col));
+        } else {
+            boolean changed = game.board.get(reader.row, reader.col) != reader.digit
+                    && !game.board.isClue(reader.row, reader.col);
+            game.enterDigit(reader.digit, reader.row, reader.col);
+            count(changed);
+        }
+    }
+
+    private void count(boolean applied) {
+        if (applied) appliedCount++;
+        else ignoredCount++;
+    }
+
+    private void report(int lineNumber, String message) {
+        badCount++;
+        lastError = "line " + lineNumber + ": " + message;
+        if (errors != null) errors.println(lastError);
+    }
+}
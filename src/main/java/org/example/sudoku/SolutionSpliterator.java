@@ -0,0 +1,182 @@
+package org.example.sudoku;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazy, splittable enumeration of every completion of a board of any supported size
+ * <p>
+ *     The search runs as an explicit stack of frames, one per cell on the current path, each holding the candidates
+ *     not yet tried. {@link #tryAdvance} resumes the depth-first search until the next completion, so only the path
+ *     is held and never the solutions already seen. {@link #trySplit} hands off the untried candidates of the
+ *     shallowest frame that has any, the largest pending subtree, as a new spliterator rooted at a copy of the board
+ *     above that frame, stepping through forced cells first if needed. Completions are reported as new arrays of one
+ *     int per cell in row-major order.
+ * </p>
+ */
+final class SolutionSpliterator implements Spliterator<int[]> {
+    // Search state
+    final Board board;
+    final ConstraintState constraints;
+    final int[] framePos;
+    final long[] untried;
+    int top; // number of frames on the path
+    boolean descend; // whether the board is consistent and the next blank cell should be entered
+    long estimate = Long.MAX_VALUE; // unknown, halved on every split so streams stop splitting at their threshold
+
+    /**
+     * Constructor for the enumeration of every completion of a board
+     * @param source the board to complete, left unmodified
+     */
+    SolutionSpliterator(Board source) {
+        this(source.copy(), new ConstraintState(source.dims));
+        int digit, i, j;
+        descend = true;
+        for (int pos = 0; pos < board.cellCount; pos++) {
+            digit = board.get(pos);
+            if (digit == 0) continue;
+            i = pos / board.size;
+            j = pos % board.size;
+            if (!constraints.isAllowed(digit, i, j)) {
+                descend = false;
+                return;
+            }
+            constraints.place(digit, i, j);
+        }
+    }
+
+    private SolutionSpliterator(Board board, ConstraintState constraints) {
+        this.board = board;
+        this.constraints = constraints;
+        framePos = new int[board.cellCount];
+        untried = new long[board.cellCount];
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> action) {
+        int size = board.size;
+        int f, pos, digit;
+        while (true) {
+            if (descend) {
+                descend = false;
+                pos = mostConstrained();
+                if (pos == board.cellCount) {
+                    int[] solution = new int[board.cellCount];
+                    for (int p = 0; p < solution.length; p++) solution[p] = board.cells[p];
+                    action.accept(solution);
+                    return true;
+                }
+                if (pos < 0) continue;
+                framePos[top] = pos;
+                untried[top++] = constraints.candidates(pos / size, pos % size);
+            }
+
+            if (top == 0) return false;
+            f = top - 1;
+            pos = framePos[f];
+            digit = board.get(pos);
+            if (digit != 0) {
+                constraints.remove(digit, pos / size, pos % size);
+                board.cells[pos] = 0;
+            }
+            if (untried[f] == 0) {
+                top--;
+                continue;
+            }
+            digit = ConstraintState.lowestDigit(untried[f]);
+            untried[f] &= untried[f] - 1;
+            constraints.place(digit, pos / size, pos % size);
+            board.cells[pos] = (byte) digit;
+            descend = true;
+        }
+    }
+
+    @Override
+    public Spliterator<int[]> trySplit() {
+        int size = board.size;
+        int f, pos, digit;
+        while (true) {
+            for (f = 0; f < top; f++) {
+                // a frame on the path can hand off all its untried digits, the unplaced top frame has to keep one
+                if (untried[f] != 0 && (board.cells[framePos[f]] != 0 || Long.bitCount(untried[f]) > 1)) break;
+            }
+            if (f < top) break;
+
+            // nothing to hand off yet, so commit to the only way forward until a cell branches
+            if (descend) {
+                pos = mostConstrained();
+                if (pos < 0 || pos == board.cellCount) return null;
+                descend = false;
+                framePos[top] = pos;
+                untried[top++] = constraints.candidates(pos / size, pos % size);
+                continue;
+            }
+            if (top == 0) return null;
+            f = top - 1;
+            pos = framePos[f];
+            if (board.cells[pos] != 0 || untried[f] == 0) return null;
+            digit = ConstraintState.lowestDigit(untried[f]);
+            untried[f] = 0;
+            constraints.place(digit, pos / size, pos % size);
+            board.cells[pos] = (byte) digit;
+            descend = true;
+        }
+
+        // keep the upper half of the untried digits, hand off the rest
+        long kept = untried[f];
+        for (int k = Long.bitCount(kept) / 2; k > 0; k--) kept &= kept - 1;
+        long handed = untried[f] ^ kept;
+        if (handed == 0) {
+            handed = kept;
+            kept = 0;
+        }
+        untried[f] = kept;
+
+        SolutionSpliterator split = new SolutionSpliterator(board.copy(), new ConstraintState(board.dims));
+        split.constraints.copyFrom(constraints);
+        for (int g = f; g < top; g++) {
+            pos = framePos[g];
+            digit = split.board.get(pos);
+            if (digit == 0) continue;
+            split.constraints.remove(digit, pos / size, pos % size);
+            split.board.cells[pos] = 0;
+        }
+        split.framePos[0] = framePos[f];
+        split.untried[0] = handed;
+        split.top = 1;
+        estimate >>>= 1;
+        split.estimate = estimate;
+        return split;
+    }
+
+    @Override
+    public long estimateSize() {
+        return top == 0 && !descend ? 0 : estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | DISTINCT | IMMUTABLE;
+    }
+
+    /**
+     * Find the blank cell with the fewest candidates
+     * @return the cell position, the cell count if the board is full, or -1 if a blank cell has no candidates
+     */
+    private int mostConstrained() {
+        int size = board.size;
+        int best = board.cellCount;
+        int bestCount = size + 1;
+        int count;
+        for (int pos = 0; pos < board.cellCount && bestCount > 1; pos++) {
+            if (board.cells[pos] != 0) continue;
+            count = Long.bitCount(constraints.candidates(pos / size, pos % size));
+            if (count == 0) return -1;
+            if (count < bestCount) {
+                best = pos;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+}
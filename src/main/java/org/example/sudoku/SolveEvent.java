@@ -0,0 +1,39 @@
+package org.example.sudoku;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one {@link DancingLinksSolver} solve, including the uniqueness checks of generation
+ */
+@Name("org.example.sudoku.Solve")
+@Label("Sudoku Solve")
+@Category("Sudoku")
+@Description("One exact-cover solve, with its search nodes and dead ends")
+@StackTrace(false)
+final class SolveEvent extends Event {
+    // Registered type, checked before allocating an event so solves allocate none unless recording
+    final static EventType TYPE = EventType.getEventType(SolveEvent.class);
+
+    @Label("Givens")
+    int givens;
+
+    @Label("Limit")
+    @Description("Number of solutions after which the search stops")
+    int limit;
+
+    @Label("Solutions")
+    int solutions;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Backtracks")
+    @Description("Branches that ended in a column with no rows left")
+    long backtracks;
+}
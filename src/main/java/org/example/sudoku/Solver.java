@@ -0,0 +1,65 @@
+package org.example.sudoku;
+
+/**
+ * Solver for arbitrary 9x9 sudoku puzzles
+ * <p>
+ *     Puzzles are passed as 81 cells in row-major order, with 0 marking a blank cell. Implementations may keep
+ *     reusable search state, so a single instance should not be shared between threads.
+ * </p>
+ */
+public interface Solver {
+    /**
+     * Count the solutions of a puzzle, stopping once a limit is reached
+     * @param cells the 81 puzzle cells, 0 for blank
+     * @param limit the maximum number of solutions to count
+     * @param solution array of 81 cells to write the first solution into, or null to skip recording it
+     * @return the number of solutions found, at most {@code limit}
+     */
+    int countSolutions(int[] cells, int limit, int[] solution);
+
+    /**
+     * Get the number of search nodes visited by the most recent solve
+     * @return the node count of the last call
+     */
+    long getNodeCount();
+
+    /**
+     * Count the solutions of a puzzle, stopping once a limit is reached
+     * @param cells the 81 puzzle cells, 0 for blank
+     * @param limit the maximum number of solutions to count
+     * @return the number of solutions found, at most {@code limit}
+     */
+    default int countSolutions(int[] cells, int limit) {
+        return countSolutions(cells, limit, null);
+    }
+
+    /**
+     * Solve a puzzle into a caller-provided array
+     * @param cells the 81 puzzle cells, 0 for blank
+     * @param solution array of 81 cells to write the solution into
+     * @return whether the puzzle has a solution
+     */
+    default boolean solve(int[] cells, int[] solution) {
+        return countSolutions(cells, 1, solution) > 0;
+    }
+
+    /**
+     * Solve the current state of a game
+     * @param game the game to solve, left unmodified
+     * @return the 81 solved cells, or null if the game has no solution
+     */
+    default int[] solve(Sudoku game) {
+        int[] solution = new int[81];
+        return solve(game.toCells(), solution) ? solution : null;
+    }
+
+    /**
+     * Count the solutions of the current state of a game
+     * @param game the game to check, left unmodified
+     * @param limit the maximum number of solutions to count
+     * @return the number of solutions found, at most {@code limit}
+     */
+    default int countSolutions(Sudoku game, int limit) {
+        return countSolutions(game.toCells(), limit, null);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.sudoku;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Generator of sparse 9x9 puzzles with a unique solution, either minimal or down to a target clue count
+ * <p>
+ *     One {@link DancingLinksSolver} and one scratch game are built per generator, the solver reused for every
+ *     uniqueness check and the game cleared in place for every pass. A random removal pass ends in a minimal puzzle
+ *     of typically 23 to 26 clues, so lower targets are reached by starting again from a new grid until a pass gets
+ *     there; {@link #attemptCount} shows how many passes that took. A single instance should not be shared between
+ *     threads.
+ * </p>
+ */
+final class SparseGenerator {
+    // Constants
+    final static int MINIMAL = 0;
+    final static int MIN_TARGET = 17; // no 9x9 puzzle with fewer clues has a unique solution
+
+    // Generation state, reset for every attempt
+    final DancingLinksSolver solver = new DancingLinksSolver();
+    final Sudoku scratch;
+    long attemptCount;
+
+    /**
+     * Constructor for a generator drawing from a random source
+     * @param rand the random generator for filling grids and ordering removals
+     */
+    SparseGenerator(RandomGenerator rand) {
+        scratch = new Sudoku(BoardSize.NINE, true, false, rand);
+    }
+
+    /**
+     * Generate a puzzle from which no clue can be removed without losing its unique solution
+     * @return the minimal puzzle, its filled cells marked as clues
+     */
+    Board minimal() {
+        return generate(MINIMAL);
+    }
+
+    /**
+     * Generate a puzzle with exactly a target number of clues and a unique solution
+     * <p>
+     *     Targets well below the typical minimal clue count can take many passes, each a full grid fill and removal.
+     * </p>
+     * @param targetClues the clue count, 17 to 81, or {@link #MINIMAL} for a minimal puzzle
+     * @return the puzzle, its filled cells marked as clues
+     */
+    Board generate(int targetClues) {
+        Board out = new Board();
+        generate(targetClues, out);
+        return out;
+    }
+
+    /**
+     * Generate a puzzle with exactly a target number of clues and a unique solution into an existing board
+     * @param targetClues the clue count, 17 to 81, or {@link #MINIMAL} for a minimal puzzle
+     * @param out the 9x9 board to write the puzzle into, overwriting it
+     */
+    void generate(int targetClues, Board out) {
+        if (targetClues != MINIMAL && (targetClues < MIN_TARGET || targetClues > 81)) {
+            throw new IllegalArgumentException("Target must be between " + MIN_TARGET + " and 81 clues");
+        }
+        do {
+            scratch.clear();
+            scratch.shuffleDigits();
+            attemptCount++;
+        } while (!scratch.generateSparse(targetClues, solver));
+        out.copyFrom(scratch.board);
+    }
+}
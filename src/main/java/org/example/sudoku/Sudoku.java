@@ -1,36 +1,54 @@
 package org.example.sudoku;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Sudoku class to manage a game
+ * <p>
+ *     Games are 9x9 unless another {@link BoardSize} is given, from 4x4 up to 25x25.
+ * </p>
  */
 public class Sudoku {
     // Constants
-    final static List<Integer> DIGITS = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9);
-    final List<List<Integer>> SUBGRID_DIGITS = new ArrayList<>();
-    final static int MIN_REMOVE = 45;
-    final static int MAX_REMOVE = 55;
+    final static int FILL_ATTEMPTS = 4;
+    final static int FILL_BUDGET_PER_CELL = 32; // search nodes per cell before a bounded fill gives up
+
+    // Dimensions
+    final BoardSize dims;
 
     // Grid generation helper structures
-    List<Set<Integer>> generationUsedRowDigits = new ArrayList<>();
-    List<Set<Integer>> generationUsedColDigits = new ArrayList<>();
-    List<Set<Integer>> generationUsedSubgridDigits = new ArrayList<>();
+    final ConstraintState generationConstraints;
+    final int[][] SUBGRID_DIGITS; // independent digit order of every subgrid, reshuffled in place
+    int[] removalCells; // scratch of the uniqueness checks, allocated on first use
+    int[] removalOrder;
+    int[] patternRows; // scratch of the pattern fill, allocated on first use
+    int[] patternCols;
 
     // Grid tracking variables
-    int[][] grid;
-    boolean[][] isStarterClue; // marks all clues that were initialized automatically, should not be modified outside of generation
+    final Board board; // starter clues mark all cells that were initialized automatically, should not be modified outside of generation
+    final ConflictTracker conflicts;
     int blankCount;
+    int fillBudget;
+
+    // Generation phase statistics, reported through a GenerationEvent
+    long nodeCount;
+    long backtrackCount;
+
+    // Candidate tracking
+    final long[] candidates; // digits no peer holds, minus applied eliminations, 0 for filled cells
+    final long[] pencilMarks; // digits noted by the player
+    boolean autoEliminate; // whether entering a digit also clears it from the pencil marks of its peers
+    LogicalSolver hintSolver;
 
     // Random
-    Random rand = new Random();
+    RandomGenerator rand;
 
     // ===== CONSTRUCTORS =====
     /**
@@ -45,25 +63,82 @@ public class Sudoku {
 
     /**
      * Constructor for sudoku class, with optional empty grid
+     * <p>
+     *     Generated puzzles always have a unique solution
+     * </p>
      * @param empty whether the grid should be empty
      */
     public Sudoku(boolean empty) {
-        initDigits();
-        for (int i = 0; i < 9; i++) {
-            generationUsedRowDigits.add(new HashSet<>());
-            generationUsedColDigits.add(new HashSet<>());
-            generationUsedSubgridDigits.add(new HashSet<>());
-        }
-        grid = new int[9][9];
-        isStarterClue = new boolean[9][9];
-        blankCount = 81;
+        this(empty, true);
+    }
 
-        if (!empty) {
-            initDiagonalSubgrids();
-            fillRemaining(0, 0);
-            int removeAmount = rand.nextInt(MIN_REMOVE, MAX_REMOVE);
-            removeRandomCells(removeAmount);
+    /**
+     * Constructor for sudoku class, with optional empty grid and optional uniqueness guarantee
+     * @param empty whether the grid should be empty
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     */
+    public Sudoku(boolean empty, boolean unique) {
+        this(empty, unique, new SplittableRandom());
+    }
+
+    /**
+     * Constructor for sudoku class, drawing every random choice of generation from a given generator
+     * <p>
+     *     The board depends only on the state of the generator, so generators with equal state produce equal boards.
+     *     The generator is kept by the instance and must not be shared between threads.
+     * </p>
+     * @param empty whether the grid should be empty
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     * @param rand the random generator for generation
+     */
+    public Sudoku(boolean empty, boolean unique, RandomGenerator rand) {
+        this(BoardSize.NINE, empty, unique, rand);
+    }
+
+    /**
+     * Constructor for sudoku class of any supported size
+     * <p>
+     *     Boards up to 9x9 are filled by plain backtracking. Larger boards are filled by a bounded search, so even a
+     *     25x25 board is generated in bounded time. Uniqueness can only be guaranteed for 9x9 boards.
+     * </p>
+     * @param dims the board dimensions
+     * @param empty whether the grid should be empty
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     * @param rand the random generator for generation
+     * @throws IllegalArgumentException if a unique puzzle is requested for a board other than 9x9
+     */
+    public Sudoku(BoardSize dims, boolean empty, boolean unique, RandomGenerator rand) {
+        if (unique && !empty && dims != BoardSize.NINE) {
+            throw new IllegalArgumentException("Unique puzzles are only supported on 9x9 boards");
         }
+        this.dims = dims;
+        this.rand = rand;
+        generationConstraints = new ConstraintState(dims);
+        SUBGRID_DIGITS = new int[dims.size][dims.size];
+        board = new Board(dims);
+        conflicts = new ConflictTracker(dims);
+        candidates = new long[dims.cells];
+        pencilMarks = new long[dims.cells];
+        shuffleDigits();
+        blankCount = dims.cells;
+
+        if (!empty) generate(unique, unique ? new DancingLinksSolver() : null);
+        rebuildCandidates();
+    }
+
+    /**
+     * Generate the puzzle identified by a 64-bit ID
+     * <p>
+     *     The same ID always produces the same board, on any thread or process, so puzzles can be stored and shared
+     *     as IDs and generation can be sharded by ID range. {@link PuzzleGenerator#generate(long, boolean, Board)}
+     *     makes the same boards while reusing its state across IDs.
+     * </p>
+     * @param id the puzzle ID, used as the seed of a {@link SplittableRandom}
+     * @param unique whether the puzzle should have a unique solution
+     * @return the generated game
+     */
+    public static Sudoku fromId(long id, boolean unique) {
+        return new Sudoku(false, unique, new SplittableRandom(id));
     }
     // ===== END CONSTRUCTORS =====
 
@@ -73,43 +148,38 @@ public class Sudoku {
      * Clear the grid and associated attributes
      */
     void clear() {
-        grid = new int[9][9];
-        isStarterClue = new boolean[9][9];
-        blankCount = 81;
-        for (int i = 0; i < 9; i++) {
-            generationUsedRowDigits.get(i).clear();
-            generationUsedColDigits.get(i).clear();
-            generationUsedSubgridDigits.get(i).clear();
-        }
+        board.clear();
+        blankCount = dims.cells;
+        generationConstraints.clear();
+        conflicts.clear();
+        Arrays.fill(candidates, dims.allDigits);
+        Arrays.fill(pencilMarks, 0);
     }
 
     /**
      * Print the sudoku grid
+     * <p>
+     *     User digits are drawn in blue and conflicting cells in red. Interactive play should keep a
+     *     {@link TerminalRenderer} instead, which only redraws changed cells.
+     * </p>
      */
-    public void printGrid() { // "\u001b[34m for blue, used for user-input numbers"
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                System.out.print(grid[i][j] != 0 ? grid[i][j] : "_");
-                if (j != 8) System.out.print(" ");
-                if (j == 2 || j == 5) System.out.print("| ");
-            }
-            System.out.println();
-            if (i == 2 || i == 5) System.out.println("------+-------+------");
+    public void printGrid() {
+        try {
+            new TerminalRenderer(System.out).printFrame(this);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
     /**
      * Check if the sudoku is solved
+     * <p>
+     *     Runs in constant time from the blank count and the incrementally tracked conflict count
+     * </p>
      * @return if the sudoku is solved
      */
     public boolean checkFinished() {
-        if (blankCount != 0) return false;
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (!checkCell(i, j)) return false;
-            }
-        }
-        return true;
+        return blankCount == 0 && conflicts.conflictCount == 0;
     }
 
     /**
@@ -119,102 +189,198 @@ public class Sudoku {
      * @return whether the cell is valid
      */
     boolean checkCell(int i, int j) {
-        int digit = grid[i][j];
-        if (digit == 0) return true;
+        return !conflicts.isConflicting(board.get(i, j), i, j);
+    }
 
-        for (int k = 0; k < 9; k++) {
-            if ((grid[i][k] == digit && k != j) || (grid[k][j] == digit && k != i)) return false;
-        }
+    /**
+     * Check if any filled cells share a unit with the same digit
+     * @return whether the board has a conflict
+     */
+    public boolean hasConflict() {
+        return conflicts.conflictCount != 0;
+    }
 
-        int subgridStartI = i / 3 * 3;
-        int subgridStartJ = j / 3 * 3;
-        for (int ii = subgridStartI; ii < subgridStartI + 3; ii++) {
-            for (int jj = subgridStartJ; jj < subgridStartJ + 3; jj++) {
-                if ((ii != i || jj != j) && grid[ii][jj] == digit) return false;
-            }
-        }
-        return true;
+    /**
+     * Collect every cell that shares a unit with the same digit
+     * @return a bitset over the cell positions, in row-major order
+     */
+    long[] getConflictingCells() {
+        long[] cells = new long[(dims.cells + 63) / 64];
+        conflicts.markConflictingCells(board, cells);
+        return cells;
+    }
+
+    /**
+     * Flatten the grid into its cells in row-major order
+     * @return the cells of the grid, 0 for blank
+     */
+    int[] toCells() {
+        int[] cells = new int[dims.cells];
+        board.toCells(cells);
+        return cells;
+    }
+
+    /**
+     * Enumerate every completion of the current grid, lazily
+     * <p>
+     *     Completions are searched only as the stream is consumed, so {@code limit} and {@code count} never hold more
+     *     than one of them, and a parallel stream splits the search tree by branching choices across the common pool.
+     *     Completions come in no defined order.
+     * </p>
+     * @return a stream of completions, each a new array of cells in row-major order; empty if the grid has a conflict
+     */
+    public Stream<int[]> solutions() {
+        return StreamSupport.stream(new SolutionSpliterator(board), false);
     }
     // ===== END GENERAL METHODS
 
 
     // ===== GENERATION METHODS =====
     /**
-     * Initialize digits for each 3x3 subgrid for randomness
+     * Draw a new random digit order for each subgrid
      * <p>
-     *     Assign a random order of digits to each 3x3 subgrid to randomize grid generation
+     *     Every subgrid gets its own shuffle of all the board's digits, written in place into this game's own
+     *     arrays, so boards can be constructed from several threads at once and reshuffled without allocating.
      * </p>
      */
-    private void initDigits() {
-        for (int i = 0; i < 9; i++) {
-            Collections.shuffle(DIGITS);
-            SUBGRID_DIGITS.add(DIGITS);
+    void shuffleDigits() {
+        int[] order;
+        for (int s = 0; s < dims.size; s++) {
+            order = SUBGRID_DIGITS[s];
+            for (int k = 0; k < dims.size; k++) order[k] = k + 1;
+            shuffle(order, 0, dims.size);
         }
     }
 
     /**
-     * Set the grid attribute to a given 9x9 grid
+     * Generate a puzzle on this empty board, filling the grid and removing a random number of cells
+     * @param unique whether cells should only be removed while the puzzle keeps a unique solution
+     * @param solver the solver for the uniqueness checks, only used if {@code unique} is set
+     */
+    void generate(boolean unique, DancingLinksSolver solver) {
+        long start = System.nanoTime();
+        fill();
+        int removeAmount = rand.nextInt(dims.minRemove, dims.maxRemove);
+        GenerationEvent event = beginPhase();
+        if (unique) removeCellsKeepingUnique(removeAmount, solver);
+        else removeRandomCells(removeAmount);
+        endPhase(event, GenerationEvent.REMOVAL);
+        SudokuMetrics.INSTANCE.recordGeneration(System.nanoTime() - start);
+    }
+
+    /**
+     * Set the board to a given grid of the board's size
      * <p>
      *     Note that this should be used with a valid sudoku grid.
      * </p>
      * @param grid the grid to set
      */
     void setGrid(int[][] grid) {
-        assert(grid.length == 9 && grid[0].length == 9) : "Incompatible grid dimensions";
+        assert(grid.length == dims.size && grid[0].length == dims.size) : "Incompatible grid dimensions";
 
         clear();
 
         int digit;
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
+        for (int i = 0; i < dims.size; i++) {
+            for (int j = 0; j < dims.size; j++) {
                 digit = grid[i][j];
                 if (digit != 0) {
-                    this.grid[i][j] = digit;
-                    generationUsedRowDigits.get(i).add(digit);
-                    generationUsedColDigits.get(j).add(digit);
-                    generationUsedSubgridDigits.get(getSubgridIdx(i, j)).add(digit);
+                    board.set(i, j, digit);
+                    generationConstraints.place(digit, i, j);
+                    conflicts.place(digit, i, j);
+                    eliminateFromPeers(digit, i, j);
 
-                    isStarterClue[i][j] = true;
+                    board.setClue(i, j, true);
                     blankCount--;
                 }
             }
         }
     }
 
+    /**
+     * Set the board to a puzzle stored as one byte per cell, such as an entry of a {@link PuzzleBank}
+     * <p>
+     *     Cells are read with absolute gets, so the position of the source buffer is left untouched.
+     * </p>
+     * @param source the buffer holding the cells in row-major order, 0 for blank
+     * @param offset the position of the first cell
+     */
+    void loadPuzzle(ByteBuffer source, int offset) {
+        clear();
+
+        int digit, i, j;
+        for (int pos = 0; pos < dims.cells; pos++) {
+            digit = source.get(offset + pos);
+            if (digit == 0) continue;
+            i = pos / dims.size;
+            j = pos % dims.size;
+            board.set(i, j, digit);
+            generationConstraints.place(digit, i, j);
+            conflicts.place(digit, i, j);
+            eliminateFromPeers(digit, i, j);
+
+            board.setClue(i, j, true);
+            blankCount--;
+        }
+    }
+
+    /**
+     * Recompute the blank count, constraints and conflict counts after the board was overwritten directly
+     */
+    void rebuildState() {
+        blankCount = dims.cells;
+        generationConstraints.clear();
+        conflicts.clear();
+
+        int digit, i, j;
+        for (int pos = 0; pos < dims.cells; pos++) {
+            digit = board.get(pos);
+            if (digit == 0) continue;
+            i = pos / dims.size;
+            j = pos % dims.size;
+            generationConstraints.place(digit, i, j);
+            conflicts.place(digit, i, j);
+            blankCount--;
+        }
+        rebuildCandidates();
+    }
+
     /**
      * Initialize the sudoku grid
      * <p>
      *     First randomly initialize the diagonal sub-grids, then use a backtracking approach to fill in
-     *     the remaining sub-grids. Use HashSets to optimize checking for correctness.
+     *     the remaining sub-grids. Use bitmasks to optimize checking for correctness.
      * </p>
      */
     void initDiagonalSubgrids() {
-        for (int i = 0; i < 9; i += 3) {
+        for (int i = 0; i < dims.size; i += dims.box) {
             fillSubgridWithoutRestrictions(i, i);
         }
     }
 
     /**
      * Fill a given subgrid without any digit restrictions
-     * @param startI the top row index of the 3x3 subgrid
-     * @param startJ the left col index of the 3x3 subgrid
+     * @param startI the top row index of the subgrid
+     * @param startJ the left col index of the subgrid
      */
     void fillSubgridWithoutRestrictions(int startI, int startJ) {
-        assert(0 <= startI && startI < 9 && 0 <= startJ && startJ < 9) : "Indices must be in-bounds";
-        assert(startI % 3 == 0 && startJ % 3 == 0) : "Subgrid must be aligned to grid";
+        int size = dims.size;
+        int box = dims.box;
+        assert(0 <= startI && startI < size && 0 <= startJ && startJ < size) : "Indices must be in-bounds";
+        assert(startI % box == 0 && startJ % box == 0) : "Subgrid must be aligned to grid";
         int chosenDigit, subgridIdx;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                subgridIdx = getSubgridIdx(startI + i, startJ + j);
-                chosenDigit = SUBGRID_DIGITS.get(subgridIdx).get(i * 3 + j);
+        for (int i = 0; i < box; i++) {
+            for (int j = 0; j < box; j++) {
+                subgridIdx = dims.subgridIdx(startI + i, startJ + j);
+                chosenDigit = SUBGRID_DIGITS[subgridIdx][i * box + j];
 
-                grid[startI + i][startJ + j] = chosenDigit;
-                generationUsedRowDigits.get(startI + i).add(chosenDigit);
-                generationUsedColDigits.get(startJ + j).add(chosenDigit);
-                generationUsedSubgridDigits.get(subgridIdx).add(chosenDigit);
+                board.set(startI + i, startJ + j, chosenDigit);
+                generationConstraints.place(chosenDigit, startI + i, startJ + j);
+                conflicts.place(chosenDigit, startI + i, startJ + j);
 
-                isStarterClue[startI + i][startJ + j] = true;
+                board.setClue(startI + i, startJ + j, true);
                 blankCount--;
+                nodeCount++;
             }
         }
     }
@@ -230,33 +396,262 @@ public class Sudoku {
      */
     boolean fillRemaining(int i, int j) {
         assert(i >= 0 && j >= 0) : "Indices must be positive";
-        if (i >= 9 || j >= 9) return true;
-
-        int[] nextIdx = getNextIdx(i, j);
-        if (grid[i][j] != 0) return fillRemaining(nextIdx[0], nextIdx[1]);
-
-        int subgridIdx = getSubgridIdx(i, j);
-        for (int digit : SUBGRID_DIGITS.get(subgridIdx)) {
-            if (validateDigitForEmptyCell(digit, i, j)) {
-                grid[i][j] = digit;
-                generationUsedRowDigits.get(i).add(digit);
-                generationUsedColDigits.get(j).add(digit);
-                generationUsedSubgridDigits.get(subgridIdx).add(digit);
-                isStarterClue[i][j] = true;
+        int size = dims.size;
+        if (i >= size || j >= size) return true;
+
+        int nextI = j == size - 1 ? i + 1 : i;
+        int nextJ = j == size - 1 ? 0 : j + 1;
+        if (board.get(i, j) != 0) return fillRemaining(nextI, nextJ);
+
+        int[] order = SUBGRID_DIGITS[dims.subgridIdx(i, j)];
+        int digit;
+        for (int k = 0; k < size; k++) {
+            digit = order[k];
+            if (generationConstraints.isAllowed(digit, i, j)) {
+                board.set(i, j, digit);
+                generationConstraints.place(digit, i, j);
+                conflicts.place(digit, i, j);
+                board.setClue(i, j, true);
                 blankCount--;
+                nodeCount++;
 
-                if (fillRemaining(nextIdx[0], nextIdx[1])) return true;
-                grid[i][j] = 0;
-                generationUsedRowDigits.get(i).remove(digit);
-                generationUsedColDigits.get(j).remove(digit);
-                generationUsedSubgridDigits.get(subgridIdx).remove(digit);
-                isStarterClue[i][j] = false;
+                if (fillRemaining(nextI, nextJ)) return true;
+                board.set(i, j, 0);
+                generationConstraints.remove(digit, i, j);
+                conflicts.remove(digit, i, j);
+                board.setClue(i, j, false);
                 blankCount++;
+                backtrackCount++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fill the whole grid in bounded time, for boards too large for {@link #fillRemaining}
+     * <p>
+     *     After seeding the diagonal subgrids, a few attempts of {@link #fillMostConstrained} each get a budget of
+     *     search nodes. If every attempt runs out, the grid is filled from a shuffled pattern instead, which always
+     *     succeeds.
+     * </p>
+     */
+    void fillBounded() {
+        for (int attempt = 0; attempt < FILL_ATTEMPTS; attempt++) {
+            clear();
+            initDiagonalSubgrids();
+            fillBudget = FILL_BUDGET_PER_CELL * dims.cells;
+            if (fillMostConstrained()) return;
+        }
+        fillFromPattern();
+    }
+
+    /**
+     * Fill all still-empty cells, always branching on the cell with the fewest candidates
+     * <p>
+     *     Candidates come straight from the long masks of the generation constraints. Digits are tried in the order of
+     *     the cell's subgrid starting from a random offset, and every placed digit uses up one node of the fill
+     *     budget.
+     * </p>
+     * @return whether the grid was filled before the budget ran out
+     */
+    boolean fillMostConstrained() {
+        int size = dims.size;
+        int best = -1;
+        int bestCount = size + 1;
+        int count;
+        long candidates;
+        for (int pos = 0; pos < dims.cells && bestCount > 1; pos++) {
+            if (board.get(pos) != 0) continue;
+            count = Long.bitCount(generationConstraints.candidates(pos / size, pos % size));
+            if (count == 0) return false;
+            if (count < bestCount) {
+                best = pos;
+                bestCount = count;
             }
         }
+        if (best < 0) return true;
+
+        int i = best / size;
+        int j = best % size;
+        candidates = generationConstraints.candidates(i, j);
+        int[] order = SUBGRID_DIGITS[dims.subgridIdx(i, j)];
+        int offset = rand.nextInt(size);
+        int digit;
+        for (int k = 0; k < size; k++) {
+            digit = order[(offset + k) % size];
+            if ((candidates & BoardSize.bit(digit)) == 0) continue;
+            if (fillBudget-- <= 0) return false;
+
+            board.set(i, j, digit);
+            generationConstraints.place(digit, i, j);
+            conflicts.place(digit, i, j);
+            board.setClue(i, j, true);
+            blankCount--;
+            nodeCount++;
+
+            if (fillMostConstrained()) return true;
+            board.set(i, j, 0);
+            generationConstraints.remove(digit, i, j);
+            conflicts.remove(digit, i, j);
+            board.setClue(i, j, false);
+            blankCount++;
+            backtrackCount++;
+            if (fillBudget <= 0) return false;
+        }
         return false;
     }
 
+    /**
+     * Fill the grid from the standard pattern solution, shuffled by random digit, row and col permutations
+     * <p>
+     *     The pattern places {@code (box * (r % box) + r / box + c) % size + 1} in row {@code r} and col {@code c}.
+     *     Relabelling digits, permuting rows within a band, bands, cols within a stack and stacks all keep a grid
+     *     valid.
+     * </p>
+     */
+    void fillFromPattern() {
+        clear();
+        int size = dims.size;
+        int box = dims.box;
+        if (patternRows == null) {
+            patternRows = new int[size];
+            patternCols = new int[size];
+        }
+        int[] rows = shuffleLines(patternRows);
+        int[] cols = shuffleLines(patternCols);
+        int[] labels = SUBGRID_DIGITS[0];
+        int r, c, digit;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                r = rows[i];
+                c = cols[j];
+                digit = labels[(box * (r % box) + r / box + c) % size];
+                board.set(i, j, digit);
+                generationConstraints.place(digit, i, j);
+                conflicts.place(digit, i, j);
+                board.setClue(i, j, true);
+                blankCount--;
+            }
+        }
+    }
+
+    /**
+     * Draw a random line order that keeps every band (or stack) together
+     * @param lines array of one entry per line to write the order into
+     * @return the source line of every target line, the given array
+     */
+    private int[] shuffleLines(int[] lines) {
+        int box = dims.box;
+        // shuffle the bands in the last box entries, then expand them from the front, which never overwrites a band
+        // that is still to be read
+        int bands = dims.size - box;
+        for (int b = 0; b < box; b++) lines[bands + b] = b;
+        shuffle(lines, bands, box);
+        int band;
+        for (int b = 0; b < box; b++) {
+            band = lines[bands + b];
+            for (int k = 0; k < box; k++) lines[b * box + k] = band * box + k;
+            shuffle(lines, b * box, box);
+        }
+        return lines;
+    }
+
+    /**
+     * Shuffle a range of an array in place
+     * @param values the array
+     * @param start the first index of the range
+     * @param length the length of the range
+     */
+    private void shuffle(int[] values, int start, int length) {
+        int swap, value;
+        for (int k = length - 1; k > 0; k--) {
+            swap = start + rand.nextInt(k + 1);
+            value = values[swap];
+            values[swap] = values[start + k];
+            values[start + k] = value;
+        }
+    }
+
+    /**
+     * Start timing a generation phase and reset its statistics
+     * @return the started event, or null if no recording enables generation events
+     */
+    private GenerationEvent beginPhase() {
+        nodeCount = 0;
+        backtrackCount = 0;
+        if (!GenerationEvent.TYPE.isEnabled()) return null;
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stop timing a generation phase and commit its event if the flight recorder is recording it
+     * @param event the event of the phase, or null if it was not started
+     * @param phase the name of the phase
+     */
+    private void endPhase(GenerationEvent event, String phase) {
+        if (event == null) return;
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.phase = phase;
+        event.box = dims.box;
+        event.nodes = nodeCount;
+        event.backtracks = backtrackCount;
+        event.commit();
+    }
+
+    /**
+     * Fill the whole empty grid, by plain backtracking up to 9x9 and by a bounded search above
+     */
+    void fill() {
+        GenerationEvent event;
+        if (dims.box <= 3) {
+            boolean filled;
+            while (true) {
+                event = beginPhase();
+                initDiagonalSubgrids();
+                endPhase(event, GenerationEvent.DIAGONAL);
+                event = beginPhase();
+                filled = fillRemaining(0, 0);
+                endPhase(event, GenerationEvent.BACKTRACKING);
+                if (filled) break;
+                // two 4x4 diagonal subgrids do not always complete to a grid, 9x9 ones always do
+                clear();
+                shuffleDigits();
+            }
+        } else {
+            event = beginPhase();
+            fillBounded();
+            endPhase(event, GenerationEvent.BOUNDED);
+        }
+    }
+
+    /**
+     * Generate a sparse puzzle on this empty 9x9 board, removing clues down to a target count
+     * <p>
+     *     Fills the grid, then tries every clue once in a random order. Blanking a clue can only add solutions, so a
+     *     clue that had to stay is still needed at the end, and a full pass leaves a minimal puzzle. The pass stops
+     *     early once the target is reached.
+     * </p>
+     * @param targetClues the clue count to stop at, or 0 to remove clues until the puzzle is minimal
+     * @param solver the solver for the uniqueness checks, reused across puzzles
+     * @return whether the target was reached, always true for a minimal puzzle
+     */
+    boolean generateSparse(int targetClues, DancingLinksSolver solver) {
+        assert(dims == BoardSize.NINE) : "Uniqueness is only checked on 9x9 boards";
+        assert(0 <= targetClues && targetClues <= 81) : "Target must be between 0 and 81 clues";
+        assert(blankCount == 81) : "Perform this action on an empty board";
+        long start = System.nanoTime();
+        fill();
+        GenerationEvent event = beginPhase();
+        int removed = removeCellsKeepingUnique(81 - Math.max(targetClues, 1), solver);
+        endPhase(event, GenerationEvent.REMOVAL);
+        rebuildCandidates();
+        SudokuMetrics.INSTANCE.recordGeneration(System.nanoTime() - start);
+        return targetClues == 0 || 81 - removed <= targetClues;
+    }
+
     /**
      * Check if a digit would be valid in a certain cell.
      * <p>
@@ -269,45 +664,119 @@ public class Sudoku {
      * @return whether a digit in a given cell is valid
      */
     boolean validateDigitForEmptyCell(int digit, int i, int j) {
-        assert(0 <= i && i < 9 && 0 <= j && j < 9) : "Indices must be in-bounds";
-        assert(grid[i][j] == 0) : "Cell must be empty";
-        return !generationUsedRowDigits.get(i).contains(digit) && !generationUsedColDigits.get(j).contains(digit)
-                && !generationUsedSubgridDigits.get(i / 3 * 3 + j / 3).contains(digit);
+        assert(0 <= i && i < dims.size && 0 <= j && j < dims.size) : "Indices must be in-bounds";
+        assert(board.get(i, j) == 0) : "Cell must be empty";
+        return generationConstraints.isAllowed(digit, i, j);
     }
 
     /**
-     * Remove a number of cells between {@code MIN_REMOVE} and {@code MAX_REMOVE}
+     * Remove a number of cells, drawn for generation between the board's minimum and maximum removal
      * <p>
      *     Should only be used in the case that the grid is originally full and everything is already validated,
-     *     otherwise unexpected behavior may occur due to the removal of a digit from a set or the removal of
-     *     an already empty cell
+     *     otherwise unexpected behavior may occur due to the removal of a digit from a mask. Positions are drawn
+     *     uniformly and already emptied cells are redrawn, so the board itself serves as the distinct filter.
      * </p>
      * @param removeAmount the number of cells to remove
      */
     void removeRandomCells(int removeAmount) {
         assert(0 <= removeAmount) : "Amount to remove should be positive";
-        assert(removeAmount < 81) : "Amount to remove exceeds board size";
+        assert(removeAmount < dims.cells) : "Amount to remove exceeds board size";
         assert(blankCount == 0) : "Perform this action on a full board for generation";
-        List<Integer> toRemove = rand.ints(0, 81)
-                .distinct()
-                .limit(removeAmount)
-                .boxed()
-                .toList();
-
-        int i, j, digit;
-        for (int pos : toRemove) {
-            i = pos / 9;
-            j = pos % 9;
-            digit = grid[i][j];
-
-            grid[i][j] = 0;
-            generationUsedRowDigits.get(i).remove(digit);
-            generationUsedColDigits.get(j).remove(digit);
-            generationUsedSubgridDigits.get(getSubgridIdx(i, j)).remove(digit);
-
-            isStarterClue[i][j] = false;
+
+        int pos, i, j, digit;
+        int removed = 0;
+        while (removed < removeAmount) {
+            pos = rand.nextInt(dims.cells);
+            i = pos / dims.size;
+            j = pos % dims.size;
+            digit = board.get(i, j);
+            nodeCount++;
+            if (digit == 0) continue;
+
+            board.set(i, j, 0);
+            generationConstraints.remove(digit, i, j);
+            conflicts.remove(digit, i, j);
+
+            board.setClue(i, j, false);
             blankCount++;
+            removed++;
+        }
+    }
+
+    /**
+     * Remove up to a number of cells while keeping the solution unique
+     * <p>
+     *     Cells are visited in a random order, each clue tentatively blanked and kept blank only if the puzzle still
+     *     has exactly one solution. Fewer cells than requested are removed if every remaining clue is needed for
+     *     uniqueness. Only 9x9 boards are supported.
+     * </p>
+     * @param removeAmount the maximum number of cells to remove
+     * @return the number of cells removed
+     */
+    int removeCellsKeepingUnique(int removeAmount) {
+        return removeCellsKeepingUnique(removeAmount, new DancingLinksSolver());
+    }
+
+    /**
+     * Remove up to a number of cells while keeping the solution unique, with a reusable solver
+     * <p>
+     *     The whole visit order is drawn up front, so the solver can keep every pending clue covered across the
+     *     checks, see {@link DancingLinksSolver#beginRemoval}. Each check then only asks whether some solution puts
+     *     another digit in the blanked cell.
+     * </p>
+     * @param removeAmount the maximum number of cells to remove
+     * @param solver the solver for the uniqueness checks, restored before returning
+     * @return the number of cells removed
+     */
+    int removeCellsKeepingUnique(int removeAmount, DancingLinksSolver solver) {
+        assert(dims == BoardSize.NINE) : "Uniqueness is only checked on 9x9 boards";
+        assert(0 <= removeAmount) : "Amount to remove should be positive";
+        assert(removeAmount < 81) : "Amount to remove exceeds board size";
+        assert(blankCount == 0) : "Perform this action on a full board for generation";
+
+        if (removalCells == null) {
+            removalCells = new int[81];
+            removalOrder = new int[81];
+        }
+        int[] cells = removalCells;
+        int[] order = removalOrder;
+        board.toCells(cells);
+        int pos, swap, i, j, digit;
+        for (pos = 0; pos < 81; pos++) order[pos] = pos;
+        for (int k = 0; k < 80; k++) {
+            swap = k + rand.nextInt(81 - k);
+            pos = order[swap];
+            order[swap] = order[k];
+            order[k] = pos;
         }
+
+        int removed = 0;
+        solver.beginRemoval(cells, order);
+        try {
+            for (int k = 0; k < 81 && removed < removeAmount; k++) {
+                pos = order[k];
+                boolean blanked = solver.removeNext();
+                nodeCount += solver.getNodeCount();
+                if (!blanked) {
+                    backtrackCount++;
+                    continue;
+                }
+
+                i = pos / 9;
+                j = pos % 9;
+                digit = cells[pos];
+                board.set(i, j, 0);
+                generationConstraints.remove(digit, i, j);
+                conflicts.remove(digit, i, j);
+
+                board.setClue(i, j, false);
+                blankCount++;
+                removed++;
+            }
+        } finally {
+            solver.endRemoval();
+        }
+        return removed;
     }
     // ===== END GENERATION METHODS =====
 
@@ -321,33 +790,175 @@ public class Sudoku {
      * @param j the col index of the cell
      */
     void enterDigit(int digit, int i, int j) {
-        assert(0 <= i && i <= 9 && 0 <= j && j <= 9);
-        assert(0 <= digit && digit <= 9);
+        assert(0 <= i && i < dims.size && 0 <= j && j < dims.size);
+        assert(0 <= digit && digit <= dims.size);
 
-        if (grid[i][j] == digit || isStarterClue[i][j]) return;
+        int previous = board.get(i, j);
+        if (previous == digit || board.isClue(i, j)) return;
 
-        if (grid[i][j] == 0) blankCount--;
+        long start = System.nanoTime();
+        if (previous == 0) blankCount--;
         if (digit == 0) blankCount++;
 
-        grid[i][j] = digit;
-    }
+        board.set(i, j, digit);
+        conflicts.remove(previous, i, j);
+        conflicts.place(digit, i, j);
+        updateCandidates(previous, digit, i, j);
 
-    void askForDigit() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.print("Enter an answer in the form \"<row> <col> <digit>\", 1-indexed: ");
-        String input = scanner.nextLine();
-        String[] split = input.strip().split(" ");
-        int i = Integer.parseInt(split[0]) - 1;
-        int j = Integer.parseInt(split[1]) - 1;
-        int digit = Integer.parseInt(split[2]);
-        enterDigit(digit, i, j);
+        boolean solved = checkFinished();
+        SudokuMetrics.INSTANCE.recordMove(System.nanoTime() - start, solved);
     }
     // ===== END MANIPULATION METHODS =====
 
 
+    // ===== CANDIDATE METHODS =====
+    /**
+     * Get the candidates of a cell
+     * <p>
+     *     Candidates are kept up to date by every change to the board, touching only the peers of the changed cell.
+     *     Generation fills and empties cells without them and rebuilds them once at the end.
+     * </p>
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return the mask of digits the cell may still take, 0 for a filled cell
+     */
+    long getCandidates(int i, int j) {
+        return candidates[i * dims.size + j];
+    }
+
+    /**
+     * Get the pencil marks of a cell
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     * @return the mask of digits noted in the cell
+     */
+    long getPencilMarks(int i, int j) {
+        return pencilMarks[i * dims.size + j];
+    }
+
+    /**
+     * Add or remove a pencil mark
+     * @param digit the digit to note or un-note
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     */
+    void togglePencilMark(int digit, int i, int j) {
+        assert(0 <= i && i < dims.size && 0 <= j && j < dims.size);
+        assert(1 <= digit && digit <= dims.size);
+        pencilMarks[i * dims.size + j] ^= BoardSize.bit(digit);
+    }
+
+    /**
+     * Replace every pencil mark with the current candidates
+     */
+    void fillPencilMarks() {
+        System.arraycopy(candidates, 0, pencilMarks, 0, dims.cells);
+    }
+
+    /**
+     * Set whether entering a digit removes it from the pencil marks of the cells it sees
+     * @param autoEliminate whether to eliminate pencil marks automatically
+     */
+    void setAutoEliminate(boolean autoEliminate) {
+        this.autoEliminate = autoEliminate;
+    }
+
+    /**
+     * Update the candidates and pencil marks after a cell changed
+     * <p>
+     *     Entering a digit into a blank cell only clears it from the peers, so eliminations already applied are kept.
+     *     Erasing or replacing a digit recomputes the cell and its blank peers from the unit digit masks, since
+     *     eliminations may have relied on the old digit.
+     * </p>
+     * @param previous the digit the cell held before, 0 for blank
+     * @param digit the digit the cell holds now, 0 for blank
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     */
+    void updateCandidates(int previous, int digit, int i, int j) {
+        int size = dims.size;
+        int pos = i * size + j;
+        long bit = digit == 0 ? 0 : BoardSize.bit(digit);
+        candidates[pos] = digit == 0 ? conflicts.candidates(i, j) : 0;
+        for (int peer : dims.peers[pos]) {
+            if (autoEliminate) pencilMarks[peer] &= ~bit;
+            if (board.get(peer) != 0) continue;
+            if (previous == 0) candidates[peer] &= ~bit;
+            else candidates[peer] = conflicts.candidates(peer / size, peer % size);
+        }
+    }
+
+    /**
+     * Clear a placed digit from the candidates of its cell and peers
+     * @param digit the digit placed
+     * @param i the row index of the cell
+     * @param j the col index of the cell
+     */
+    void eliminateFromPeers(int digit, int i, int j) {
+        int pos = i * dims.size + j;
+        long bit = BoardSize.bit(digit);
+        candidates[pos] = 0;
+        for (int peer : dims.peers[pos]) candidates[peer] &= ~bit;
+    }
+
+    /**
+     * Recompute every candidate from the unit digit masks, dropping applied eliminations
+     */
+    void rebuildCandidates() {
+        int size = dims.size;
+        for (int pos = 0; pos < dims.cells; pos++) {
+            candidates[pos] = board.get(pos) != 0 ? 0 : conflicts.candidates(pos / size, pos % size);
+        }
+    }
+    // ===== END CANDIDATE METHODS =====
+
+
+    // ===== HINT METHODS =====
+    /**
+     * Find the easiest deduction available on the board
+     * <p>
+     *     Runs a single step of a {@link LogicalSolver} on the maintained candidates, so no candidate is recomputed.
+     *     Only 9x9 boards are supported.
+     * </p>
+     * @return the hint, or null if the board is solved, has a conflict, or needs techniques beyond the solver's
+     */
+    public Hint nextHint() {
+        assert(dims == BoardSize.NINE) : "Hints are only available on 9x9 boards";
+        if (blankCount == 0 || hasConflict()) return null;
+        if (hintSolver == null) hintSolver = new LogicalSolver();
+        hintSolver.load(board, candidates);
+        if (!hintSolver.step()) return null;
+
+        for (int pos = 0; pos < 81; pos++) {
+            if (hintSolver.cells[pos] != board.get(pos)) {
+                return new Hint(hintSolver.lastTechnique, pos, hintSolver.cells[pos], null);
+            }
+        }
+        long[] eliminations = new long[81];
+        for (int pos = 0; pos < 81; pos++) eliminations[pos] = candidates[pos] & ~hintSolver.candidates[pos];
+        return new Hint(hintSolver.lastTechnique, -1, 0, eliminations);
+    }
+
+    /**
+     * Apply a hint, entering its digit or removing its eliminated candidates and pencil marks
+     * @param hint the hint to apply
+     */
+    void applyHint(Hint hint) {
+        if (hint.isPlacement()) {
+            enterDigit(hint.digit(), hint.pos() / dims.size, hint.pos() % dims.size);
+            return;
+        }
+        for (int pos = 0; pos < dims.cells; pos++) {
+            candidates[pos] &= ~hint.eliminations()[pos];
+            pencilMarks[pos] &= ~hint.eliminations()[pos];
+        }
+    }
+    // ===== END HINT METHODS =====
+
+
     // ===== STATIC METHODS =====
     /**
-     * Calculate the index of the 3x3 subgrid, in row-major order
+     * Calculate the index of the 3x3 subgrid of a 9x9 board, in row-major order
      * @param i the row index of the single cell
      * @param j the col index of the single cell
      * @return which 3x3 subgrid the cell falls in
@@ -357,7 +968,7 @@ public class Sudoku {
     }
 
     /**
-     * Get the next index pair from a given index pair, following row-major order
+     * Get the next index pair from a given index pair of a 9x9 board, following row-major order
      * @param i the given row index
      * @param j the given col index
      * @return the next index {i', j'}, accounting for wrapping around the grid
@@ -0,0 +1,142 @@
+package org.example.sudoku;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters and latency histograms of generation and play, exposed as a JMX MBean
+ * <p>
+ *     Counters are {@link LongAdder}s and generation and move times each go into a {@link LatencyHistogram} of striped
+ *     buckets, so the many threads of a server or a bulk run update them without contending. Recording is always on
+ *     and costs a few nanoseconds per event; {@link #register} only makes the metrics visible under
+ *     {@value #OBJECT_NAME}, so tail latency can be tracked without a profiler attached.
+ * </p>
+ */
+public final class SudokuMetrics implements SudokuMetricsMBean {
+    // Constants
+    final static String OBJECT_NAME = "org.example.sudoku:type=SudokuMetrics";
+    final static SudokuMetrics INSTANCE = new SudokuMetrics();
+
+    // Metrics
+    final LongAdder completions = new LongAdder();
+    final LatencyHistogram generationLatency = new LatencyHistogram();
+    final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    private SudokuMetrics() {}
+
+    /**
+     * Register the metrics with the platform MBean server, once per process
+     */
+    static synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(INSTANCE, name);
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by another class loader
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Record a generated puzzle
+     * @param nanos the generation time in nanoseconds
+     */
+    void recordGeneration(long nanos) {
+        generationLatency.record(nanos);
+    }
+
+    /**
+     * Record a move that changed a board
+     * @param nanos the time to apply the move and check the board, in nanoseconds
+     * @param solved whether the move solved the board
+     */
+    void recordMove(long nanos, boolean solved) {
+        moveLatency.record(nanos);
+        if (solved) completions.increment();
+    }
+
+    @Override
+    public long getPuzzlesGenerated() {
+        return generationLatency.count();
+    }
+
+    @Override
+    public long getMovesEntered() {
+        return moveLatency.count();
+    }
+
+    @Override
+    public long getCompletions() {
+        return completions.sum();
+    }
+
+    @Override
+    public long getGenerationP50Micros() {
+        return generationLatency.percentile(0.5) / 1000;
+    }
+
+    @Override
+    public long getGenerationP99Micros() {
+        return generationLatency.percentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getGenerationP999Micros() {
+        return generationLatency.percentile(0.999) / 1000;
+    }
+
+    @Override
+    public long getGenerationMaxMicros() {
+        return generationLatency.max() / 1000;
+    }
+
+    @Override
+    public long[] getGenerationHistogram() {
+        return generationLatency.snapshot();
+    }
+
+    @Override
+    public long getMoveP50Nanos() {
+        return moveLatency.percentile(0.5);
+    }
+
+    @Override
+    public long getMoveP99Nanos() {
+        return moveLatency.percentile(0.99);
+    }
+
+    @Override
+    public long getMoveP999Nanos() {
+        return moveLatency.percentile(0.999);
+    }
+
+    @Override
+    public long getMoveMaxNanos() {
+        return moveLatency.max();
+    }
+
+    @Override
+    public long[] getMoveHistogram() {
+        return moveLatency.snapshot();
+    }
+
+    @Override
+    public long[] getHistogramUpperBoundsNanos() {
+        long[] bounds = new long[LatencyHistogram.BUCKETS];
+        for (int b = 0; b < LatencyHistogram.BUCKETS; b++) bounds[b] = LatencyHistogram.upperBound(b);
+        return bounds;
+    }
+
+    @Override
+    public void reset() {
+        completions.reset();
+        generationLatency.reset();
+        moveLatency.reset();
+    }
+}
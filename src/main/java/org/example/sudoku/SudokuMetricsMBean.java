@@ -0,0 +1,81 @@
+package org.example.sudoku;
+
+/**
+ * Management interface of {@link SudokuMetrics}, readable from any JMX client such as JConsole
+ */
+public interface SudokuMetricsMBean {
+    /**
+     * @return the number of puzzles generated
+     */
+    long getPuzzlesGenerated();
+
+    /**
+     * @return the number of moves that changed a board
+     */
+    long getMovesEntered();
+
+    /**
+     * @return the number of moves that solved a board
+     */
+    long getCompletions();
+
+    /**
+     * @return the median generation time in microseconds
+     */
+    long getGenerationP50Micros();
+
+    /**
+     * @return the 99th percentile generation time in microseconds
+     */
+    long getGenerationP99Micros();
+
+    /**
+     * @return the 99.9th percentile generation time in microseconds
+     */
+    long getGenerationP999Micros();
+
+    /**
+     * @return the longest generation time in microseconds
+     */
+    long getGenerationMaxMicros();
+
+    /**
+     * @return the generation time histogram, one count per bucket of {@link #getHistogramUpperBoundsNanos()}
+     */
+    long[] getGenerationHistogram();
+
+    /**
+     * @return the median move time in nanoseconds, moves taking well under a microsecond
+     */
+    long getMoveP50Nanos();
+
+    /**
+     * @return the 99th percentile move time in nanoseconds
+     */
+    long getMoveP99Nanos();
+
+    /**
+     * @return the 99.9th percentile move time in nanoseconds
+     */
+    long getMoveP999Nanos();
+
+    /**
+     * @return the longest move time in nanoseconds
+     */
+    long getMoveMaxNanos();
+
+    /**
+     * @return the move time histogram, one count per bucket of {@link #getHistogramUpperBoundsNanos()}
+     */
+    long[] getMoveHistogram();
+
+    /**
+     * @return the inclusive upper bound of every histogram bucket, in nanoseconds
+     */
+    long[] getHistogramUpperBoundsNanos();
+
+    /**
+     * Clear every counter and histogram
+     */
+    void reset();
+}
@@ -0,0 +1,178 @@
+package org.example.sudoku;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Validity-preserving transform of 9x9 sudoku grids
+ * <p>
+ *     A transform combines a digit relabelling, a permutation of the rows that only moves rows within their band and
+ *     bands as a whole, the same for cols within stacks, and an optional transposition. Every such transform maps
+ *     rows, cols and subgrids onto rows, cols and subgrids, so a transformed puzzle has the same number of solutions,
+ *     needs the same solving techniques and keeps its starter clues on the transformed cells. Rotations are the
+ *     special case of a transposition combined with reversed rows or cols.
+ * </p>
+ * <p>
+ *     The transform is flattened into a source position per target cell and a digit table whenever it changes, so
+ *     applying it is one table lookup per cell without allocation. An instance is mutable scratch state and must not
+ *     be shared between threads.
+ * </p>
+ */
+public final class SymmetryTransform {
+    // Constants
+    final static int[][] ORDERS = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+
+    // Transform definition
+    final int[] rowMap = new int[9]; // source row of every target row, before transposition
+    final int[] colMap = new int[9]; // source col of every target col, before transposition
+    final byte[] digitMap = new byte[10]; // target digit of every source digit, 0 stays blank
+    boolean transpose;
+
+    // Flattened form
+    final int[] sourcePos = new int[81];
+
+    /**
+     * Constructor for the identity transform
+     */
+    public SymmetryTransform() {
+        identity();
+    }
+
+    // ===== DEFINITION METHODS =====
+    /**
+     * Reset to the transform that leaves every grid unchanged
+     */
+    public void identity() {
+        for (int k = 0; k < 9; k++) {
+            rowMap[k] = k;
+            colMap[k] = k;
+        }
+        for (int d = 0; d <= 9; d++) digitMap[d] = (byte) d;
+        transpose = false;
+        update();
+    }
+
+    /**
+     * Reset to a clockwise rotation of the grid
+     * @param quarterTurns the number of clockwise quarter turns
+     */
+    public void rotate(int quarterTurns) {
+        identity();
+        int turns = Math.floorMod(quarterTurns, 4);
+        for (int k = 0; k < 9; k++) {
+            // target (i, j) reads source (8 - j, i), (8 - i, 8 - j) or (j, 8 - i)
+            if (turns == 1) colMap[k] = 8 - k;
+            if (turns == 2) {
+                rowMap[k] = 8 - k;
+                colMap[k] = 8 - k;
+            }
+            if (turns == 3) rowMap[k] = 8 - k;
+        }
+        transpose = turns % 2 == 1;
+        update();
+    }
+
+    /**
+     * Pick a uniformly random transform
+     * <p>
+     *     Draws a digit relabelling, the order of the bands and stacks, the order of the rows and cols within each of
+     *     them, and whether to transpose.
+     * </p>
+     * @param rand the random source
+     */
+    public void randomize(RandomGenerator rand) {
+        for (int d = 1; d <= 9; d++) digitMap[d] = (byte) d;
+        int swap;
+        byte digit;
+        for (int d = 9; d > 1; d--) {
+            swap = 1 + rand.nextInt(d);
+            digit = digitMap[d];
+            digitMap[d] = digitMap[swap];
+            digitMap[swap] = digit;
+        }
+        randomizeLines(rowMap, rand);
+        randomizeLines(colMap, rand);
+        transpose = rand.nextBoolean();
+        update();
+    }
+
+    /**
+     * Fill a line map with a random band order and a random line order within every band
+     * @param map the row or col map to fill
+     * @param rand the random source
+     */
+    private static void randomizeLines(int[] map, RandomGenerator rand) {
+        int[] bands = ORDERS[rand.nextInt(6)];
+        int[] order;
+        for (int b = 0; b < 3; b++) {
+            order = ORDERS[rand.nextInt(6)];
+            for (int k = 0; k < 3; k++) map[b * 3 + k] = bands[b] * 3 + order[k];
+        }
+    }
+
+    /**
+     * Recompute the source position of every target cell
+     */
+    void update() {
+        int r, c;
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                r = rowMap[i];
+                c = colMap[j];
+                sourcePos[i * 9 + j] = transpose ? c * 9 + r : r * 9 + c;
+            }
+        }
+    }
+    // ===== END DEFINITION METHODS =====
+
+
+    // ===== APPLICATION METHODS =====
+    /**
+     * Transform the cells and starter clues of a board into another board
+     * @param in the board to read
+     * @param out the board to overwrite, must not be the input board
+     */
+    public void apply(Board in, Board out) {
+        assert(in != out) : "Cannot transform a board in place";
+        assert(in.dims == BoardSize.NINE && out.dims == BoardSize.NINE) : "Only 9x9 boards can be transformed";
+        long clue0 = 0;
+        long clue1 = 0;
+        int src;
+        for (int pos = 0; pos < 81; pos++) {
+            src = sourcePos[pos];
+            out.cells[pos] = digitMap[in.cells[src]];
+            if ((in.clues[src >>> 6] & (1L << src)) != 0) {
+                if (pos < 64) clue0 |= 1L << pos;
+                else clue1 |= 1L << pos;
+            }
+        }
+        out.clues[0] = clue0;
+        out.clues[1] = clue1;
+    }
+
+    /**
+     * Transform a game into another game, rebuilding its constraint and conflict state
+     * @param in the game to read
+     * @param out the game to overwrite, must not be the input game
+     */
+    public void apply(Sudoku in, Sudoku out) {
+        assert(in != out) : "Cannot transform a board in place";
+        apply(in.board, out.board);
+        out.rebuildState();
+    }
+
+    /**
+     * Transform 81 cells and write them as one line of the 81-character line format
+     * @param cells the source cells, 0 for blank
+     * @param out the buffer to write into
+     * @param offset the position of the first character
+     * @return the position after the written newline
+     */
+    int writeLine(int[] cells, byte[] out, int offset) {
+        for (int pos = 0; pos < 81; pos++) {
+            out[offset + pos] = (byte) ('0' + digitMap[cells[sourcePos[pos]]]);
+        }
+        out[offset + 81] = '\n';
+        return offset + PuzzleFormat.LINE_LENGTH;
+    }
+    // ===== END APPLICATION METHODS =====
+}
@@ -0,0 +1,37 @@
+package org.example.sudoku;
+
+/**
+ * Human solving techniques, in the order a logical solver tries them
+ */
+public enum Technique {
+    NAKED_SINGLE(Difficulty.EASY),
+    HIDDEN_SINGLE(Difficulty.EASY),
+    POINTING(Difficulty.MEDIUM),
+    CLAIMING(Difficulty.MEDIUM),
+    NAKED_PAIR(Difficulty.MEDIUM),
+    HIDDEN_PAIR(Difficulty.MEDIUM),
+    NAKED_TRIPLE(Difficulty.HARD),
+    HIDDEN_TRIPLE(Difficulty.HARD),
+    NAKED_QUAD(Difficulty.HARD),
+    HIDDEN_QUAD(Difficulty.HARD),
+    X_WING(Difficulty.EXPERT),
+    SWORDFISH(Difficulty.EXPERT);
+
+    final Difficulty difficulty;
+
+    Technique(Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Get the mask bit for this technique in a technique set
+     * @return the mask with only this technique set
+     */
+    int bit() {
+        return 1 << ordinal();
+    }
+}
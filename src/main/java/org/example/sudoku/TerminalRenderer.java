@@ -0,0 +1,273 @@
+package org.example.sudoku;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Renderer that draws a game board to a terminal
+ * <p>
+ *     Every frame is built into one reusable byte buffer and handed to the output stream in a single write followed by
+ *     a flush. The first frame of {@link #render(Sudoku)} clears the screen and draws the full grid; later frames only
+ *     move the cursor with ANSI addressing to the cells whose digit or colour changed, then return it to the prompt line
+ *     below the grid. Starter clues are drawn plain, user digits blue and conflicting cells red. Digits above 9 on
+ *     larger boards are drawn as letters from A. The buffers are sized for the board of the first game drawn.
+ * </p>
+ */
+class TerminalRenderer {
+    // Constants
+    final static int BUFFER_SIZE = 4096; // a full 9x9 frame with every cell coloured takes under 2 KiB
+    final static int BYTES_PER_CELL = 24; // cursor address, colour, digit and reset of one redrawn cell, rounded up
+    final static byte STYLE_BLANK = 0;
+    final static byte STYLE_CLUE = 1;
+    final static byte STYLE_USER = 2;
+    final static byte STYLE_CONFLICT = 3;
+    final static byte[] CLEAR_SCREEN = ascii("\u001b[2J\u001b[H");
+    final static byte[] CLEAR_BELOW = ascii("\u001b[J");
+    final static byte[] BLUE = ascii("\u001b[34m");
+    final static byte[] RED = ascii("\u001b[31m");
+    final static byte[] RESET = ascii("\u001b[0m");
+
+    // Output
+    final OutputStream out;
+    final byte[] lineSeparator;
+    byte[] buffer;
+    int length;
+
+    // Layout of the drawn board
+    BoardSize dims;
+    byte[] separator;
+    int gridLines;
+
+    // Last drawn frame, for diffing
+    byte[] shownDigits;
+    byte[] shownStyles;
+    long[] conflicting;
+    boolean drawn;
+
+    /**
+     * Constructor for a renderer using the platform line separator
+     * @param out the stream to draw to
+     */
+    TerminalRenderer(OutputStream out) {
+        this.out = out;
+        this.lineSeparator = ascii(System.lineSeparator());
+    }
+
+    /**
+     * Draw a frame, redrawing only cells that changed since the previous frame
+     * @param game the game to draw
+     */
+    void render(Sudoku game) throws IOException {
+        layout(game.dims);
+        length = 0;
+        updateConflicts(game);
+        if (!drawn) {
+            append(CLEAR_SCREEN);
+            appendGrid(game);
+            drawn = true;
+        } else {
+            int size = dims.size;
+            byte digit, style;
+            for (int pos = 0; pos < dims.cells; pos++) {
+                digit = (byte) game.board.get(pos);
+                style = styleOf(game, pos);
+                if (digit == shownDigits[pos] && style == shownStyles[pos]) continue;
+                appendCursor(screenLine(pos / size, dims.box), screenColumn(pos % size, dims.box));
+                appendCell(digit, style);
+                shownDigits[pos] = digit;
+                shownStyles[pos] = style;
+            }
+            appendCursor(gridLines + 1, 1);
+            append(CLEAR_BELOW);
+        }
+        flush();
+    }
+
+    /**
+     * Draw the full grid at the current cursor position, without any cursor addressing
+     * @param game the game to draw
+     */
+    void printFrame(Sudoku game) throws IOException {
+        layout(game.dims);
+        length = 0;
+        updateConflicts(game);
+        appendGrid(game);
+        flush();
+    }
+
+    /**
+     * Append every line of the grid and record the drawn cells
+     * @param game the game to draw
+     */
+    void appendGrid(Sudoku game) {
+        int size = dims.size;
+        int box = dims.box;
+        int pos;
+        byte digit, style;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                pos = i * size + j;
+                digit = (byte) game.board.get(pos);
+                style = styleOf(game, pos);
+                appendCell(digit, style);
+                shownDigits[pos] = digit;
+                shownStyles[pos] = style;
+                if (j != size - 1) append((byte) ' ');
+                if (j % box == box - 1 && j != size - 1) {
+                    append((byte) '|');
+                    append((byte) ' ');
+                }
+            }
+            append(lineSeparator);
+            if (i % box == box - 1 && i != size - 1) {
+                append(separator);
+                append(lineSeparator);
+            }
+        }
+    }
+
+    /**
+     * Size the buffers and separator for a board, keeping them if the board size is unchanged
+     * @param dims the dimensions of the board about to be drawn
+     */
+    void layout(BoardSize dims) {
+        if (dims == this.dims) return;
+        this.dims = dims;
+        buffer = new byte[Math.max(BUFFER_SIZE, dims.cells * BYTES_PER_CELL)];
+        shownDigits = new byte[dims.cells];
+        shownStyles = new byte[dims.cells];
+        conflicting = new long[(dims.cells + 63) / 64];
+        gridLines = dims.size + dims.box - 1;
+        drawn = false;
+
+        // a stack spans two columns per cell, the middle stacks one more for the space after the previous bar
+        StringBuilder line = new StringBuilder();
+        for (int stack = 0; stack < dims.box; stack++) {
+            if (stack != 0) line.append('+');
+            int width = 2 * dims.box + (stack != 0 && stack != dims.box - 1 ? 1 : 0);
+            line.append("-".repeat(width));
+        }
+        separator = ascii(line.toString());
+    }
+
+    /**
+     * Recompute the conflicting cell bitset of a game
+     * @param game the game about to be drawn
+     */
+    void updateConflicts(Sudoku game) {
+        Arrays.fill(conflicting, 0);
+        game.conflicts.markConflictingCells(game.board, conflicting);
+    }
+
+    /**
+     * Determine how a cell should be drawn
+     * @param game the game being drawn
+     * @param pos the row-major position of the cell
+     * @return the style of the cell
+     */
+    byte styleOf(Sudoku game, int pos) {
+        if (game.board.get(pos) == 0) return STYLE_BLANK;
+        if ((conflicting[pos >>> 6] & (1L << pos)) != 0) return STYLE_CONFLICT;
+        if (game.board.isClue(pos / dims.size, pos % dims.size)) return STYLE_CLUE;
+        return STYLE_USER;
+    }
+
+    /**
+     * Append one cell with its colour
+     * @param digit the digit of the cell, 0 for blank
+     * @param style the style of the cell
+     */
+    void appendCell(byte digit, byte style) {
+        switch (style) {
+            case STYLE_BLANK -> append((byte) '_');
+            case STYLE_CLUE -> append((byte) BoardSize.symbol(digit));
+            default -> {
+                append(style == STYLE_USER ? BLUE : RED);
+                append((byte) BoardSize.symbol(digit));
+                append(RESET);
+            }
+        }
+    }
+
+    /**
+     * Append an ANSI cursor position sequence
+     * @param line the 1-indexed screen line
+     * @param column the 1-indexed screen column
+     */
+    void appendCursor(int line, int column) {
+        append((byte) 0x1b);
+        append((byte) '[');
+        appendNumber(line);
+        append((byte) ';');
+        appendNumber(column);
+        append((byte) 'H');
+    }
+
+    void appendNumber(int value) {
+        if (value >= 10) append((byte) ('0' + value / 10));
+        append((byte) ('0' + value % 10));
+    }
+
+    void append(byte b) {
+        buffer[length++] = b;
+    }
+
+    void append(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * Write the built frame in one call
+     */
+    void flush() throws IOException {
+        out.write(buffer, 0, length);
+        out.flush();
+    }
+
+    // ===== STATIC METHODS =====
+    /**
+     * Get the screen line of a 9x9 grid row, accounting for separator lines
+     * @param i the row index
+     * @return the 1-indexed screen line
+     */
+    static int screenLine(int i) {
+        return screenLine(i, 3);
+    }
+
+    /**
+     * Get the screen line of a grid row, accounting for separator lines
+     * @param i the row index
+     * @param box the box size of the board
+     * @return the 1-indexed screen line
+     */
+    static int screenLine(int i, int box) {
+        return 1 + i + i / box;
+    }
+
+    /**
+     * Get the screen column of a 9x9 grid col, accounting for separators
+     * @param j the col index
+     * @return the 1-indexed screen column
+     */
+    static int screenColumn(int j) {
+        return screenColumn(j, 3);
+    }
+
+    /**
+     * Get the screen column of a grid col, accounting for separators
+     * @param j the col index
+     * @param box the box size of the board
+     * @return the 1-indexed screen column
+     */
+    static int screenColumn(int j, int box) {
+        return 1 + 2 * j + 2 * (j / box);
+    }
+
+    static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+    // ===== END STATIC METHODS =====
+}
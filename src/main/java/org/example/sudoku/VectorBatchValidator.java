@@ -0,0 +1,107 @@
+package org.example.sudoku;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD {@link BatchValidator} on {@code jdk.incubator.vector}, validating one grid per short lane
+ * <p>
+ *     Grids are taken a block of {@link #LANES} at a time and transposed cell-major, so the same cell of every grid
+ *     in the block is contiguous. Each cell then becomes a vector of digit bits in one shift, every unit is the OR of
+ *     nine such vectors, and one lane-wise compare per unit against {@link #UNIT_MASK} checks all grids of the block
+ *     at once. Grids left over after the last full block go through the scalar path. Only load this class through
+ *     {@link BatchValidator#create}, which checks that the incubator module is present.
+ * </p>
+ */
+final class VectorBatchValidator implements BatchValidator {
+    // Species, one lane per grid
+    final static VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    final static VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class,
+            VectorShape.forBitSize(SHORTS.length() * Byte.SIZE));
+    final static int LANES = SHORTS.length();
+    final static long LANE_BITS = (1L << LANES) - 1;
+
+    // Cell positions of the 27 units, 9 per unit
+    final static int[] UNITS = units();
+
+    // Scratch state of the current block
+    final byte[] transposed = new byte[CELLS * LANES];
+    final short[] bits = new short[CELLS * LANES];
+    final ScalarBatchValidator tail = new ScalarBatchValidator();
+
+    @Override
+    public int validate(byte[] grids, int offset, int count, long[] valid) {
+        assert(offset >= 0 && count >= 0 && offset + (long) count * CELLS <= grids.length) : "Grids out of bounds";
+        assert(valid.length * 64L >= count) : "Bitset too small";
+        int validCount = 0;
+        int n = 0;
+        long lanes;
+        for (; n + LANES <= count; n += LANES) {
+            lanes = validateBlock(grids, offset + n * CELLS);
+            valid[n >>> 6] = valid[n >>> 6] & ~(LANE_BITS << n) | lanes << n;
+            validCount += Long.bitCount(lanes);
+        }
+        for (; n < count; n++) {
+            if (tail.isValid(grids, offset + n * CELLS)) {
+                valid[n >>> 6] |= 1L << n;
+                validCount++;
+            } else {
+                valid[n >>> 6] &= ~(1L << n);
+            }
+        }
+        return validCount;
+    }
+
+    /**
+     * Validate one block of {@link #LANES} grids
+     * @param grids the packed grids
+     * @param start the position of the first cell of the first grid of the block
+     * @return the lanes of the valid grids, bit {@code l} for grid {@code l} of the block
+     */
+    long validateBlock(byte[] grids, int start) {
+        byte[] transposed = this.transposed;
+        short[] bits = this.bits;
+        int source = start;
+        for (int pos = 0; pos < CELLS; pos++, source++) {
+            for (int l = 0; l < LANES; l++) transposed[pos * LANES + l] = grids[source + l * CELLS];
+        }
+
+        ShortVector ones = ShortVector.broadcast(SHORTS, (short) 1);
+        ShortVector digits;
+        for (int k = 0; k < CELLS * LANES; k += LANES) {
+            digits = (ShortVector) ByteVector.fromArray(BYTES, transposed, k)
+                    .convertShape(VectorOperators.B2S, SHORTS, 0);
+            digits = digits.and((short) 0xFF).min((short) 15);
+            ones.lanewise(VectorOperators.LSHL, digits).intoArray(bits, k);
+        }
+
+        VectorMask<Short> ok = SHORTS.maskAll(true);
+        ShortVector unit;
+        for (int u = 0; u < UNITS.length; u += 9) {
+            unit = ShortVector.fromArray(SHORTS, bits, UNITS[u] * LANES);
+            for (int k = 1; k < 9; k++) unit = unit.or(ShortVector.fromArray(SHORTS, bits, UNITS[u + k] * LANES));
+            ok = ok.and(unit.compare(VectorOperators.EQ, (short) UNIT_MASK));
+        }
+        return ok.toLong();
+    }
+
+    /**
+     * List the cell positions of every row, col and subgrid
+     * @return 27 units of 9 positions each
+     */
+    private static int[] units() {
+        int[] units = new int[27 * 9];
+        for (int a = 0; a < 9; a++) {
+            for (int b = 0; b < 9; b++) {
+                units[a * 9 + b] = a * 9 + b;
+                units[81 + a * 9 + b] = b * 9 + a;
+                units[162 + a * 9 + b] = (a / 3 * 3 + b / 3) * 9 + a % 3 * 3 + b % 3;
+            }
+        }
+        return units;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+@DisplayName("Batch Solver Tests")
+public class TestBatchSolver {
+    @DisplayName("Solve in order")
+    @Test
+    void testRun() throws IOException, InterruptedException {
+        ByteArrayOutputStream puzzles = new ByteArrayOutputStream();
+        new BulkGenerator(3000, 2, false).run(puzzles);
+        String[] input = puzzles.toString(StandardCharsets.US_ASCII).split("\n");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchSolver batchSolver = new BatchSolver(3);
+        long read = batchSolver.run(Channels.newChannel(new ByteArrayInputStream(puzzles.toByteArray())), out);
+        assert(read == 3000);
+        assert(batchSolver.invalidCount == 0);
+        assert(batchSolver.solvedCount + batchSolver.multipleCount == 3000);
+
+        String[] output = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assert(output.length == 3000);
+        for (int n = 0; n < 3000; n++) {
+            int[] puzzle = TestDancingLinksSolver.parse(input[n]);
+            int[] solution = TestDancingLinksSolver.parse(output[n]);
+            assert(TestDancingLinksSolver.isValidSolution(solution));
+            for (int pos = 0; pos < 81; pos++) {
+                assert(puzzle[pos] == 0 || puzzle[pos] == solution[pos]);
+            }
+        }
+    }
+
+    @DisplayName("Malformed and blank lines")
+    @Test
+    void testMalformedLines() throws IOException, InterruptedException {
+        String input = TestDancingLinksSolver.PUZZLE.replace('0', '.') + "\r\n"
+                + "\n"
+                + "12345\n"
+                + TestDancingLinksSolver.PUZZLE.replace("53", "55") + "\n"
+                + TestDancingLinksSolver.PUZZLE;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchSolver batchSolver = new BatchSolver(2);
+        long read = batchSolver.run(Channels.newChannel(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))), out);
+
+        String zeros = "0".repeat(81);
+        String expected = TestDancingLinksSolver.SOLUTION + "\n" + zeros + "\n" + zeros + "\n"
+                + TestDancingLinksSolver.SOLUTION + "\n";
+        assert(read == 4);
+        assert(batchSolver.solvedCount == 2);
+        assert(batchSolver.invalidCount == 2);
+        assert(expected.equals(out.toString(StandardCharsets.US_ASCII)));
+    }
+
+    @DisplayName("Grade in order")
+    @Test
+    void testGrade() throws IOException, InterruptedException {
+        String input = TestDancingLinksSolver.PUZZLE + "\n"
+                + "0".repeat(81) + "\n"
+                + "12345\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchGrader grader = new BatchGrader(2);
+        long read = grader.run(Channels.newChannel(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))), out);
+
+        String zeros = "0".repeat(81);
+        String expected = TestDancingLinksSolver.PUZZLE + " EASY\n" + zeros + " BEYOND\n" + zeros + " BEYOND\n";
+        assert(read == 3);
+        assert(grader.solvedCount == 1);
+        assert(grader.invalidCount == 1);
+        assert(grader.getGradeCount(Difficulty.EASY) == 1);
+        assert(grader.getGradeCount(Difficulty.BEYOND) == 2);
+        assert(expected.equals(out.toString(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+@DisplayName("Batch Validator Tests")
+public class TestBatchValidator {
+    /**
+     * Pack solved grids, breaking every third one in a different way
+     * @param count the number of grids
+     * @param offset the number of padding bytes before the first grid
+     * @param expected receives whether each grid should be valid
+     * @return the packed grids
+     */
+    private static byte[] corpus(int count, int offset, boolean[] expected) {
+        byte[] grids = new byte[offset + count * 81];
+        SplittableRandom rand = new SplittableRandom(21);
+        Sudoku game = new Sudoku(false, false, new SplittableRandom(21));
+        int[] solution = new DancingLinksSolver().solve(game);
+        SymmetryTransform transform = new SymmetryTransform();
+        Board source = new Board();
+        Board out = new Board();
+        for (int pos = 0; pos < 81; pos++) source.cells[pos] = (byte) solution[pos];
+
+        int start, a, b;
+        byte swap;
+        for (int n = 0; n < count; n++) {
+            transform.randomize(rand);
+            transform.apply(source, out);
+            start = offset + n * 81;
+            System.arraycopy(out.cells, 0, grids, start, 81);
+            expected[n] = n % 3 != 0;
+            if (expected[n]) continue;
+            a = rand.nextInt(81);
+            switch (n / 3 % 5) {
+                case 0 -> grids[start + a] = 0;
+                case 1 -> grids[start + a] = (byte) (grids[start + a] % 9 + 1);
+                case 2 -> grids[start + a] = (byte) (grids[start + a] + 16);
+                case 3 -> grids[start + a] = (byte) -grids[start + a];
+                default -> {
+                    // swapping two cells of a row keeps rows valid but breaks cols and subgrids
+                    b = a / 9 * 9 + (a % 9 + 4) % 9;
+                    swap = grids[start + a];
+                    grids[start + a] = grids[start + b];
+                    grids[start + b] = swap;
+                }
+            }
+        }
+        return grids;
+    }
+
+    private static void check(BatchValidator validator, int count, int offset) {
+        boolean[] expected = new boolean[count];
+        byte[] grids = corpus(count, offset, expected);
+        long[] valid = new long[(count + 63) / 64];
+        Arrays.fill(valid, -1);
+
+        int validCount = validator.validate(grids, offset, count, valid);
+        int expectedCount = 0;
+        for (int n = 0; n < count; n++) {
+            assert(((valid[n >>> 6] >>> n & 1) != 0) == expected[n]) : "Grid " + n;
+            if (expected[n]) expectedCount++;
+        }
+        assert(validCount == expectedCount);
+    }
+
+    @DisplayName("Scalar validation")
+    @Test
+    void testScalar() {
+        check(new ScalarBatchValidator(), 1, 0);
+        check(new ScalarBatchValidator(), 200, 5);
+    }
+
+    @DisplayName("Vector validation matches scalar")
+    @Test
+    void testVector() {
+        // the build runs tests with the incubator module, so the vector path is the one created
+        BatchValidator validator = BatchValidator.create();
+        assert(validator instanceof VectorBatchValidator);
+        int lanes = VectorBatchValidator.LANES;
+        check(validator, lanes - 1, 0);
+        check(validator, lanes, 3);
+        check(validator, 7 * lanes + 5, 81);
+    }
+
+    @DisplayName("Cell bits")
+    @Test
+    void testBit() {
+        for (int digit = 1; digit <= 9; digit++) {
+            assert((BatchValidator.bit((byte) digit) & BatchValidator.UNIT_MASK) != 0);
+        }
+        for (int b = -128; b < 128; b++) {
+            if (1 <= b && b <= 9) continue;
+            assert((BatchValidator.bit((byte) b) & BatchValidator.UNIT_MASK) == 0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+
+@DisplayName("Board Tests")
+public class TestBoard {
+    Board board;
+
+    @BeforeEach
+    void setup() {
+        board = new Board();
+    }
+
+    @DisplayName("Cells and clues")
+    @Test
+    void testCellsAndClues() {
+        board.set(0, 0, 5);
+        board.set(8, 8, 9);
+        board.setClue(8, 8, true);
+        board.setClue(7, 1, true);
+        assert(board.get(0, 0) == 5);
+        assert(board.get(80) == 9);
+        assert(!board.isClue(0, 0));
+        assert(board.isClue(8, 8));
+        assert(board.isClue(7, 1));
+        assert(board.clueCount() == 2);
+
+        board.setClue(7, 1, false);
+        assert(!board.isClue(7, 1));
+        assert(board.clueCount() == 1);
+
+        board.clear();
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                assert(board.get(i, j) == 0);
+                assert(!board.isClue(i, j));
+            }
+        }
+    }
+
+    @DisplayName("Copy, equality and hashing")
+    @Test
+    void testCopyEquality() {
+        board.set(4, 4, 7);
+        board.setClue(4, 4, true);
+        Board copy = board.copy();
+        assert(copy != board);
+        assert(copy.equals(board));
+        assert(copy.hashCode() == board.hashCode());
+
+        copy.set(4, 5, 1);
+        assert(!copy.equals(board));
+        assert(board.get(4, 5) == 0);
+
+        copy.copyFrom(board);
+        assert(copy.equals(board));
+        copy.setClue(4, 4, false);
+        assert(!copy.equals(board));
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+@DisplayName("Bulk Generator Tests")
+public class TestBulkGenerator {
+    @DisplayName("Generate puzzles")
+    @Test
+    void testRun() throws IOException, InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new BulkGenerator(600, 4, true).run(out);
+        assert(written == 600);
+
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assert(lines.length == 600);
+        Solver solver = new DancingLinksSolver();
+        for (String line : lines) {
+            assert(line.length() == 81);
+            assert(solver.countSolutions(TestDancingLinksSolver.parse(line), 2) == 1);
+        }
+    }
+
+    @DisplayName("Generate from ID range")
+    @Test
+    void testRunSeeded() throws IOException, InterruptedException {
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        new BulkGenerator(700, 1, false, 1000).run(single);
+        new BulkGenerator(700, 3, false, 1000).run(parallel);
+        assert(Arrays.equals(single.toByteArray(), parallel.toByteArray()));
+
+        // a shard starting further into the range reproduces the same lines
+        ByteArrayOutputStream shard = new ByteArrayOutputStream();
+        new BulkGenerator(200, 2, false, 1500).run(shard);
+        String[] lines = single.toString(StandardCharsets.US_ASCII).split("\n");
+        String[] shardLines = shard.toString(StandardCharsets.US_ASCII).split("\n");
+        for (int n = 0; n < 200; n++) assert(lines[500 + n].equals(shardLines[n]));
+
+        byte[] line = new byte[PuzzleFormat.LINE_LENGTH];
+        PuzzleFormat.writeLine(Sudoku.fromId(1123, false), line, 0);
+        assert(lines[123].equals(new String(line, 0, 81, StandardCharsets.US_ASCII)));
+    }
+
+    @DisplayName("Claimed chunks are bounded behind a slow chunk")
+    @Test
+    void testInFlight() throws IOException, InterruptedException {
+        long[] claimed = new long[1];
+        BulkGenerator generator = new BulkGenerator(20_000, 2, false, 0) {
+            @Override
+            void puzzle(PuzzleGenerator generator, long n, Board out) {
+                if (n == 0) {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    claimed[0] = nextChunkStart.get();
+                }
+                super.puzzle(generator, n, out);
+            }
+        };
+        assert(generator.run(OutputStream.nullOutputStream()) == 20_000);
+
+        // while the first chunk is stuck, the other worker can only claim up to the permits
+        int permits = 2 * BulkGenerator.CHUNKS_PER_THREAD;
+        assert(claimed[0] <= permits * BulkGenerator.CHUNK_PUZZLES) : claimed[0];
+        assert(generator.inFlight.availablePermits() == permits);
+    }
+
+    @DisplayName("A failed chunk stops the run")
+    @Test
+    void testFailure() {
+        BulkGenerator generator = new BulkGenerator(20_000, 3, false, 0) {
+            @Override
+            void puzzle(PuzzleGenerator generator, long n, Board out) {
+                if (n == 0) {
+                    // fail only once the other workers are waiting for permits
+                    while (inFlight.availablePermits() > 0) Thread.onSpinWait();
+                    throw new IllegalStateException("stuck");
+                }
+                super.puzzle(generator, n, out);
+            }
+        };
+        IOException e = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> Assertions.assertThrows(IOException.class, () -> generator.run(OutputStream.nullOutputStream())));
+        assert(e.getCause() instanceof IllegalStateException);
+    }
+
+    @DisplayName("Generate nothing")
+    @Test
+    void testRunEmpty() throws IOException, InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assert(new BulkGenerator(0, 3, false).run(out) == 0);
+        assert(out.size() == 0);
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+@DisplayName("Canonical Form Tests")
+public class TestCanonicalForm {
+    CanonicalForm canonical;
+
+    @BeforeEach
+    void setup() {
+        canonical = new CanonicalForm();
+    }
+
+    @DisplayName("Invariant under symmetry")
+    @Test
+    void testInvariant() {
+        SymmetryTransform transform = new SymmetryTransform();
+        SplittableRandom rand = new SplittableRandom(4);
+        Board variant = new Board();
+        int[] form = new int[81];
+        int[] variantForm = new int[81];
+        for (int n = 0; n < 20; n++) {
+            Sudoku game = Sudoku.fromId(n, n % 2 == 0);
+            canonical.canonicalize(game.toCells(), form);
+            for (int k = 0; k < 5; k++) {
+                transform.randomize(rand);
+                transform.apply(game.board, variant);
+                int[] cells = new int[81];
+                variant.toCells(cells);
+                canonical.canonicalize(cells, variantForm);
+                assert(Arrays.equals(form, variantForm));
+                assert(canonical.fingerprint(cells) == CanonicalForm.hash(form));
+            }
+        }
+    }
+
+    @DisplayName("Canonical form is an equivalent puzzle")
+    @Test
+    void testEquivalent() {
+        Solver solver = new DancingLinksSolver();
+        int[] puzzle = TestDancingLinksSolver.parse(TestDancingLinksSolver.PUZZLE);
+        int[] form = new int[81];
+        canonical.canonicalize(puzzle, form);
+
+        int clues = 0;
+        int formClues = 0;
+        for (int pos = 0; pos < 81; pos++) {
+            if (puzzle[pos] != 0) clues++;
+            if (form[pos] != 0) formClues++;
+        }
+        assert(clues == formClues);
+        assert(solver.countSolutions(form, 2) == 1);
+
+        // minimal: blanks first, digits labelled in order of first appearance
+        assert(form[0] == 0);
+        int highest = 0;
+        for (int pos = 0; pos < 81; pos++) {
+            assert(form[pos] <= highest + 1);
+            highest = Math.max(highest, form[pos]);
+        }
+
+        // canonicalizing again changes nothing, also in place
+        int[] again = form.clone();
+        canonical.canonicalize(again, again);
+        assert(Arrays.equals(form, again));
+
+        // different puzzles stay apart
+        assert(canonical.fingerprint(puzzle) != canonical.fingerprint(Sudoku.fromId(1, true).toCells()));
+    }
+
+    @DisplayName("Puzzle index")
+    @Test
+    void testPuzzleIndex() {
+        PuzzleIndex index = new PuzzleIndex(4);
+        SplittableRandom rand = new SplittableRandom(8);
+        long[] values = new long[10000];
+        for (int n = 0; n < values.length; n++) {
+            values[n] = rand.nextLong();
+            assert(index.add(values[n]));
+        }
+        assert(index.add(0));
+        assert(!index.add(0));
+        for (long value : values) {
+            assert(index.contains(value));
+            assert(!index.add(value));
+        }
+        assert(index.size() == values.length + 1);
+        assert(!index.contains(12345));
+    }
+
+    @DisplayName("Deduplicate generation")
+    @Test
+    void testDedupeGeneration() throws IOException, InterruptedException {
+        // generating the same ID range twice in one index leaves only the first copies
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkGenerator generator = new BulkGenerator(300, 2, false, 0, true);
+        assert(generator.run(out) + generator.duplicateCount == 300);
+
+        PuzzleIndex index = new PuzzleIndex(0);
+        for (int n = 0; n < 300; n++) index.add(canonical.fingerprint(Sudoku.fromId(n, false).toCells()));
+        assert(generator.duplicateCount == 300 - index.size());
+        assert(out.size() == index.size() * PuzzleFormat.LINE_LENGTH);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+
+@DisplayName("Constraint State Tests")
+public class TestConstraintState {
+    ConstraintState state;
+
+    @BeforeEach
+    void setup() {
+        state = new ConstraintState();
+    }
+
+    @DisplayName("Place and remove")
+    @Test
+    void testPlaceAndRemove() {
+        state.place(5, 4, 7);
+        assert(state.rowMasks[4] == ConstraintState.bit(5));
+        assert(state.colMasks[7] == ConstraintState.bit(5));
+        assert(state.subgridMasks[5] == ConstraintState.bit(5));
+        assert(!state.isAllowed(5, 4, 0));
+        assert(!state.isAllowed(5, 0, 7));
+        assert(!state.isAllowed(5, 3, 8));
+        assert(state.isAllowed(5, 0, 0));
+        assert(state.isAllowed(4, 4, 7));
+
+        state.remove(5, 4, 7);
+        assert(state.rowMasks[4] == 0);
+        assert(state.colMasks[7] == 0);
+        assert(state.subgridMasks[5] == 0);
+        assert(state.isAllowed(5, 4, 0));
+    }
+
+    @DisplayName("Candidates")
+    @Test
+    void testCandidates() {
+        assert(state.candidates(0, 0) == ConstraintState.ALL_DIGITS);
+        state.place(1, 0, 8);
+        state.place(2, 8, 0);
+        state.place(3, 1, 1);
+        state.place(4, 5, 5);
+        assert(state.candidates(0, 0) == TestSudoku.mask(4, 5, 6, 7, 8, 9));
+        assert(state.usedMask(0, 0) == TestSudoku.mask(1, 2, 3));
+        assert(ConstraintState.lowestDigit(state.candidates(0, 0)) == 4);
+
+        state.clear();
+        for (int i = 0; i < 9; i++) {
+            assert(state.rowMasks[i] == 0 && state.colMasks[i] == 0 && state.subgridMasks[i] == 0);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.Arrays;
+
+@DisplayName("Dancing Links Solver Tests")
+public class TestDancingLinksSolver {
+    final static String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    final static String SOLUTION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    Solver solver;
+
+    @BeforeEach
+    void setup() {
+        solver = new DancingLinksSolver();
+    }
+
+    @DisplayName("Solve unique puzzle")
+    @Test
+    void testSolve() {
+        int[] puzzle = parse(PUZZLE);
+        int[] solution = new int[81];
+        assert(solver.solve(puzzle, solution));
+        assert(Arrays.equals(parse(SOLUTION), solution));
+        assert(solver.getNodeCount() > 0);
+        assert(Arrays.equals(parse(PUZZLE), puzzle));
+
+        assert(solver.countSolutions(puzzle, 2) == 1);
+    }
+
+    @DisplayName("Count with limit")
+    @Test
+    void testCountSolutionsLimit() {
+        int[] empty = new int[81];
+        assert(solver.countSolutions(empty, 1) == 1);
+        assert(solver.countSolutions(empty, 25) == 25);
+
+        int[] puzzle = parse(SOLUTION);
+        // blanking a 1-3 / 3-1 rectangle across two boxes leaves exactly two solutions
+        puzzle[32] = 0;
+        puzzle[35] = 0;
+        puzzle[41] = 0;
+        puzzle[44] = 0;
+        int[] solution = new int[81];
+        assert(solver.countSolutions(puzzle, 10, solution) == 2);
+        assert(isValidSolution(solution));
+    }
+
+    @DisplayName("Invalid givens")
+    @Test
+    void testInvalidGivens() {
+        int[] puzzle = parse(PUZZLE);
+        puzzle[2] = 5;
+        assert(solver.countSolutions(puzzle, 2) == 0);
+        assert(!solver.solve(puzzle, new int[81]));
+
+        // matrix must be fully restored after a rejected puzzle
+        int[] solution = new int[81];
+        assert(solver.solve(parse(PUZZLE), solution));
+        assert(Arrays.equals(parse(SOLUTION), solution));
+
+        AssertionError badDimEx = Assertions.assertThrows(AssertionError.class,
+                () -> solver.countSolutions(new int[80], 1));
+        Assertions.assertEquals("Incompatible grid dimensions", badDimEx.getMessage());
+    }
+
+    @DisplayName("Reuse across solves")
+    @Test
+    void testReuse() {
+        int[] solution = new int[81];
+        for (int n = 0; n < 50; n++) {
+            Sudoku game = new Sudoku();
+            int[] cells = game.toCells();
+            assert(solver.solve(cells, solution));
+            assert(isValidSolution(solution));
+            for (int pos = 0; pos < 81; pos++) {
+                assert(cells[pos] == 0 || cells[pos] == solution[pos]);
+            }
+        }
+    }
+
+    @DisplayName("Solve game")
+    @Test
+    void testSolveGame() {
+        Sudoku game = new Sudoku(true);
+        int[][] grid = new int[9][9];
+        int[] cells = parse(PUZZLE);
+        for (int pos = 0; pos < 81; pos++) grid[pos / 9][pos % 9] = cells[pos];
+        game.setGrid(grid);
+
+        assert(Arrays.equals(parse(SOLUTION), solver.solve(game)));
+        assert(solver.countSolutions(game, 5) == 1);
+        assert(game.blankCount == 51);
+    }
+
+    /**
+     * Check whether 81 cells form a complete, valid sudoku
+     * @param cells the cells to check
+     * @return whether the cells are a valid solution
+     */
+    static boolean isValidSolution(int[] cells) {
+        int[][] grid = new int[9][9];
+        for (int pos = 0; pos < 81; pos++) grid[pos / 9][pos % 9] = cells[pos];
+        Sudoku game = new Sudoku(true);
+        game.setGrid(grid);
+        return game.checkFinished();
+    }
+
+    /**
+     * Parse an 81-character puzzle string into cells
+     * @param puzzle the puzzle, with '0' or '.' for blank
+     * @return the cells of the puzzle
+     */
+    static int[] parse(String puzzle) {
+        int[] cells = new int[81];
+        for (int pos = 0; pos < 81; pos++) {
+            char c = puzzle.charAt(pos);
+            cells[pos] = c == '.' ? 0 : c - '0';
+        }
+        return cells;
+    }
+}
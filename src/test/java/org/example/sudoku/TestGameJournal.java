@@ -0,0 +1,126 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+@DisplayName("Game Journal Tests")
+public class TestGameJournal {
+    @TempDir
+    Path dir;
+
+    @DisplayName("Undo, redo and resume")
+    @Test
+    void testUndoRedoResume() throws IOException {
+        Path path = dir.resolve("game.journal");
+        Sudoku game = Sudoku.fromId(3, true);
+        Board start = game.board.copy();
+        int blank = 0;
+        while (game.board.get(blank) != 0) blank++;
+        int i = blank / 9;
+        int j = blank % 9;
+
+        try (GameJournal journal = GameJournal.create(path, game)) {
+            assert(journal.enterDigit(4, i, j));
+            assert(journal.enterDigit(7, i, j));
+            assert(!journal.enterDigit(7, i, j));
+            assert(journal.undo());
+            assert(game.board.get(i, j) == 4);
+            assert(journal.undo());
+            assert(game.board.equals(start));
+            assert(!journal.undo());
+            assert(journal.redo());
+            assert(game.board.get(i, j) == 4);
+        }
+        assert(Files.size(path) == GameJournal.headerSize(BoardSize.NINE) + 5L * Integer.BYTES);
+
+        Board saved = game.board.copy();
+        try (GameJournal journal = GameJournal.resume(path)) {
+            assert(journal.game.board.equals(saved));
+            assert(journal.game.blankCount == game.blankCount);
+            assert(journal.game.getCandidates(i, j) == 0);
+
+            // the history survives: redo the second move, then undo both
+            assert(journal.redo());
+            assert(journal.game.board.get(i, j) == 7);
+            assert(journal.undo() && journal.undo());
+            assert(journal.game.board.equals(start));
+
+            // a new move drops the undone ones
+            assert(journal.enterDigit(2, i, j));
+            assert(!journal.redo());
+        }
+        try (GameJournal journal = GameJournal.resume(path)) {
+            assert(journal.game.board.get(i, j) == 2);
+        }
+    }
+
+    @DisplayName("Snapshots bound resume")
+    @Test
+    void testSnapshots() throws IOException {
+        Path path = dir.resolve("long.journal");
+        BoardSize dims = BoardSize.of(4);
+        Sudoku game = new Sudoku(dims, false, false, new SplittableRandom(6));
+        Random rand = new Random(6);
+        int moves = 0;
+        try (GameJournal journal = GameJournal.create(path, game)) {
+            while (moves < 10 * GameJournal.SNAPSHOT_INTERVAL + 17) {
+                int pos = rand.nextInt(dims.cells);
+                int choice = rand.nextInt(10);
+                if (choice == 0) journal.undo();
+                else if (choice == 1) journal.redo();
+                else if (!journal.enterDigit(rand.nextInt(dims.size + 1), pos / dims.size, pos % dims.size)) continue;
+                moves++;
+            }
+        }
+
+        try (GameJournal journal = GameJournal.resume(path)) {
+            assert(journal.game.board.equals(game.board));
+            assert(journal.game.blankCount == game.blankCount);
+            assert(journal.game.hasConflict() == game.hasConflict());
+            assert(journal.replayedCount < GameJournal.SNAPSHOT_INTERVAL);
+        }
+    }
+
+    @DisplayName("Cut off a torn tail")
+    @Test
+    void testTornTail() throws IOException {
+        Path path = dir.resolve("torn.journal");
+        Sudoku game = Sudoku.fromId(8, false);
+        long validSize;
+        try (GameJournal journal = GameJournal.create(path, game)) {
+            int pos = 0;
+            for (int n = 0; n < GameJournal.SNAPSHOT_INTERVAL - 1; n++) {
+                while (game.board.isClue(pos / 9, pos % 9)) pos = (pos + 1) % 81;
+                journal.enterDigit(1 + n % 9, pos / 9, pos % 9);
+                pos = (pos + 1) % 81;
+            }
+            validSize = Files.size(path) + Integer.BYTES;
+            while (game.board.isClue(pos / 9, pos % 9)) pos = (pos + 1) % 81;
+            journal.enterDigit(game.board.get(pos) == 9 ? 1 : 9, pos / 9, pos % 9);
+        }
+
+        // keep the move that triggered the snapshot but lose the snapshot end and half its cells
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(validSize + Integer.BYTES + 42);
+        }
+        try (GameJournal journal = GameJournal.resume(path)) {
+            assert(journal.game.board.equals(game.board));
+            assert(journal.replayedCount == GameJournal.SNAPSHOT_INTERVAL);
+            assert(Files.size(path) == validSize);
+        }
+
+        Path other = dir.resolve("other.journal");
+        Files.write(other, new byte[GameJournal.headerSize(BoardSize.NINE)]);
+        Assertions.assertThrows(IOException.class, () -> GameJournal.resume(other));
+    }
+}
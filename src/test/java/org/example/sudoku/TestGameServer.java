@@ -0,0 +1,94 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+@DisplayName("Game Server Tests")
+public class TestGameServer {
+    @DisplayName("Pool puzzles")
+    @Test
+    void testGeneratePool() {
+        ByteBuffer pool = GameServer.generatePool(3, 40);
+        assert(pool.capacity() == 3 * PuzzleFormat.CELLS);
+        for (int n = 0; n < 3; n++) {
+            byte[] cells = new byte[PuzzleFormat.CELLS];
+            pool.get(n * PuzzleFormat.CELLS, cells);
+            assert(Arrays.equals(cells, Sudoku.fromId(40 + n, true).board.cells));
+        }
+    }
+
+    @DisplayName("Line protocol")
+    @Test
+    void testProtocol() throws IOException {
+        try (GameServer server = GameServer.start(GameServer.generatePool(1, 7), 0);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+
+            Sudoku expected = Sudoku.fromId(7, true);
+            byte[] line = new byte[PuzzleFormat.LINE_LENGTH];
+            PuzzleFormat.writeLine(expected, line, 0);
+            String board = in.readLine();
+            assert(board.equals("board " + new String(line, 0, PuzzleFormat.CELLS, StandardCharsets.US_ASCII)));
+            int blank = board.indexOf('0', 6) - 6;
+            int clue = 0;
+            while (!expected.board.isClue(clue / 9, clue % 9)) clue++;
+            String move = (blank / 9 + 1) + " " + (blank % 9 + 1) + " ";
+
+            // pipelined requests are all answered, in order
+            out.write((move + "5\n" + (clue / 9 + 1) + " " + (clue % 9 + 1) + " 1\n# note\n\n10 1 1\nhello\ncheck\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            String reply = in.readLine();
+            assert(reply.equals("ok") || reply.equals("conflict"));
+            assert(in.readLine().equals("clue"));
+            assert(in.readLine().startsWith("error"));
+            assert(in.readLine().startsWith("error"));
+            assert(in.readLine().equals("unsolved"));
+
+            // a digit its row already holds conflicts
+            int target = 0;
+            int digit = 0;
+            for (int pos = blank + 1; pos < 81 && digit == 0; pos++) {
+                if (expected.board.get(pos) != 0) continue;
+                target = pos;
+                for (int k = pos / 9 * 9; k < pos / 9 * 9 + 9 && digit == 0; k++) digit = expected.board.get(k);
+            }
+            out.write(((target / 9 + 1) + " " + (target % 9 + 1) + " " + digit + "\nboard\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            assert(in.readLine().equals("conflict"));
+            assert(in.readLine().charAt(6 + target) == '0' + digit);
+
+            out.write("new\nquit\n".getBytes(StandardCharsets.US_ASCII));
+            assert(in.readLine().equals(board));
+            assert(in.readLine().equals("bye"));
+            assert(in.readLine() == null);
+            assert(server.moveCount.get() == 2);
+        }
+    }
+
+    @DisplayName("Concurrent sessions")
+    @Test
+    void testLoad() throws IOException, InterruptedException {
+        try (GameServer server = GameServer.start(GameServer.generatePool(8, 1), 0)) {
+            LoadGenerator generator = new LoadGenerator("localhost", server.port(), 200, 50, Duration.ZERO);
+            generator.run();
+            assert(generator.failedCount.get() == 0);
+            assert(generator.errorCount.get() == 0);
+            assert(server.sessionCount.get() == 200);
+            assert(server.moveCount.get() == 200 * 50);
+            assert(generator.summary().startsWith("200 sessions, 0 failed, 10000 moves"));
+        }
+    }
+}
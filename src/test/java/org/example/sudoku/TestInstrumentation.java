@@ -0,0 +1,140 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@DisplayName("Instrumentation Tests")
+public class TestInstrumentation {
+    @TempDir
+    Path dir;
+
+    @DisplayName("Histogram buckets and percentiles")
+    @Test
+    void testLatencyHistogram() throws InterruptedException {
+        for (long nanos : new long[] {0, 1, 3, 4, 7, 8, 9, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(nanos);
+            assert(bucket < LatencyHistogram.BUCKETS);
+            assert(nanos <= LatencyHistogram.upperBound(bucket));
+            assert(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < nanos);
+        }
+        for (int b = 1; b < LatencyHistogram.BUCKETS; b++) {
+            assert(LatencyHistogram.bucket(LatencyHistogram.upperBound(b)) == b);
+            assert(LatencyHistogram.bucket(LatencyHistogram.upperBound(b - 1) + 1) == b);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assert(histogram.percentile(0.99) == 0);
+        for (int n = 1; n <= 1000; n++) histogram.record(n * 1000L);
+        assert(histogram.count() == 1000);
+        assert(histogram.max() == 1_000_000);
+        long p50 = histogram.percentile(0.5);
+        assert(500_000 <= p50 && p50 <= 500_000 * 5 / 4) : "p50 " + p50;
+        long p99 = histogram.percentile(0.99);
+        assert(990_000 <= p99 && p99 <= 1_000_000) : "p99 " + p99;
+        assert(histogram.percentile(1) == 1_000_000);
+        histogram.reset();
+        assert(histogram.count() == 0 && histogram.max() == 0);
+
+        // concurrent recording into one bucket loses no counts
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long nanos = 100 + t;
+            threads[t] = new Thread(() -> {
+                for (int n = 0; n < 10_000; n++) histogram.record(nanos);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assert(histogram.count() == 40_000);
+        assert(histogram.max() == 103);
+    }
+
+    @DisplayName("Metrics over JMX")
+    @Test
+    void testMetrics() throws JMException {
+        SudokuMetrics metrics = SudokuMetrics.INSTANCE;
+        long generated = metrics.getPuzzlesGenerated();
+        long moves = metrics.getMovesEntered();
+        long completions = metrics.getCompletions();
+
+        Sudoku game = Sudoku.fromId(11, true);
+        int[] solution = new DancingLinksSolver().solve(game);
+        for (int pos = 0; pos < 81; pos++) {
+            if (game.board.get(pos) == 0) game.enterDigit(solution[pos], pos / 9, pos % 9);
+        }
+        assert(game.checkFinished());
+        int blanks = 81 - game.board.clueCount();
+
+        // other tests may generate and play concurrently, so only lower bounds hold
+        assert(metrics.getPuzzlesGenerated() >= generated + 1);
+        assert(metrics.getMovesEntered() >= moves + blanks);
+        assert(metrics.getCompletions() >= completions + 1);
+        assert(metrics.getGenerationMaxMicros() >= metrics.getGenerationP50Micros());
+        assert(metrics.getGenerationHistogram().length == metrics.getHistogramUpperBoundsNanos().length);
+        assert(metrics.getMoveMaxNanos() >= metrics.getMoveP99Nanos());
+        assert(metrics.getMoveP99Nanos() >= metrics.getMoveP50Nanos());
+        assert(Arrays.stream(metrics.getMoveHistogram()).sum() >= blanks);
+
+        SudokuMetrics.register();
+        SudokuMetrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(SudokuMetrics.OBJECT_NAME);
+        assert((Long) server.getAttribute(name, "PuzzlesGenerated") >= generated + 1);
+        assert((Long) server.getAttribute(name, "Completions") >= completions + 1);
+        assert((Long) server.getAttribute(name, "MoveMaxNanos") > 0);
+    }
+
+    @DisplayName("Flight recorder events")
+    @Test
+    void testEvents() throws IOException {
+        Path file = dir.resolve("sudoku.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(GenerationEvent.class).withoutThreshold();
+            recording.enable(SolveEvent.class).withoutThreshold();
+            recording.start();
+            Sudoku.fromId(12, true);
+            new Sudoku(BoardSize.of(4), false, false, new SplittableRandom(12));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, RecordedEvent> phases = new HashMap<>();
+        int solves = 0;
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        for (RecordedEvent event : events) {
+            String type = event.getEventType().getName();
+            if (type.equals("org.example.sudoku.Generation")) {
+                phases.put(event.getString("phase") + event.getInt("box"), event);
+            } else if (type.equals("org.example.sudoku.Solve")) {
+                assert(event.getLong("nodes") > 0);
+                assert(event.getInt("limit") == 2);
+                solves++;
+            }
+        }
+        assert(phases.keySet().containsAll(Set.of("diagonal3", "backtracking3", "removal3", "bounded4", "removal4")))
+                : phases.keySet();
+        assert(phases.get("diagonal3").getLong("nodes") == 27);
+        assert(phases.get("diagonal3").getLong("backtracks") == 0);
+        assert(phases.get("backtracking3").getLong("nodes") >= 54);
+        assert(phases.get("removal3").getLong("nodes") > 0);
+        assert(phases.get("bounded4").getLong("nodes") >= 256 - 64);
+        assert(solves > 0);
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.Arrays;
+import java.util.Random;
+
+@DisplayName("Logical Solver Tests")
+public class TestLogicalSolver {
+    LogicalSolver solver;
+
+    @BeforeEach
+    void setup() {
+        solver = new LogicalSolver();
+    }
+
+    @DisplayName("Grade easy puzzle")
+    @Test
+    void testGradeEasy() {
+        assert(solver.grade(TestDancingLinksSolver.parse(TestDancingLinksSolver.PUZZLE)) == Difficulty.EASY);
+        assert(solver.isSolved());
+        assert(solver.usedTechnique(Technique.NAKED_SINGLE) || solver.usedTechnique(Technique.HIDDEN_SINGLE));
+        assert(!solver.usedTechnique(Technique.X_WING));
+
+        int[] cells = new int[81];
+        solver.getCells(cells);
+        assert(Arrays.equals(TestDancingLinksSolver.parse(TestDancingLinksSolver.SOLUTION), cells));
+    }
+
+    @DisplayName("Grade unfinished and invalid puzzles")
+    @Test
+    void testGradeBeyond() {
+        assert(solver.grade(new int[81]) == Difficulty.BEYOND);
+        assert(!solver.isSolved());
+
+        int[] puzzle = TestDancingLinksSolver.parse(TestDancingLinksSolver.PUZZLE);
+        puzzle[2] = 5;
+        assert(solver.grade(puzzle) == Difficulty.BEYOND);
+        assert(!solver.isSolved());
+
+        // state must not leak into the next puzzle
+        assert(solver.grade(TestDancingLinksSolver.parse(TestDancingLinksSolver.PUZZLE)) == Difficulty.EASY);
+    }
+
+    @DisplayName("Pointing and claiming")
+    @Test
+    void testIntersections() {
+        solver.load(new int[81]);
+        // 5 only in the top row of the first subgrid
+        for (int pos : LogicalSolver.UNIT_CELLS[LogicalSolver.SUBGRID_UNIT]) {
+            if (pos / 9 != 0) solver.eliminate(pos, ConstraintState.bit(5));
+        }
+        assert(solver.pointing());
+        for (int j = 3; j < 9; j++) assert((solver.candidates[j] & ConstraintState.bit(5)) == 0);
+        assert((solver.candidates[9 + 3] & ConstraintState.bit(5)) != 0);
+
+        solver.load(new int[81]);
+        // 7 only in the first subgrid of the second row
+        for (int j = 3; j < 9; j++) solver.eliminate(9 + j, ConstraintState.bit(7));
+        assert(solver.claiming());
+        assert((solver.candidates[0] & ConstraintState.bit(7)) == 0);
+        assert((solver.candidates[20] & ConstraintState.bit(7)) == 0);
+        assert((solver.candidates[9] & ConstraintState.bit(7)) != 0);
+    }
+
+    @DisplayName("Naked and hidden pairs")
+    @Test
+    void testSubsets() {
+        int pair = ConstraintState.bit(1) | ConstraintState.bit(2);
+        solver.load(new int[81]);
+        solver.candidates[0] = pair;
+        solver.candidates[1] = pair;
+        assert(solver.nakedSubset(2));
+        for (int j = 2; j < 9; j++) assert((solver.candidates[j] & pair) == 0);
+        assert(solver.candidates[0] == pair);
+
+        solver.load(new int[81]);
+        for (int j = 2; j < 9; j++) solver.eliminate(j, pair);
+        assert(!solver.nakedSubset(2));
+        assert(solver.hiddenSubset(2));
+        assert(solver.candidates[0] == pair);
+        assert(solver.candidates[1] == pair);
+    }
+
+    @DisplayName("X-Wing")
+    @Test
+    void testXWing() {
+        int bit = ConstraintState.bit(4);
+        solver.load(new int[81]);
+        // 4 only in cols 2 and 7 of rows 1 and 5
+        for (int j = 0; j < 9; j++) {
+            if (j == 2 || j == 7) continue;
+            solver.eliminate(9 + j, bit);
+            solver.eliminate(45 + j, bit);
+        }
+        assert(solver.fish(2));
+        for (int i = 0; i < 9; i++) {
+            boolean base = i == 1 || i == 5;
+            assert(((solver.candidates[i * 9 + 2] & bit) != 0) == base);
+            assert(((solver.candidates[i * 9 + 7] & bit) != 0) == base);
+        }
+        assert((solver.candidates[3] & bit) != 0);
+    }
+
+    @DisplayName("Agree with search on generated puzzles")
+    @Test
+    void testSoundness() {
+        Solver search = new DancingLinksSolver();
+        int[] solution = new int[81];
+        int[] cells = new int[81];
+        Random rand = new Random(7);
+        for (int n = 0; n < 100; n++) {
+            Sudoku game = new Sudoku(false, rand.nextBoolean());
+            int[] puzzle = game.toCells();
+            boolean unique = search.countSolutions(puzzle, 2, solution) == 1;
+            Difficulty difficulty = solver.grade(puzzle);
+            assert(solver.isSolved() == (difficulty != Difficulty.BEYOND));
+
+            solver.getCells(cells);
+            if (!unique) continue;
+            for (int pos = 0; pos < 81; pos++) {
+                // deductions must never contradict the unique solution
+                if (cells[pos] != 0) assert(cells[pos] == solution[pos]);
+                else assert((solver.candidates[pos] & ConstraintState.bit(solution[pos])) != 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("Parallel Solver Tests")
+public class TestParallelSolver {
+    // one of the hardest known puzzles for backtracking solvers
+    final static String HARD =
+            "100007090030020008009600500005300900010080002600004000300000010040000007007000300";
+
+    @DisplayName("Solve hard puzzle")
+    @Test
+    void testSolveHard() {
+        int[] puzzle = TestDancingLinksSolver.parse(HARD);
+        int[] expected = new int[81];
+        assert(new DancingLinksSolver().countSolutions(puzzle, 2, expected) == 1);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int splitDepth : new int[] {0, 1, ParallelSolver.DEFAULT_SPLIT_DEPTH, 20}) {
+                ParallelSolver solver = new ParallelSolver(pool, splitDepth);
+                int[] solution = new int[81];
+                assert(solver.countSolutions(puzzle, 2, solution) == 1) : "Split depth " + splitDepth;
+                assert(Arrays.equals(expected, solution)) : "Split depth " + splitDepth;
+                assert(solver.getNodeCount() > 0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assert(Arrays.equals(TestDancingLinksSolver.parse(HARD), puzzle));
+    }
+
+    @DisplayName("Counts match the exact-cover solver")
+    @Test
+    void testCounts() {
+        Solver reference = new DancingLinksSolver();
+        Solver solver = new ParallelSolver();
+        int[] solution = new int[81];
+        for (int n = 0; n < 20; n++) {
+            int[] cells = Sudoku.fromId(n, false).toCells();
+            int expected = reference.countSolutions(cells, 30);
+            assert(solver.countSolutions(cells, 30, solution) == expected) : "Puzzle " + n;
+            if (expected > 0) assert(TestDancingLinksSolver.isValidSolution(solution));
+        }
+        assert(solver.countSolutions(new int[81], 1000) == 1000);
+
+        int[] conflict = TestDancingLinksSolver.parse(HARD);
+        conflict[1] = 1;
+        assert(solver.countSolutions(conflict, 2) == 0);
+    }
+
+    @DisplayName("Solve 16x16 board")
+    @Test
+    void testSixteen() {
+        Sudoku game = new Sudoku(BoardSize.of(4), false, false, new SplittableRandom(22));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            byte[] solution = new byte[256];
+            int sequential = new ParallelSolver(pool, 0).countSolutions(game.board, 50, null);
+            int parallel = new ParallelSolver(pool, ParallelSolver.DEFAULT_SPLIT_DEPTH)
+                    .countSolutions(game.board, 50, solution);
+            assert(sequential > 0 && sequential == parallel);
+
+            ConstraintState constraints = new ConstraintState(game.dims);
+            for (int pos = 0; pos < 256; pos++) {
+                int digit = solution[pos];
+                assert(digit != 0 && constraints.isAllowed(digit, pos / 16, pos % 16));
+                constraints.place(digit, pos / 16, pos % 16);
+                assert(game.board.get(pos) == 0 || game.board.get(pos) == digit);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @DisplayName("Stop at the first solution")
+    @Test
+    void testEarlyStop() {
+        // an empty 16x16 board has astronomically many solutions, so only an early stop can finish
+        ParallelSolver solver = new ParallelSolver();
+        Board empty = new Board(BoardSize.of(4));
+        assert(solver.countSolutions(empty, 1, new byte[256]) == 1);
+        long nodes = solver.getNodeCount();
+        assert(solver.countSolutions(empty, 100, null) == 100);
+        assert(solver.getNodeCount() >= nodes);
+    }
+}
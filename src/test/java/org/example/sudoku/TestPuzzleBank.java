@@ -0,0 +1,73 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+@DisplayName("Puzzle Bank Tests")
+public class TestPuzzleBank {
+    @TempDir
+    Path dir;
+
+    @DisplayName("Build and load")
+    @Test
+    void testBuildAndLoad() throws IOException, InterruptedException {
+        ByteArrayOutputStream puzzles = new ByteArrayOutputStream();
+        new BulkGenerator(200, 2, true).run(puzzles);
+        puzzles.write("12345\n".getBytes());
+        puzzles.write(("0".repeat(81) + "\n").getBytes());
+        Path in = dir.resolve("puzzles.txt");
+        Path out = dir.resolve("puzzles.bank");
+        Files.write(in, puzzles.toByteArray());
+
+        // malformed and non-unique lines are dropped
+        assert(PuzzleBank.build(in, out) == 200);
+        PuzzleBank bank = PuzzleBank.open(out);
+        assert(bank.size() == 200);
+        assert(Files.size(out) == PuzzleBank.HEADER_SIZE + 200L * PuzzleBank.ENTRY_SIZE);
+
+        int total = 0;
+        for (Difficulty difficulty : Difficulty.values()) total += bank.count(difficulty);
+        assert(total == 200);
+
+        LogicalSolver grader = new LogicalSolver();
+        Solver solver = new DancingLinksSolver();
+        Random rand = new Random(3);
+        Sudoku game = new Sudoku(true);
+        for (Difficulty difficulty : Difficulty.values()) {
+            int entry = bank.randomEntry(difficulty, rand);
+            assert((entry < 0) == (bank.count(difficulty) == 0));
+            if (entry < 0) continue;
+
+            bank.load(entry, game);
+            int[] cells = game.toCells();
+            assert(grader.grade(cells) == difficulty);
+            assert(solver.countSolutions(cells, 2) == 1);
+            assert(game.blankCount == 81 - game.board.clueCount());
+            assert(!game.hasConflict());
+        }
+
+        Difficulty difficulty = Difficulty.EASY;
+        int entry = bank.randomEntry(difficulty, 30, 30, rand);
+        assert((entry < 0) == (bank.count(difficulty, 30, 30) == 0));
+        if (entry >= 0) {
+            bank.load(entry, game);
+            assert(game.board.clueCount() == 30);
+        }
+    }
+
+    @DisplayName("Reject other files")
+    @Test
+    void testRejectInvalid() throws IOException {
+        Path path = dir.resolve("other.bank");
+        Files.write(path, new byte[PuzzleBank.HEADER_SIZE]);
+        Assertions.assertThrows(IOException.class, () -> PuzzleBank.open(path));
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Assertions;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@DisplayName("Puzzle Generator Tests")
+public class TestPuzzleGenerator {
+    /**
+     * Check that a board holds a conflict-free puzzle whose filled cells are exactly its clues
+     * @param board the board to check
+     */
+    private static void checkPuzzle(Board board) {
+        ConstraintState constraints = new ConstraintState(board.dims);
+        int size = board.size;
+        for (int pos = 0; pos < board.cellCount; pos++) {
+            int digit = board.get(pos);
+            assert(board.isClue(pos / size, pos % size) == (digit != 0));
+            if (digit == 0) continue;
+            assert(constraints.isAllowed(digit, pos / size, pos % size));
+            constraints.place(digit, pos / size, pos % size);
+        }
+        assert(board.dims.minRemove <= board.cellCount - board.clueCount());
+        assert(board.cellCount - board.clueCount() < board.dims.maxRemove);
+    }
+
+    @DisplayName("Independent subgrid digit orders")
+    @Test
+    void testDigitOrders() {
+        Sudoku game = new Sudoku(BoardSize.NINE, true, false, new SplittableRandom(25));
+        Set<String> orders = new HashSet<>();
+        for (int s = 0; s < 9; s++) {
+            int[] order = game.SUBGRID_DIGITS[s].clone();
+            orders.add(Arrays.toString(order));
+            Arrays.sort(order);
+            assert(Arrays.equals(order, new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        }
+        assert(orders.size() > 1);
+
+        int[] before = game.SUBGRID_DIGITS[0];
+        game.shuffleDigits();
+        assert(game.SUBGRID_DIGITS[0] == before);
+    }
+
+    @DisplayName("Unique 9x9 puzzles")
+    @Test
+    void testUnique() {
+        PuzzleGenerator generator = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(25));
+        Solver solver = new DancingLinksSolver();
+        Set<Board> seen = new HashSet<>();
+        int[] cells = new int[81];
+        for (int n = 0; n < 50; n++) {
+            Board board = generator.generate(true);
+            checkPuzzle(board);
+            board.toCells(cells);
+            assert(solver.countSolutions(cells, 2) == 1);
+            seen.add(board);
+        }
+        assert(seen.size() == 50);
+
+        Board out = new Board();
+        out.set(0, 0, 5);
+        generator.generate(true, out);
+        checkPuzzle(out);
+    }
+
+    @DisplayName("Every board size")
+    @Test
+    void testSizes() {
+        for (int box = BoardSize.MIN_BOX; box <= BoardSize.MAX_BOX; box++) {
+            BoardSize dims = BoardSize.of(box);
+            PuzzleGenerator generator = new PuzzleGenerator(dims, new SplittableRandom(box));
+            for (int n = 0; n < 3; n++) checkPuzzle(generator.generate(false));
+            if (dims != BoardSize.NINE) {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> generator.generate(true));
+            }
+        }
+    }
+
+    @DisplayName("Same seed, same puzzles")
+    @Test
+    void testDeterministic() {
+        PuzzleGenerator first = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(5));
+        PuzzleGenerator second = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(5));
+        for (int n = 0; n < 10; n++) assert(first.generate(n % 2 == 0).equals(second.generate(n % 2 == 0)));
+    }
+
+    @DisplayName("Reseedable random matches SplittableRandom")
+    @Test
+    void testReseedableRandom() {
+        ReseedableRandom reseedable = new ReseedableRandom();
+        for (long seed : new long[] {0, 1, -7, Long.MAX_VALUE}) {
+            reseedable.reseed(seed);
+            SplittableRandom reference = new SplittableRandom(seed);
+            for (int n = 1; n <= 100; n++) {
+                assert(reseedable.nextLong() == reference.nextLong());
+                assert(reseedable.nextInt(n) == reference.nextInt(n));
+                assert(reseedable.nextInt(n, 3 * n) == reference.nextInt(n, 3 * n));
+                assert(reseedable.nextBoolean() == reference.nextBoolean());
+            }
+        }
+    }
+
+    @DisplayName("Puzzles by ID")
+    @Test
+    void testIds() {
+        PuzzleGenerator generator = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(25));
+        PuzzleGenerator replay = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(25));
+        Board out = new Board();
+        for (long id = 0; id < 40; id++) {
+            boolean unique = id % 2 == 0;
+            generator.generate(id, unique, out);
+            assert(out.equals(Sudoku.fromId(id, unique).board)) : "ID " + id;
+            // generating by ID leaves the generator's own random sequence alone
+            assert(generator.generate(unique).equals(replay.generate(unique)));
+        }
+        assert(generator.generate(-3, true).equals(Sudoku.fromId(-3, true).board));
+    }
+
+    @DisplayName("One generator per thread")
+    @Test
+    void testThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Board[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                results.add(pool.submit(() -> {
+                    PuzzleGenerator generator = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(seed));
+                    Board[] boards = new Board[100];
+                    for (int n = 0; n < boards.length; n++) boards[n] = generator.generate(true);
+                    return boards;
+                }));
+            }
+            for (int t = 0; t < 4; t++) {
+                PuzzleGenerator replay = new PuzzleGenerator(BoardSize.NINE, new SplittableRandom(t));
+                for (Board board : results.get(t).get()) {
+                    checkPuzzle(board);
+                    assert(board.equals(replay.generate(true)));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @DisplayName("No allocation in steady state")
+    @Test
+    void testAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int box = 3; box <= 4; box++) {
+            BoardSize dims = BoardSize.of(box);
+            PuzzleGenerator generator = new PuzzleGenerator(dims, new SplittableRandom(25));
+            Board out = new Board(dims);
+            for (int n = 0; n < 20; n++) generator.generate(box == 3, out);
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int n = 0; n < 100; n++) generator.generate(box == 3, out);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            // flight recorder events are only created while recording, so this holds without escape analysis too;
+            // the slack is for the allocation counter itself, not one object per puzzle
+            assert(allocated < 1024) : allocated + " bytes for 100 puzzles of box size " + box;
+        }
+
+        PuzzleGenerator generator = new PuzzleGenerator();
+        Board out = new Board();
+        for (long id = 0; id < 20; id++) generator.generate(id, true, out);
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (long id = 20; id < 120; id++) generator.generate(id, true, out);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assert(allocated < 1024) : allocated + " bytes for 100 puzzles by ID";
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+@DisplayName("Script Runner Tests")
+public class TestScriptRunner {
+    @TempDir
+    Path dir;
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @DisplayName("Parse move lines")
+    @Test
+    void testMoveReader() throws IOException {
+        MoveReader reader = new MoveReader(input("1 2 3\n\t9  9\t0 \r\n# comment\n\nundo\r\nredo\n"
+                + "1 2\n1 2 3 4\nundone\n1,2,3\nx\n99999999 1 1\n4 5 6"));
+        assert(reader.next() == MoveReader.MOVE);
+        assert(reader.row == 0 && reader.col == 1 && reader.digit == 3);
+        assert(reader.next() == MoveReader.MOVE);
+        assert(reader.row == 8 && reader.col == 8 && reader.digit == 0);
+        assert(reader.next() == MoveReader.SKIP);
+        assert(reader.next() == MoveReader.SKIP);
+        assert(reader.next() == MoveReader.UNDO);
+        assert(reader.next() == MoveReader.REDO);
+        for (int n = 0; n < 6; n++) assert(reader.next() == MoveReader.INVALID);
+        assert(reader.lineNumber == 12);
+        assert(reader.next() == MoveReader.MOVE);
+        assert(reader.row == 3 && reader.col == 4 && reader.digit == 6);
+        assert(reader.next() == MoveReader.END);
+        assert(reader.next() == MoveReader.END);
+
+        // letter symbols of digits from 10, as boards larger than 9x9 show them
+        reader = new MoveReader(input("16 1 G\n2 3 a\n1 1 10\n1 1 AB\n1 A 1\n"));
+        assert(reader.next() == MoveReader.MOVE);
+        assert(reader.row == 15 && reader.col == 0 && reader.digit == 16);
+        assert(reader.next() == MoveReader.MOVE);
+        assert(reader.digit == 10);
+        assert(reader.next() == MoveReader.MOVE);
+        assert(reader.digit == 10);
+        assert(reader.next() == MoveReader.INVALID);
+        assert(reader.next() == MoveReader.INVALID);
+        for (int digit = 1; digit <= 25; digit++) assert(BoardSize.digitOf(BoardSize.symbol(digit)) == digit);
+
+        reader = new MoveReader(input("board\ncheck \nnew\r\nquit\nquitter\nboards\n"), 4);
+        assert(reader.next() == MoveReader.BOARD);
+        assert(reader.next() == MoveReader.CHECK);
+        assert(reader.next() == MoveReader.NEW);
+        assert(reader.next() == MoveReader.QUIT);
+        assert(reader.next() == MoveReader.INVALID);
+        assert(reader.next() == MoveReader.INVALID);
+        assert(reader.next() == MoveReader.END);
+    }
+
+    @DisplayName("Report bad lines and keep going")
+    @Test
+    void testBadLines() throws IOException {
+        Sudoku game = Sudoku.fromId(5, true);
+        int blank = 0;
+        while (game.board.get(blank) != 0) blank++;
+        int clue = 0;
+        while (!game.board.isClue(clue / 9, clue % 9)) clue++;
+        String move = (blank / 9 + 1) + " " + (blank % 9 + 1) + " ";
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        ScriptRunner runner = new ScriptRunner(game, null, new PrintStream(errors, true, StandardCharsets.US_ASCII));
+        runner.run(input(move + "4\n" + "garbage\n" + "10 1 1\n" + "1 1 10\n" + "undo\nboard\n"
+                + (clue / 9 + 1) + " " + (clue % 9 + 1) + " 1\n" + move + "4\n" + move + "7\n"));
+        assert(game.board.get(blank) == 7);
+        assert(runner.lineCount == 9);
+        assert(runner.appliedCount == 2);
+        assert(runner.ignoredCount == 2);
+        assert(runner.badCount == 5);
+        String report = errors.toString(StandardCharsets.US_ASCII);
+        assert(report.startsWith("line 2: "));
+        assert(report.contains("line 3: move outside the 9x9 board"));
+        assert(report.contains("line 5: undo and redo need a journal"));
+        assert(runner.lastError == null);
+    }
+
+    @DisplayName("Non-ASCII bytes")
+    @Test
+    void testNonAscii() throws IOException {
+        Sudoku game = Sudoku.fromId(5, true);
+        int blank = 0;
+        while (game.board.get(blank) != 0) blank++;
+        String move = (blank / 9 + 1) + " " + (blank % 9 + 1) + " ";
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        ScriptRunner runner = new ScriptRunner(game, null, new PrintStream(errors, true, StandardCharsets.UTF_8));
+        String script = "# café\n" + move + "5\n" + "déjà vu\n" + move + "6\n";
+        runner.run(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)));
+        assert(game.board.get(blank) == 6);
+        assert(runner.lineCount == 4);
+        assert(runner.appliedCount == 2);
+        assert(runner.badCount == 1);
+        assert(errors.toString(StandardCharsets.UTF_8).startsWith("line 3: "));
+    }
+
+    @DisplayName("Undo and redo through a journal")
+    @Test
+    void testJournal() throws IOException {
+        Sudoku game = Sudoku.fromId(5, true);
+        Board start = game.board.copy();
+        int blank = 0;
+        while (game.board.get(blank) != 0) blank++;
+        String move = (blank / 9 + 1) + " " + (blank % 9 + 1) + " ";
+
+        try (GameJournal journal = GameJournal.create(dir.resolve("script.journal"), game)) {
+            ScriptRunner runner = new ScriptRunner(game, journal, null);
+            runner.run(input(move + "4\n" + move + "5\nundo\nundo\nundo\nredo\n"));
+            assert(game.board.get(blank) == 4);
+            assert(runner.appliedCount == 5);
+            assert(runner.ignoredCount == 1);
+            assert(runner.badCount == 0);
+            assert(journal.undo());
+            assert(game.board.equals(start));
+        }
+    }
+
+    @DisplayName("Replay a million moves")
+    @Test
+    void testMillionMoves() throws IOException {
+        Sudoku game = Sudoku.fromId(2, true);
+        StringBuilder script = new StringBuilder(8 * 1_000_000);
+        int pos = 0;
+        for (int n = 0; n < 1_000_000; n++) {
+            while (game.board.isClue(pos / 9, pos % 9)) pos = (pos + 1) % 81;
+            script.append(pos / 9 + 1).append(' ').append(pos % 9 + 1).append(' ').append(n % 10).append('\n');
+            pos = (pos + 1) % 81;
+        }
+        ScriptRunner runner = new ScriptRunner(game, null, null);
+        ByteArrayInputStream in = input(script.toString());
+
+        long start = System.nanoTime();
+        runner.run(in);
+        long elapsed = System.nanoTime() - start;
+        assert(runner.lineCount == 1_000_000);
+        assert(runner.badCount == 0);
+        assert(runner.appliedCount + runner.ignoredCount == 1_000_000);
+        // generous bound for slow machines, typically well under a second
+        assert(elapsed < 5_000_000_000L) : "Replay took " + elapsed / 1_000_000 + " ms";
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+@DisplayName("Solution Spliterator Tests")
+public class TestSolutionSpliterator {
+    /**
+     * Build a 9x9 game from cells
+     * @param cells the 81 cells, 0 for blank
+     * @return the game
+     */
+    private static Sudoku game(int[] cells) {
+        int[][] grid = new int[9][9];
+        for (int pos = 0; pos < 81; pos++) grid[pos / 9][pos % 9] = cells[pos];
+        Sudoku game = new Sudoku(true);
+        game.setGrid(grid);
+        return game;
+    }
+
+    /**
+     * Split a spliterator as far as it goes and drain every piece
+     * @param spliterator the spliterator to drain
+     * @param seen receives the completions as strings
+     * @return the number of completions
+     */
+    private static long drainSplit(Spliterator<int[]> spliterator, Set<String> seen) {
+        long count = 0;
+        Spliterator<int[]> split;
+        while ((split = spliterator.trySplit()) != null) count += drainSplit(split, seen);
+        long[] rest = new long[1];
+        spliterator.forEachRemaining(cells -> {
+            seen.add(Arrays.toString(cells));
+            rest[0]++;
+        });
+        return count + rest[0];
+    }
+
+    @DisplayName("Count completions of a 4x4 board")
+    @Test
+    void testCountFour() {
+        Sudoku empty = new Sudoku(BoardSize.of(2), true, false, new SplittableRandom(23));
+        assert(empty.solutions().count() == 288);
+        assert(empty.solutions().parallel().count() == 288);
+        Set<String> distinct = empty.solutions().parallel().map(Arrays::toString).collect(Collectors.toSet());
+        assert(distinct.size() == 288);
+
+        Set<String> seen = new HashSet<>();
+        assert(drainSplit(new SolutionSpliterator(empty.board), seen) == 288);
+        assert(seen.size() == 288);
+        assert(empty.board.clueCount() == 0 && empty.blankCount == 16);
+    }
+
+    @DisplayName("Completions match the exact-cover solver")
+    @Test
+    void testMatchesSolver() {
+        Solver solver = new DancingLinksSolver();
+        int[] solution = TestDancingLinksSolver.parse(TestDancingLinksSolver.SOLUTION);
+        for (int n = 0; n < 10; n++) {
+            int[] cells = solution.clone();
+            SplittableRandom rand = new SplittableRandom(n);
+            for (int k = 0; k < 50; k++) cells[rand.nextInt(81)] = 0;
+            Sudoku game = game(cells);
+            int expected = solver.countSolutions(cells, 100_000);
+
+            assert(game.solutions().count() == expected) : "Puzzle " + n;
+            Set<String> seen = new HashSet<>();
+            assert(drainSplit(new SolutionSpliterator(game.board), seen) == expected) : "Puzzle " + n;
+            assert(seen.size() == expected);
+            assert(game.solutions().parallel().allMatch(TestDancingLinksSolver::isValidSolution));
+            assert(Arrays.equals(game.toCells(), cells));
+        }
+    }
+
+    @DisplayName("Lazy limit on an empty board")
+    @Test
+    void testLimit() {
+        // an empty 9x9 board has about 6.7e21 completions, so only a lazy stream can finish
+        Sudoku empty = new Sudoku(true);
+        assert(empty.solutions().limit(1000).count() == 1000);
+        assert(empty.solutions().parallel().limit(1000).distinct().count() == 1000);
+        assert(empty.solutions().findFirst().map(TestDancingLinksSolver::isValidSolution).orElse(false));
+
+        Sudoku sixteen = new Sudoku(BoardSize.of(4), true, false, new SplittableRandom(23));
+        assert(sixteen.solutions().parallel().limit(10).count() == 10);
+    }
+
+    @DisplayName("Full and conflicting boards")
+    @Test
+    void testEdgeCases() {
+        int[] solution = TestDancingLinksSolver.parse(TestDancingLinksSolver.SOLUTION);
+        assert(game(solution).solutions().count() == 1);
+        assert(game(solution).solutions().parallel().count() == 1);
+
+        int[] conflict = TestDancingLinksSolver.parse(TestDancingLinksSolver.PUZZLE);
+        conflict[2] = 5;
+        assert(game(conflict).solutions().count() == 0);
+        assert(new SolutionSpliterator(game(conflict).board).trySplit() == null);
+    }
+}
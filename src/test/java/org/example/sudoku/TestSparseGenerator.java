@@ -0,0 +1,72 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+@DisplayName("Sparse Generator Tests")
+public class TestSparseGenerator {
+    @DisplayName("Minimal puzzles")
+    @Test
+    void testMinimal() {
+        SparseGenerator generator = new SparseGenerator(new SplittableRandom(24));
+        Solver solver = new DancingLinksSolver();
+        int[] cells = new int[81];
+        for (int n = 0; n < 10; n++) {
+            generator.minimal().toCells(cells);
+            assert(solver.countSolutions(cells, 2) == 1);
+            for (int pos = 0; pos < 81; pos++) {
+                if (cells[pos] == 0) continue;
+                int digit = cells[pos];
+                cells[pos] = 0;
+                assert(solver.countSolutions(cells, 2) == 2) : "Clue " + pos + " of puzzle " + n + " is not needed";
+                cells[pos] = digit;
+            }
+        }
+        assert(generator.attemptCount == 10);
+    }
+
+    @DisplayName("Target clue counts")
+    @Test
+    void testTargets() {
+        SparseGenerator generator = new SparseGenerator(new SplittableRandom(24));
+        Solver solver = new DancingLinksSolver();
+        Board board = new Board();
+        int[] cells = new int[81];
+        for (int target : new int[] {81, 40, 25, 24, 23}) {
+            generator.generate(target, board);
+            assert(board.clueCount() == target) : "Target " + target;
+            board.toCells(cells);
+            assert(Arrays.stream(cells).filter(digit -> digit != 0).count() == target);
+            assert(solver.countSolutions(cells, 2) == 1);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> generator.generate(16));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> generator.generate(82));
+    }
+
+    @DisplayName("Same seed, same puzzles")
+    @Test
+    void testDeterministic() {
+        SparseGenerator first = new SparseGenerator(new SplittableRandom(7));
+        SparseGenerator second = new SparseGenerator(new SplittableRandom(7));
+        for (int n = 0; n < 5; n++) assert(first.generate(24).equals(second.generate(24)));
+    }
+
+    @DisplayName("Solver is restored after removals")
+    @Test
+    void testSolverRestored() {
+        SparseGenerator generator = new SparseGenerator(new SplittableRandom(24));
+        generator.minimal();
+        generator.generate(30);
+
+        int[] solution = new int[81];
+        assert(generator.solver.countSolutions(TestDancingLinksSolver.parse(TestDancingLinksSolver.PUZZLE), 2,
+                solution) == 1);
+        assert(Arrays.equals(TestDancingLinksSolver.parse(TestDancingLinksSolver.SOLUTION), solution));
+        assert(generator.solver.countSolutions(new int[81], 10) == 10);
+    }
+}
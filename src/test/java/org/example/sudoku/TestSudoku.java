@@ -8,8 +8,9 @@ import org.junit.jupiter.api.Assertions;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.time.Duration;
 
 @DisplayName("Sudoku Tests")
 public class TestSudoku {
@@ -24,18 +25,19 @@ public class TestSudoku {
     @Test
     void testEmptyConstructor() {
         for (int i = 0; i < 9; i++) {
-            assert(Arrays.equals(game.grid[i], new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0}));
-            assert(Arrays.equals(game.isStarterClue[i],
-                    new boolean[] {false, false, false, false, false, false, false, false, false}));
+            assert(Arrays.equals(row(game, i), new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0}));
+            for (int j = 0; j < 9; j++) {
+                assert(!game.board.isClue(i, j));
+            }
         }
-        assert(game.generationUsedRowDigits.size() == 9);
-        assert(game.generationUsedColDigits.size() == 9);
-        assert(game.generationUsedSubgridDigits.size() == 9);
-        assert(game.SUBGRID_DIGITS.size() == 9);
+        assert(game.generationConstraints.rowMasks.length == 9);
+        assert(game.generationConstraints.colMasks.length == 9);
+        assert(game.generationConstraints.subgridMasks.length == 9);
+        assert(game.SUBGRID_DIGITS.length == 9);
         assert(game.blankCount == 81);
 
         for (int i = 0; i < 9; i++) {
-            assert(game.SUBGRID_DIGITS.get(i).size() == 9);
+            assert(game.SUBGRID_DIGITS[i].length == 9);
         }
     }
 
@@ -48,12 +50,13 @@ public class TestSudoku {
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
                 assert(game.checkCell(i, j));
-                if (game.grid[i][j] == 0) blankSpaces++;
-                if (game.isStarterClue[i][j]) starterSpaces++;
+                if (game.board.get(i, j) == 0) blankSpaces++;
+                if (game.board.isClue(i, j)) starterSpaces++;
             }
         }
         assert(game.blankCount == blankSpaces);
         assert(81 - game.blankCount == starterSpaces);
+        assert(new DancingLinksSolver().countSolutions(game, 2) == 1);
     }
 
     @DisplayName("Clear")
@@ -73,16 +76,16 @@ public class TestSudoku {
         game.setGrid(grid);
         game.clear();
         for (int i = 0; i < 9; i++) {
-            assert(Arrays.equals(game.grid[i], new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0}));
-            assert(game.generationUsedRowDigits.get(i).isEmpty());
-            assert(game.generationUsedColDigits.get(i).isEmpty());
-            assert(game.generationUsedSubgridDigits.get(i).isEmpty());
+            assert(Arrays.equals(row(game, i), new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0}));
+            assert(game.generationConstraints.rowMasks[i] == 0);
+            assert(game.generationConstraints.colMasks[i] == 0);
+            assert(game.generationConstraints.subgridMasks[i] == 0);
         }
         assert(game.blankCount == 81);
 
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                assert(!game.isStarterClue[i][j]);
+                assert(!game.board.isClue(i, j));
             }
         }
     }
@@ -151,6 +154,51 @@ public class TestSudoku {
         // invalid cells
         grid[0][0] = 3;
         assert(!game.checkFinished());
+        game.setGrid(grid);
+        assert(!game.checkFinished());
+    }
+
+    @DisplayName("Conflict tracking")
+    @Test
+    void testConflicts() {
+        int[][] grid = {
+                {8, 3, 2, 1, 6, 9, 4, 5, 7},
+                {6, 1, 4, 3, 5, 7, 2, 8, 9},
+                {9, 7, 5, 2, 4, 8, 3, 6, 1},
+                {1, 4, 7, 8, 3, 2, 5, 9, 6},
+                {5, 8, 9, 6, 1, 4, 7, 2, 3},
+                {3, 2, 6, 9, 7, 5, 1, 4, 8},
+                {4, 5, 1, 7, 9, 6, 8, 3, 2},
+                {7, 9, 8, 5, 2, 3, 6, 1, 4},
+                {2, 6, 3, 4, 8, 1, 9, 7, 0}
+        };
+        game.setGrid(grid);
+        assert(!game.hasConflict());
+        assert(!game.checkFinished());
+
+        // 4 clashes with the 4 above it in col 8 and the 4 in row 8
+        game.enterDigit(4, 8, 8);
+        assert(game.hasConflict());
+        assert(!game.checkFinished());
+        assert(!game.checkCell(8, 8));
+        assert(!game.checkCell(7, 8));
+        assert(!game.checkCell(8, 3));
+        assert(game.checkCell(8, 7));
+        long[] conflicting = game.getConflictingCells();
+        assert(Long.bitCount(conflicting[0]) + Long.bitCount(conflicting[1]) == 3);
+        assert((conflicting[80 >>> 6] & (1L << 80)) != 0);
+        assert((conflicting[71 >>> 6] & (1L << 71)) != 0);
+        assert((conflicting[75 >>> 6] & (1L << 75)) != 0);
+
+        game.enterDigit(5, 8, 8);
+        assert(!game.hasConflict());
+        assert(game.checkFinished());
+        conflicting = game.getConflictingCells();
+        assert(conflicting[0] == 0 && conflicting[1] == 0);
+
+        game.enterDigit(0, 8, 8);
+        assert(!game.checkFinished());
+        assert(game.blankCount == 1);
     }
 
     @DisplayName("Check cell")
@@ -213,36 +261,36 @@ public class TestSudoku {
 
         game.setGrid(grid);
         for (int i = 0; i < 9; i++) {
-            assert(Arrays.equals(game.grid[i], grid[i]));
+            assert(Arrays.equals(row(game, i), grid[i]));
         }
 
         int starterCount = 0;
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                if (game.isStarterClue[i][j]) starterCount++;
+                if (game.board.isClue(i, j)) starterCount++;
             }
         }
         assert(starterCount == 13);
         assert(game.blankCount == 68);
 
-        assert(game.generationUsedRowDigits.get(0).equals(new HashSet<>(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9))));
-        assert(game.generationUsedRowDigits.get(5).equals(new HashSet<>(List.of(1, 7, 8, 9))));
-
-        assert(game.generationUsedColDigits.get(0).equals(new HashSet<>(List.of(1))));
-        assert(game.generationUsedColDigits.get(1).equals(new HashSet<>(List.of(2))));
-        assert(game.generationUsedColDigits.get(2).equals(new HashSet<>(List.of(3))));
-        assert(game.generationUsedColDigits.get(3).equals(new HashSet<>(List.of(4, 7))));
-        assert(game.generationUsedColDigits.get(4).equals(new HashSet<>(List.of(5, 8))));
-        assert(game.generationUsedColDigits.get(5).equals(new HashSet<>(List.of(6, 9))));
-        assert(game.generationUsedColDigits.get(6).equals(new HashSet<>(List.of(7, 1))));
-        assert(game.generationUsedColDigits.get(7).equals(new HashSet<>(List.of(8))));
-        assert(game.generationUsedColDigits.get(8).equals(new HashSet<>(List.of(9))));
-
-        assert(game.generationUsedSubgridDigits.get(0).equals(new HashSet<>(List.of(1, 2, 3))));
-        assert(game.generationUsedSubgridDigits.get(1).equals(new HashSet<>(List.of(4, 5, 6))));
-        assert(game.generationUsedSubgridDigits.get(2).equals(new HashSet<>(List.of(7, 8, 9))));
-        assert(game.generationUsedSubgridDigits.get(4).equals(new HashSet<>(List.of(7, 8, 9))));
-        assert(game.generationUsedSubgridDigits.get(5).equals(new HashSet<>(List.of(1))));
+        assert(game.generationConstraints.rowMasks[0] == mask(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assert(game.generationConstraints.rowMasks[5] == mask(1, 7, 8, 9));
+
+        assert(game.generationConstraints.colMasks[0] == mask(1));
+        assert(game.generationConstraints.colMasks[1] == mask(2));
+        assert(game.generationConstraints.colMasks[2] == mask(3));
+        assert(game.generationConstraints.colMasks[3] == mask(4, 7));
+        assert(game.generationConstraints.colMasks[4] == mask(5, 8));
+        assert(game.generationConstraints.colMasks[5] == mask(6, 9));
+        assert(game.generationConstraints.colMasks[6] == mask(7, 1));
+        assert(game.generationConstraints.colMasks[7] == mask(8));
+        assert(game.generationConstraints.colMasks[8] == mask(9));
+
+        assert(game.generationConstraints.subgridMasks[0] == mask(1, 2, 3));
+        assert(game.generationConstraints.subgridMasks[1] == mask(4, 5, 6));
+        assert(game.generationConstraints.subgridMasks[2] == mask(7, 8, 9));
+        assert(game.generationConstraints.subgridMasks[4] == mask(7, 8, 9));
+        assert(game.generationConstraints.subgridMasks[5] == mask(1));
 
         grid = new int[][] {
                 {0, 0, 0, 0, 0, 0, 0, 0, 0},
@@ -257,17 +305,17 @@ public class TestSudoku {
         };
         game.setGrid(grid);
         for (int i = 0; i < 9; i++) {
-            assert(game.generationUsedRowDigits.get(i).isEmpty());
-            assert(game.generationUsedColDigits.get(i).isEmpty());
-            assert(game.generationUsedSubgridDigits.get(i).isEmpty());
+            assert(game.generationConstraints.rowMasks[i] == 0);
+            assert(game.generationConstraints.colMasks[i] == 0);
+            assert(game.generationConstraints.subgridMasks[i] == 0);
         }
         assert(game.blankCount == 81);
 
         starterCount = 0;
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                assert(game.grid[i][j] == 0);
-                if (game.isStarterClue[i][j]) starterCount++;
+                assert(game.board.get(i, j) == 0);
+                if (game.board.isClue(i, j)) starterCount++;
             }
         }
         assert(starterCount == 0);
@@ -299,18 +347,18 @@ public class TestSudoku {
     void testInitDiagonalSubgrids() {
         game.initDiagonalSubgrids();
         for (int i = 0; i < 9; i++) {
-            assert(game.generationUsedRowDigits.get(i).size() == 3);
-            assert(game.generationUsedColDigits.get(i).size() == 3);
+            assert(Long.bitCount(game.generationConstraints.rowMasks[i]) == 3);
+            assert(Long.bitCount(game.generationConstraints.colMasks[i]) == 3);
         }
 
         for (int i = 0; i < 9; i++) {
-            if (i % 4 == 0) assert(game.generationUsedSubgridDigits.get(i).size() == 9);
-            else assert(game.generationUsedSubgridDigits.get(i).isEmpty());
+            if (i % 4 == 0) assert(Long.bitCount(game.generationConstraints.subgridMasks[i]) == 9);
+            else assert(game.generationConstraints.subgridMasks[i] == 0);
         }
 
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                assert(i / 3 != j / 3 || (game.isStarterClue[i][j]));
+                assert(i / 3 != j / 3 || (game.board.isClue(i, j)));
             }
         }
         assert(game.blankCount == 54);
@@ -321,22 +369,22 @@ public class TestSudoku {
     void testFillSubgridWithoutRestrictions() {
         game.fillSubgridWithoutRestrictions(0, 0);
         for (int i = 0; i < 3; i++) {
-            assert(game.generationUsedRowDigits.get(i).size() == 3);
-            assert(game.generationUsedColDigits.get(i).size() == 3);
+            assert(Long.bitCount(game.generationConstraints.rowMasks[i]) == 3);
+            assert(Long.bitCount(game.generationConstraints.colMasks[i]) == 3);
         }
-        assert(game.generationUsedSubgridDigits.getFirst().size() == 9);
+        assert(Long.bitCount(game.generationConstraints.subgridMasks[0]) == 9);
 
         game.fillSubgridWithoutRestrictions(6, 3);
         for (int i = 0; i < 3; i++) {
-            assert(game.generationUsedRowDigits.get(i + 6).size() == 3);
-            assert(game.generationUsedColDigits.get(i + 3).size() == 3);
+            assert(Long.bitCount(game.generationConstraints.rowMasks[i + 6]) == 3);
+            assert(Long.bitCount(game.generationConstraints.colMasks[i + 3]) == 3);
         }
-        assert(game.generationUsedSubgridDigits.get(7).size() == 9);
+        assert(Long.bitCount(game.generationConstraints.subgridMasks[7]) == 9);
 
         int starterCount = 0;
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                if (game.isStarterClue[i][j]) starterCount++;
+                if (game.board.isClue(i, j)) starterCount++;
             }
         }
         assert(starterCount == 18);
@@ -380,8 +428,8 @@ public class TestSudoku {
         };
         game.setGrid(grid);
         game.fillRemaining(8, 8);
-        assert(game.grid[8][8] == 5);
-        assert(game.isStarterClue[8][8]);
+        assert(game.board.get(8, 8) == 5);
+        assert(game.board.isClue(8, 8));
         assert(game.blankCount == 0);
 
         game.clear();
@@ -389,14 +437,14 @@ public class TestSudoku {
         assert(temp);
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                assert(game.grid[i][j] != 0);
+                assert(game.board.get(i, j) != 0);
             }
         }
 
         for (int i = 0; i < 9; i++) {
-            assert(game.generationUsedRowDigits.get(i).size() == 9);
-            assert(game.generationUsedColDigits.get(i).size() == 9);
-            assert(game.generationUsedSubgridDigits.get(i).size() == 9);
+            assert(Long.bitCount(game.generationConstraints.rowMasks[i]) == 9);
+            assert(Long.bitCount(game.generationConstraints.colMasks[i]) == 9);
+            assert(Long.bitCount(game.generationConstraints.subgridMasks[i]) == 9);
         }
 
         temp = game.fillRemaining(10, 0);
@@ -474,8 +522,8 @@ public class TestSudoku {
         int starterSpaces = 0;
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                if (game.grid[i][j] == 0) emptyCount++;
-                if (game.isStarterClue[i][j]) starterSpaces++;
+                if (game.board.get(i, j) == 0) emptyCount++;
+                if (game.board.isClue(i, j)) starterSpaces++;
             }
         }
         assert(emptyCount == 20);
@@ -492,14 +540,176 @@ public class TestSudoku {
         Assertions.assertEquals("Amount to remove exceeds board size", outOfBoundsEx2.getMessage());
     }
 
+    @DisplayName("Remove cells keeping unique")
+    @Test
+    void testRemoveCellsKeepingUnique() {
+        int[][] grid = {
+                {8, 3, 2, 1, 6, 9, 4, 5, 7},
+                {6, 1, 4, 3, 5, 7, 2, 8, 9},
+                {9, 7, 5, 2, 4, 8, 3, 6, 1},
+                {1, 4, 7, 8, 3, 2, 5, 9, 6},
+                {5, 8, 9, 6, 1, 4, 7, 2, 3},
+                {3, 2, 6, 9, 7, 5, 1, 4, 8},
+                {4, 5, 1, 7, 9, 6, 8, 3, 2},
+                {7, 9, 8, 5, 2, 3, 6, 1, 4},
+                {2, 6, 3, 4, 8, 1, 9, 7, 5}
+        };
+        Solver solver = new DancingLinksSolver();
+        for (int seed = 0; seed < 20; seed++) {
+            game.setGrid(grid);
+            game.rand = new Random(seed);
+            int removed = game.removeCellsKeepingUnique(80);
+            assert(removed == game.blankCount);
+            assert(removed >= 45);
+            assert(solver.countSolutions(game, 2) == 1);
+            for (int i = 0; i < 9; i++) {
+                for (int j = 0; j < 9; j++) {
+                    assert(game.board.get(i, j) == 0 || game.board.get(i, j) == grid[i][j]);
+                    assert(game.board.isClue(i, j) == (game.board.get(i, j) != 0));
+                }
+            }
+        }
+
+        game.setGrid(grid);
+        game.rand = new Random(0);
+        assert(game.removeCellsKeepingUnique(30) == 30);
+        assert(game.blankCount == 30);
+
+        AssertionError outOfBoundsEx1 = Assertions.assertThrows(AssertionError.class,
+                () -> game.removeCellsKeepingUnique(-1));
+        AssertionError outOfBoundsEx2 = Assertions.assertThrows(AssertionError.class,
+                () -> game.removeCellsKeepingUnique(81));
+        Assertions.assertEquals("Amount to remove should be positive", outOfBoundsEx1.getMessage());
+        Assertions.assertEquals("Amount to remove exceeds board size", outOfBoundsEx2.getMessage());
+    }
+
+    @DisplayName("Fixed seed generation")
+    @Test
+    void testFixedSeedGeneration() {
+        game.SUBGRID_DIGITS[0] = new int[] {9, 3, 4, 2, 1, 7, 5, 6, 8};
+        game.SUBGRID_DIGITS[1] = new int[] {6, 3, 8, 2, 4, 7, 9, 5, 1};
+        game.SUBGRID_DIGITS[2] = new int[] {5, 2, 8, 1, 3, 9, 4, 6, 7};
+        game.SUBGRID_DIGITS[3] = new int[] {7, 8, 1, 3, 2, 5, 4, 6, 9};
+        game.SUBGRID_DIGITS[4] = new int[] {6, 7, 1, 9, 4, 3, 2, 5, 8};
+        game.SUBGRID_DIGITS[5] = new int[] {7, 5, 2, 3, 6, 4, 1, 8, 9};
+        game.SUBGRID_DIGITS[6] = new int[] {8, 3, 9, 6, 7, 4, 5, 1, 2};
+        game.SUBGRID_DIGITS[7] = new int[] {3, 2, 1, 6, 5, 8, 4, 9, 7};
+        game.SUBGRID_DIGITS[8] = new int[] {7, 1, 6, 4, 5, 2, 3, 8, 9};
+        game.rand = new Random(42);
+
+        // expected boards were recorded from the HashSet-based generation
+        int[][] expectedFull = {
+                {9, 3, 4, 8, 6, 2, 5, 7, 1},
+                {2, 1, 7, 3, 9, 5, 8, 6, 4},
+                {5, 6, 8, 4, 1, 7, 2, 9, 3},
+                {8, 2, 3, 6, 7, 1, 9, 4, 5},
+                {7, 5, 1, 9, 4, 3, 6, 2, 8},
+                {4, 9, 6, 2, 5, 8, 1, 3, 7},
+                {3, 4, 2, 5, 8, 9, 7, 1, 6},
+                {1, 8, 9, 7, 3, 6, 4, 5, 2},
+                {6, 7, 5, 1, 2, 4, 3, 8, 9}
+        };
+        int[][] expectedPuzzle = {
+                {9, 3, 0, 0, 0, 0, 0, 0, 0},
+                {0, 1, 0, 0, 9, 5, 8, 0, 0},
+                {0, 0, 8, 0, 0, 0, 0, 0, 0},
+                {8, 0, 3, 0, 7, 0, 9, 0, 0},
+                {0, 0, 1, 9, 0, 0, 6, 2, 0},
+                {4, 9, 0, 0, 0, 0, 0, 3, 7},
+                {0, 4, 2, 5, 0, 9, 7, 0, 6},
+                {0, 0, 9, 0, 3, 0, 4, 0, 0},
+                {6, 0, 0, 1, 0, 0, 0, 8, 0}
+        };
+
+        game.initDiagonalSubgrids();
+        assert(game.fillRemaining(0, 0));
+        for (int i = 0; i < 9; i++) {
+            assert(Arrays.equals(row(game, i), expectedFull[i]));
+        }
+
+        game.removeRandomCells(50);
+        for (int i = 0; i < 9; i++) {
+            assert(Arrays.equals(row(game, i), expectedPuzzle[i]));
+        }
+        assert(game.blankCount == 50);
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                int digit = expectedPuzzle[i][j];
+                assert(digit == 0 || !game.generationConstraints.isAllowed(digit, i, j));
+            }
+        }
+    }
+
+    @DisplayName("Generation from ID")
+    @Test
+    void testFromId() {
+        for (long id : new long[] {0, 1, 42, -7, Long.MAX_VALUE}) {
+            Sudoku first = Sudoku.fromId(id, false);
+            Sudoku second = Sudoku.fromId(id, false);
+            assert(first.board.equals(second.board));
+            assert(first.blankCount == second.blankCount);
+        }
+        assert(Sudoku.fromId(123, true).board.equals(Sudoku.fromId(123, true).board));
+        assert(!Sudoku.fromId(1, false).board.equals(Sudoku.fromId(2, false).board));
+    }
+
+    @DisplayName("Board sizes")
+    @Test
+    void testBoardSizes() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BoardSize.of(6));
+        for (int box = BoardSize.MIN_BOX; box <= BoardSize.MAX_BOX; box++) {
+            BoardSize dims = BoardSize.of(box);
+            for (long seed = 0; seed < 3; seed++) {
+                Sudoku sized = new Sudoku(dims, false, false, new SplittableRandom(seed));
+                assert(sized.toCells().length == dims.cells);
+                assert(dims.minRemove <= sized.blankCount && sized.blankCount < dims.maxRemove);
+                assert(sized.board.clueCount() == dims.cells - sized.blankCount);
+                assert(!sized.hasConflict());
+                for (int pos = 0; pos < dims.cells; pos++) {
+                    int digit = sized.board.get(pos);
+                    assert(0 <= digit && digit <= dims.size);
+                }
+            }
+        }
+
+        IllegalArgumentException uniqueEx = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Sudoku(BoardSize.of(4), false, true, new SplittableRandom()));
+        Assertions.assertEquals("Unique puzzles are only supported on 9x9 boards", uniqueEx.getMessage());
+    }
+
+    @DisplayName("Bounded fill")
+    @Test
+    void testFillBounded() {
+        BoardSize dims = BoardSize.of(5);
+        Sudoku sized = new Sudoku(dims, true, false, new SplittableRandom(3));
+        Assertions.assertTimeout(Duration.ofSeconds(5), sized::fillBounded);
+        assert(sized.blankCount == 0);
+        assert(sized.checkFinished());
+
+        // the pattern fallback alone is always a valid grid
+        sized.fillFromPattern();
+        assert(sized.blankCount == 0);
+        assert(sized.checkFinished());
+
+        // a conflict on digit 25 is found in every unit of the cell
+        sized.enterDigit(0, 24, 24);
+        sized.board.setClue(24, 24, false);
+        sized.enterDigit(sized.board.get(24, 0), 24, 24);
+        assert(sized.hasConflict());
+        assert(!sized.checkCell(24, 24));
+        long[] conflicting = sized.getConflictingCells();
+        assert((conflicting[624 >>> 6] & (1L << 624)) != 0);
+        assert((conflicting[600 >>> 6] & (1L << 600)) != 0);
+    }
+
     @DisplayName("Enter digit")
     @Test
     void testEnterDigit() {
         game.enterDigit(1, 0, 0);
-        assert(game.grid[0][0] == 1);
+        assert(game.board.get(0, 0) == 1);
         assert(game.blankCount == 80);
         game.enterDigit(0, 0, 0);
-        assert(game.grid[0][0] == 0);
+        assert(game.board.get(0, 0) == 0);
         assert(game.blankCount == 81);
 
         int[][] grid = {
@@ -515,13 +725,132 @@ public class TestSudoku {
         };
         game.setGrid(grid);
         game.enterDigit(2, 0, 0);
-        assert(game.grid[0][0] == 1);
+        assert(game.board.get(0, 0) == 1);
         assert(game.blankCount == 68);
         game.enterDigit(2, 1, 0);
-        assert(game.grid[1][0] == 2);
+        assert(game.board.get(1, 0) == 2);
         assert(game.blankCount == 67);
     }
 
+    @DisplayName("Incremental candidates")
+    @Test
+    void testCandidates() {
+        Random rand = new Random(16);
+        for (int n = 0; n < 5; n++) {
+            game = Sudoku.fromId(n, false);
+            assertCandidatesMatchBoard(game);
+            for (int k = 0; k < 200; k++) {
+                int pos = rand.nextInt(81);
+                game.enterDigit(rand.nextInt(4) == 0 ? 0 : 1 + rand.nextInt(9), pos / 9, pos % 9);
+                assertCandidatesMatchBoard(game);
+            }
+        }
+
+        // larger boards use the same peer tables
+        Sudoku sized = new Sudoku(BoardSize.of(4), false, false, new SplittableRandom(2));
+        assertCandidatesMatchBoard(sized);
+        sized.setGrid(new int[16][16]);
+        sized.enterDigit(16, 5, 5);
+        assert(sized.getCandidates(5, 0) == (BoardSize.of(4).allDigits & ~BoardSize.bit(16)));
+        assertCandidatesMatchBoard(sized);
+    }
+
+    @DisplayName("Pencil marks")
+    @Test
+    void testPencilMarks() {
+        game.togglePencilMark(3, 0, 0);
+        game.togglePencilMark(5, 0, 0);
+        assert(game.getPencilMarks(0, 0) == (ConstraintState.bit(3) | ConstraintState.bit(5)));
+        game.togglePencilMark(3, 0, 0);
+        assert(game.getPencilMarks(0, 0) == ConstraintState.bit(5));
+
+        // without auto-elimination, entering a digit leaves the marks of its peers alone
+        game.enterDigit(5, 0, 8);
+        assert(game.getPencilMarks(0, 0) == ConstraintState.bit(5));
+        game.enterDigit(0, 0, 8);
+
+        game.setAutoEliminate(true);
+        game.fillPencilMarks();
+        assert(game.getPencilMarks(4, 4) == ConstraintState.ALL_DIGITS);
+        game.enterDigit(5, 4, 4);
+        for (int k = 0; k < 9; k++) {
+            if (k != 4) {
+                assert((game.getPencilMarks(4, k) & ConstraintState.bit(5)) == 0);
+                assert((game.getPencilMarks(k, 4) & ConstraintState.bit(5)) == 0);
+            }
+        }
+        assert(game.getPencilMarks(3, 3) == (ConstraintState.ALL_DIGITS & ~ConstraintState.bit(5)));
+        assert(game.getPencilMarks(0, 0) == ConstraintState.ALL_DIGITS);
+    }
+
+    @DisplayName("Next hint")
+    @Test
+    void testNextHint() {
+        Solver solver = new DancingLinksSolver();
+        int[] solution = new int[81];
+        for (int n = 0; n < 20; n++) {
+            game = Sudoku.fromId(n, true);
+            assert(solver.countSolutions(game.toCells(), 2, solution) == 1);
+            Hint hint;
+            while ((hint = game.nextHint()) != null) {
+                if (hint.isPlacement()) {
+                    assert(game.board.get(hint.pos()) == 0);
+                    assert(hint.digit() == solution[hint.pos()]);
+                } else {
+                    for (int pos = 0; pos < 81; pos++) {
+                        assert((hint.eliminations()[pos] & ConstraintState.bit(solution[pos])) == 0);
+                    }
+                }
+                game.applyHint(hint);
+            }
+            assert(game.checkFinished() == (new LogicalSolver().grade(Sudoku.fromId(n, true).toCells())
+                    != Difficulty.BEYOND));
+        }
+
+        // pointing: 5, 8 and 9 only in the top row of the first subgrid, 5 eliminated first
+        game = new Sudoku(true);
+        game.setGrid(new int[][] {
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {1, 2, 3, 0, 0, 0, 0, 0, 0},
+                {4, 6, 7, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0}
+        });
+        Hint hint = game.nextHint();
+        assert(hint.technique() == Technique.POINTING && !hint.isPlacement());
+        assert(hint.eliminations()[8] == ConstraintState.bit(5));
+        assert(hint.eliminations()[1] == 0 && hint.eliminations()[9 + 3] == 0);
+        game.applyHint(hint);
+        assert((game.getCandidates(0, 8) & ConstraintState.bit(5)) == 0);
+
+        // nothing to suggest on a board with a conflict
+        game.enterDigit(5, 0, 0);
+        game.enterDigit(5, 8, 0);
+        assert(game.nextHint() == null);
+    }
+
+    /**
+     * Check the maintained candidates of every cell against a recomputation from its peers
+     * @param game the game to check
+     */
+    static void assertCandidatesMatchBoard(Sudoku game) {
+        BoardSize dims = game.dims;
+        for (int pos = 0; pos < dims.cells; pos++) {
+            long expected = 0;
+            if (game.board.get(pos) == 0) {
+                expected = dims.allDigits;
+                for (int peer : dims.peers[pos]) {
+                    if (game.board.get(peer) != 0) expected &= ~BoardSize.bit(game.board.get(peer));
+                }
+            }
+            assert(game.candidates[pos] == expected);
+        }
+    }
+
     @DisplayName("Get subgrid index")
     @Test
     void testGetSubgridIdx() {
@@ -538,4 +867,26 @@ public class TestSudoku {
         assert(Arrays.equals(new int[] {1, 0}, Sudoku.getNextIdx(0, 8)));
     }
 
+    /**
+     * Build a digit bitmask for comparison against constraint state
+     * @param digits the digits to include
+     * @return the mask with each digit's bit set
+     */
+    static int mask(int... digits) {
+        int mask = 0;
+        for (int digit : digits) mask |= ConstraintState.bit(digit);
+        return mask;
+    }
+
+    /**
+     * Read one row of a game's board
+     * @param game the game to read
+     * @param i the row index
+     * @return the digits of the row
+     */
+    static int[] row(Sudoku game, int i) {
+        int[] row = new int[9];
+        for (int j = 0; j < 9; j++) row[j] = game.board.get(i, j);
+        return row;
+    }
 }
@@ -0,0 +1,122 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+@DisplayName("Symmetry Transform Tests")
+public class TestSymmetryTransform {
+    SymmetryTransform transform;
+
+    @BeforeEach
+    void setup() {
+        transform = new SymmetryTransform();
+    }
+
+    @DisplayName("Identity and rotation")
+    @Test
+    void testRotate() {
+        Sudoku game = Sudoku.fromId(5, false);
+        Board out = new Board();
+        transform.apply(game.board, out);
+        assert(out.equals(game.board));
+
+        transform.rotate(1);
+        transform.apply(game.board, out);
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                assert(out.get(i, j) == game.board.get(8 - j, i));
+                assert(out.isClue(i, j) == game.board.isClue(8 - j, i));
+            }
+        }
+
+        // four quarter turns return the original board
+        Board turned = game.board.copy();
+        for (int n = 0; n < 4; n++) {
+            transform.apply(turned, out);
+            turned.copyFrom(out);
+        }
+        assert(turned.equals(game.board));
+
+        transform.rotate(2);
+        transform.apply(game.board, out);
+        assert(out.get(0, 0) == game.board.get(8, 8));
+        assert(out.get(2, 7) == game.board.get(6, 1));
+
+        AssertionError inPlaceEx = Assertions.assertThrows(AssertionError.class,
+                () -> transform.apply(game.board, game.board));
+        Assertions.assertEquals("Cannot transform a board in place", inPlaceEx.getMessage());
+    }
+
+    @DisplayName("Random transforms keep puzzles equivalent")
+    @Test
+    void testRandomize() {
+        Solver solver = new DancingLinksSolver();
+        LogicalSolver grader = new LogicalSolver();
+        SplittableRandom rand = new SplittableRandom(11);
+        Sudoku out = new Sudoku(true);
+        int[] solution = new int[81];
+        for (int n = 0; n < 20; n++) {
+            Sudoku game = Sudoku.fromId(n, true);
+            Difficulty difficulty = grader.grade(game.toCells());
+            for (int k = 0; k < 10; k++) {
+                transform.randomize(rand);
+                transform.apply(game, out);
+
+                assert(out.board.clueCount() == game.board.clueCount());
+                assert(out.blankCount == game.blankCount);
+                assert(!out.hasConflict());
+                for (int pos = 0; pos < 81; pos++) {
+                    assert(out.board.isClue(pos / 9, pos % 9) == (out.board.get(pos) != 0));
+                }
+                assert(solver.countSolutions(out.toCells(), 2, solution) == 1);
+                assert(TestDancingLinksSolver.isValidSolution(solution));
+                assert(grader.grade(out.toCells()) == difficulty);
+            }
+        }
+    }
+
+    @DisplayName("Write transformed lines")
+    @Test
+    void testWriteLine() {
+        Sudoku game = Sudoku.fromId(9, false);
+        Board out = new Board();
+        transform.randomize(new SplittableRandom(2));
+        transform.apply(game.board, out);
+
+        byte[] line = new byte[PuzzleFormat.LINE_LENGTH];
+        assert(transform.writeLine(game.toCells(), line, 0) == PuzzleFormat.LINE_LENGTH);
+        int[] cells = new int[81];
+        assert(PuzzleFormat.parseLine(line, 0, 81, cells));
+        for (int pos = 0; pos < 81; pos++) assert(cells[pos] == out.get(pos));
+    }
+
+    @DisplayName("Multiply a file")
+    @Test
+    void testBatchMultiplier() throws IOException, InterruptedException {
+        String input = TestDancingLinksSolver.PUZZLE + "\n12345\n" + TestDancingLinksSolver.PUZZLE + "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchMultiplier multiplier = new BatchMultiplier(2, 50, 7);
+        assert(multiplier.run(Channels.newChannel(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))), out) == 3);
+        assert(multiplier.solvedCount == 2);
+        assert(multiplier.invalidCount == 1);
+
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assert(lines.length == 100);
+        Solver solver = new DancingLinksSolver();
+        for (int n = 0; n < 50; n++) {
+            // the same puzzle and seed give the same variants
+            assert(lines[n].equals(lines[50 + n]));
+            assert(solver.countSolutions(TestDancingLinksSolver.parse(lines[n]), 2) == 1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.sudoku;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+@DisplayName("Terminal Renderer Tests")
+public class TestTerminalRenderer {
+    final static String NL = System.lineSeparator();
+
+    Sudoku game;
+    ByteArrayOutputStream out;
+    TerminalRenderer renderer;
+
+    @BeforeEach
+    void setup() {
+        game = new Sudoku(true);
+        int[][] grid = {
+                {1, 2, 3, 4, 5, 6, 7, 8, 9},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 7, 8, 9, 1, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+        };
+        game.setGrid(grid);
+        out = new ByteArrayOutputStream();
+        renderer = new TerminalRenderer(out);
+    }
+
+    @DisplayName("Full frame")
+    @Test
+    void testPrintFrame() throws IOException {
+        game.enterDigit(4, 1, 0);
+        renderer.printFrame(game);
+        String expected = "1 2 3 | 4 5 6 | 7 8 9" + NL
+                + "\u001b[34m4\u001b[0m _ _ | _ _ _ | _ _ _" + NL
+                + "_ _ _ | _ _ _ | _ _ _" + NL
+                + "------+-------+------" + NL
+                + "_ _ _ | _ _ _ | _ _ _" + NL
+                + "_ _ _ | _ _ _ | _ _ _" + NL
+                + "_ _ _ | 7 8 9 | 1 _ _" + NL
+                + "------+-------+------" + NL
+                + "_ _ _ | _ _ _ | _ _ _" + NL
+                + "_ _ _ | _ _ _ | _ _ _" + NL
+                + "_ _ _ | _ _ _ | _ _ _" + NL;
+        assert(expected.equals(out.toString(StandardCharsets.US_ASCII)));
+    }
+
+    @DisplayName("Diff frames")
+    @Test
+    void testRenderDiff() throws IOException {
+        renderer.render(game);
+        String first = out.toString(StandardCharsets.US_ASCII);
+        assert(first.startsWith("\u001b[2J\u001b[H1 2 3 | 4 5 6 | 7 8 9" + NL));
+
+        // unchanged board only returns the cursor to the prompt line
+        out.reset();
+        renderer.render(game);
+        assert("\u001b[12;1H\u001b[J".equals(out.toString(StandardCharsets.US_ASCII)));
+
+        // a user digit in row 7, col 4 lands below two separator lines and past one column separator
+        out.reset();
+        game.enterDigit(3, 6, 3);
+        renderer.render(game);
+        assert("\u001b[9;9H\u001b[34m3\u001b[0m\u001b[12;1H\u001b[J".equals(out.toString(StandardCharsets.US_ASCII)));
+
+        // a conflicting digit recolours both cells red
+        out.reset();
+        game.enterDigit(1, 4, 6);
+        renderer.render(game);
+        assert(("\u001b[6;17H\u001b[31m1\u001b[0m\u001b[7;17H\u001b[31m1\u001b[0m\u001b[12;1H\u001b[J")
+                .equals(out.toString(StandardCharsets.US_ASCII)));
+    }
+
+    @DisplayName("Other board sizes")
+    @Test
+    void testBoardSizes() throws IOException {
+        Sudoku small = new Sudoku(BoardSize.of(2), true, false, new SplittableRandom());
+        small.setGrid(new int[][] {{1, 2, 3, 4}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}});
+        renderer.printFrame(small);
+        String expected = "1 2 | 3 4" + NL
+                + "_ _ | _ _" + NL
+                + "----+----" + NL
+                + "_ _ | _ _" + NL
+                + "_ _ | _ _" + NL;
+        assert(expected.equals(out.toString(StandardCharsets.US_ASCII)));
+
+        // digits above 9 are drawn as letters, and the prompt line moves below the taller grid
+        Sudoku large = new Sudoku(BoardSize.of(4), true, false, new SplittableRandom());
+        int[][] grid = new int[16][16];
+        grid[0][15] = 16;
+        large.setGrid(grid);
+        out.reset();
+        renderer.render(large);
+        String first = out.toString(StandardCharsets.US_ASCII);
+        assert(first.contains(" G" + NL));
+        assert(first.contains("--------+---------+---------+--------" + NL));
+        out.reset();
+        large.enterDigit(10, 15, 15);
+        renderer.render(large);
+        assert("\u001b[19;37H\u001b[34mA\u001b[0m\u001b[20;1H\u001b[J".equals(out.toString(StandardCharsets.US_ASCII)));
+        assert(TerminalRenderer.screenLine(15, 4) == 19);
+        assert(TerminalRenderer.screenColumn(15, 4) == 37);
+    }
+
+    @DisplayName("Screen positions")
+    @Test
+    void testScreenPositions() {
+        assert(TerminalRenderer.screenLine(0) == 1);
+        assert(TerminalRenderer.screenLine(3) == 5);
+        assert(TerminalRenderer.screenLine(8) == 11);
+        assert(TerminalRenderer.screenColumn(0) == 1);
+        assert(TerminalRenderer.screenColumn(3) == 9);
+        assert(TerminalRenderer.screenColumn(8) == 21);
+    }
+}